@@ -151,7 +151,8 @@ CREATE TABLE `transcripts` (
   `section_index` int NOT NULL,
   `start_sec` int NOT NULL,
   `text` tinytext COLLATE utf8mb4_general_ci NOT NULL,
-  PRIMARY KEY (`id`)
+  PRIMARY KEY (`id`),
+  KEY `idx_transcripts_lecture_end_section` (`lecture_id`,`end_sec`,`section_index`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 /*!40101 SET character_set_client = @saved_cs_client */;
 
@@ -0,0 +1,67 @@
+package com.capstone.livenote.application.ws;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.Base64;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 브라우저 PCM 프레임 → input_audio_buffer.append 메시지 변환 비용 비교.
+ *
+ * - legacy: ByteBuffer → byte[] 복사 → Base64 String → JSON String 결합 (기존 경로)
+ * - pooled: ByteBuffer → 풀의 CharBuffer에 바로 인코딩 → 반납
+ *
+ * 할당량은 gc 프로파일러의 gc.alloc.rate.norm(B/op)으로 확인한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class AudioForwardingBenchmark {
+
+    // 24kHz PCM16 기준 약 20ms / 100ms / 250ms
+    @Param({"960", "4800", "12000"})
+    public int frameBytes;
+
+    private ByteBuffer frame;
+    private CharBufferPool pool;
+
+    @Setup
+    public void setUp() {
+        byte[] pcm = new byte[frameBytes];
+        new Random(42).nextBytes(pcm);
+        frame = ByteBuffer.wrap(pcm);
+        pool = new CharBufferPool(16384, 16);
+    }
+
+    @Benchmark
+    public void legacy(Blackhole bh) {
+        ByteBuffer payload = frame.duplicate();
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        String b64 = Base64.getEncoder().encodeToString(bytes);
+        String message = "{\"type\":\"input_audio_buffer.append\",\"audio\":\"" + b64 + "\"}";
+        bh.consume(message);
+    }
+
+    @Benchmark
+    public void pooled(Blackhole bh) {
+        ByteBuffer payload = frame.duplicate();
+        while (payload.hasRemaining()) {
+            CharBuffer message = pool.acquire();
+            AudioAppendEncoder.encode(payload, message);
+            bh.consume(message.length());
+            pool.release(message);
+        }
+    }
+}
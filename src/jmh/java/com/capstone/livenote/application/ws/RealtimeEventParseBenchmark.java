@@ -0,0 +1,158 @@
+package com.capstone.livenote.application.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenAI Realtime 이벤트 한 건당 파싱/분기 비용 비교 (이벤트 구성은 실제 세션 로그에서 가져온 비율).
+ *
+ * - tree: readTree + type.contains(...) 분기 (기존 handleOpenAiText)
+ * - streaming: OpenAiRealtimeEvents 표로 만든 RealtimeEventDispatcher (type 먼저, 필요한 필드만)
+ *
+ * 결과는 이벤트 1건 기준이며, 할당량은 gc 프로파일러의 gc.alloc.rate.norm(B/op)으로 확인한다.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RealtimeEventParseBenchmark {
+
+    private static final int EVENTS = 64;
+
+    // transcribe: gpt-4o-transcribe 세션 (delta 위주), response: 응답 스트림까지 섞인 세션
+    @Param({"transcribe", "response"})
+    public String mix;
+
+    private String[] events;
+    private ObjectMapper objectMapper;
+    private RealtimeEventDispatcher<Blackhole> dispatcher;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper();
+        dispatcher = OpenAiRealtimeEvents.dispatcher(objectMapper.getFactory(), new OpenAiRealtimeEvents.Handler<>() {
+            @Override
+            public void onError(Blackhole bh, RealtimeEvent e) {
+                bh.consume(e.errorMessageOrType());
+            }
+
+            @Override
+            public void onTranscriptionFailed(Blackhole bh, RealtimeEvent e) {
+                bh.consume(e.itemId);
+            }
+
+            @Override
+            public void onSpeechStarted(Blackhole bh, RealtimeEvent e) {
+                bh.consume(e.type);
+            }
+
+            @Override
+            public void onSpeechStopped(Blackhole bh, RealtimeEvent e) {
+                bh.consume(e.audioEndMs);
+            }
+
+            @Override
+            public void onTranscriptionCompleted(Blackhole bh, RealtimeEvent e) {
+                bh.consume(e.transcript);
+            }
+
+            @Override
+            public void onTranscriptDelta(Blackhole bh, RealtimeEvent e) {
+                bh.consume(e.deltaText());
+            }
+
+            @Override
+            public void onTranscriptDone(Blackhole bh, RealtimeEvent e) {
+                bh.consume(e.type);
+            }
+
+            @Override
+            public void onContent(Blackhole bh, RealtimeEvent e) {
+                bh.consume(e.content);
+            }
+        });
+        events = recordedMix(mix);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void tree(Blackhole bh) throws Exception {
+        for (String event : events) {
+            JsonNode root = objectMapper.readTree(event);
+            String type = root.path("type").asText("");
+            if (type.equalsIgnoreCase("error") || root.has("error")) {
+                bh.consume(root.path("error").path("message").asText(type));
+            } else if (type.equals("input_audio_buffer.speech_started")) {
+                bh.consume(type);
+            } else if (type.equals("input_audio_buffer.speech_stopped")) {
+                bh.consume(root.path("audio_end_ms").asLong(-1));
+            } else if (type.equals("conversation.item.input_audio_transcription.completed")) {
+                bh.consume(root.path("transcript").asText(""));
+            } else if (type.contains("output_text.delta") || type.contains("transcript.delta")
+                    || type.contains("transcription.delta")) {
+                bh.consume(root.path("delta").asText(""));
+            } else if (type.contains("response.done")) {
+                bh.consume(type);
+            } else if (root.has("content")) {
+                bh.consume(root.path("content").asText(""));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(EVENTS)
+    public void streaming(Blackhole bh) throws Exception {
+        for (String event : events) {
+            dispatcher.dispatch(bh, event);
+        }
+    }
+
+    private static String[] recordedMix(String mix) {
+        List<String> out = new ArrayList<>();
+        int utterance = 0;
+        while (out.size() < EVENTS) {
+            String item = "item_C" + (1000 + utterance);
+            out.add("{\"type\":\"input_audio_buffer.speech_started\",\"event_id\":\"event_B" + utterance
+                    + "\",\"audio_start_ms\":" + (utterance * 4200) + ",\"item_id\":\"" + item + "\"}");
+            out.add("{\"type\":\"input_audio_buffer.speech_stopped\",\"event_id\":\"event_B" + utterance
+                    + "s\",\"audio_end_ms\":" + (utterance * 4200 + 3600) + ",\"item_id\":\"" + item + "\"}");
+            out.add("{\"type\":\"input_audio_buffer.committed\",\"event_id\":\"event_B" + utterance
+                    + "c\",\"previous_item_id\":null,\"item_id\":\"" + item + "\"}");
+            String deltaType = mix.equals("response")
+                    ? "response.audio_transcript.delta"
+                    : "conversation.item.input_audio_transcription.delta";
+            String[] words = {"오늘은 ", "자료구조 ", "중에서 ", "해시 ", "테이블의 ", "충돌 ", "해결 ", "방법을 ", "살펴보겠습니다."};
+            StringBuilder full = new StringBuilder();
+            for (String word : words) {
+                full.append(word);
+                out.add("{\"type\":\"" + deltaType + "\",\"event_id\":\"event_D" + utterance + "\",\"item_id\":\""
+                        + item + "\",\"content_index\":0,\"delta\":\"" + word + "\"}");
+            }
+            out.add("{\"type\":\"conversation.item.input_audio_transcription.completed\",\"event_id\":\"event_T"
+                    + utterance + "\",\"item_id\":\"" + item + "\",\"content_index\":0,\"transcript\":\"" + full
+                    + "\",\"usage\":{\"type\":\"tokens\",\"total_tokens\":48,\"input_tokens\":31,"
+                    + "\"input_token_details\":{\"text_tokens\":0,\"audio_tokens\":31},\"output_tokens\":17}}");
+            if (mix.equals("response")) {
+                out.add("{\"type\":\"response.done\",\"event_id\":\"event_R" + utterance + "\",\"response\":{\"id\":\"resp_"
+                        + utterance + "\",\"status\":\"completed\",\"output\":[],\"usage\":{\"total_tokens\":120}}}");
+            }
+            out.add("{\"type\":\"rate_limits.updated\",\"event_id\":\"event_L" + utterance + "\",\"rate_limits\":"
+                    + "[{\"name\":\"requests\",\"limit\":1000,\"remaining\":999,\"reset_seconds\":60}]}");
+            utterance++;
+        }
+        return out.subList(0, EVENTS).toArray(new String[0]);
+    }
+}
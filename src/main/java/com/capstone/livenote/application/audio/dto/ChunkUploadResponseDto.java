@@ -0,0 +1,17 @@
+package com.capstone.livenote.application.audio.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkUploadResponseDto {
+    private Integer chunkSeq;
+    private boolean duplicate;  // 같은 (lectureId, chunkSeq)가 이미 접수됨 (재전송)
+    private String status;      // "accepted" | "processing" | "done"
+    private String text;        // 이미 전사가 끝난 재전송이면 그 결과
+}
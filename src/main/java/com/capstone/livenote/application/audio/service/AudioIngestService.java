@@ -1,63 +1,105 @@
 package com.capstone.livenote.application.audio.service;
 
+import com.capstone.livenote.application.audio.dto.ChunkUploadResponseDto;
 import com.capstone.livenote.application.audio.storage.AudioStorage;
-import com.capstone.livenote.application.openai.service.OpenAiSttService;
 import com.capstone.livenote.domain.lecture.entity.Lecture;
 import com.capstone.livenote.domain.lecture.repository.LectureRepository;
-import com.capstone.livenote.domain.transcript.service.TranscriptService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 오디오 청크 처리 서비스
  *
  * 플로우:
  * 1. 오디오 파일 저장 (로컬)
- * 2. OpenAI Whisper로 STT 처리
- * 3. Transcript 저장
+ * 2. OpenAI Whisper로 STT 처리 (강의별로 여러 청크 동시에, ChunkTranscriptionPipeline)
+ * 3. Transcript 저장 (chunkSeq 순서대로)
+ *
+ * 같은 (lectureId, chunkSeq) 재전송은 저장/STT 없이 앞 결과를 돌려준다 (SttResultCache).
  */
 @Service
 @RequiredArgsConstructor
 public class AudioIngestService {
 
     private final AudioStorage storage;
-    private final OpenAiSttService sttService;
-    private final TranscriptService transcriptService;
+    private final ChunkTranscriptionPipeline transcriptionPipeline;
     private final LectureRepository lectureRepository;
+    private final SttResultCache resultCache;
 
     /**
-     * 오디오 청크 업로드 및 STT 처리
+     * 오디오 청크 업로드. 파일 저장까지 하고 반환하며, STT와 전사 저장은 파이프라인에서 이어서 한다
+     * (결과는 저장 시 StreamGateway로 전송된다).
+     * 이미 접수된 청크의 재전송이면 본문을 읽지 않고 앞 접수 상태(끝났으면 전사 결과)를 돌려준다.
      */
-    @Transactional
-    public void uploadChunk(Long lectureId, int chunkSeq, int startSec, int endSec, MultipartFile file)
+    public ChunkUploadResponseDto uploadChunk(Long lectureId, int chunkSeq, int startSec, int endSec, MultipartFile file)
             throws IOException {
 
         // 1) 강의 존재 확인
         Lecture lecture = lectureRepository.findById(lectureId)
                 .orElseThrow(() -> new IllegalArgumentException("강의를 찾을 수 없습니다: " + lectureId));
 
-        // 2) 오디오 파일 저장
-        String uri = storage.save(lectureId, chunkSeq, file.getBytes());
-        System.out.println("[AudioIngest] Chunk saved: lecture=" + lectureId +
-                " seq=" + chunkSeq + " file=" + uri);
+        // 2) 재전송 확인 (같은 청크 번호가 이미 접수됨)
+        CompletableFuture<String> earlier = resultCache.claim(lectureId, chunkSeq);
+        if (earlier != null) {
+            String status = "processing";
+            String text = null;
+            if (earlier.isDone() && !earlier.isCompletedExceptionally()) {
+                status = "done";
+                text = earlier.getNow(null);
+            }
+            System.out.println("[AudioIngest] Duplicate chunk ignored: lecture=" + lectureId +
+                    " seq=" + chunkSeq + " status=" + status);
+            return ChunkUploadResponseDto.builder()
+                    .chunkSeq(chunkSeq)
+                    .duplicate(true)
+                    .status(status)
+                    .text(text)
+                    .build();
+        }
 
-        // 3) OpenAI Whisper STT 호출
-        String filename = lectureId + "_" + chunkSeq + ".webm";
-        String transcriptText = sttService.transcribe(
-                file.getBytes(),
-                filename,
-                lecture.getSttLanguage()
-        );
+        try {
+            // 3) 오디오 파일 저장 (multipart 스트림을 한 번만 읽어 디스크로, 힙에 올리지 않음). 읽으면서 내용 해시 계산
+            MessageDigest digest = sha256();
+            String uri;
+            try (InputStream in = new DigestInputStream(file.getInputStream(), digest)) {
+                uri = storage.save(lectureId, chunkSeq, startSec, in);
+            }
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            System.out.println("[AudioIngest] Chunk saved: lecture=" + lectureId +
+                    " seq=" + chunkSeq + " file=" + uri);
 
-        System.out.println("[AudioIngest] STT completed: " +
-                transcriptText.substring(0, Math.min(50, transcriptText.length())) + "...");
+            // 4) Whisper STT(저장된 파일을 스트리밍, 같은 내용이면 캐시) → 순서대로 Transcript 저장 + 요약 트리거 + WebSocket 전송
+            Resource audio = storage.load(lectureId, chunkSeq);
+            transcriptionPipeline.submit(lectureId, chunkSeq, startSec, endSec, audio, lecture.getSttLanguage(),
+                    contentHash);
+        } catch (IOException | RuntimeException e) {
+            resultCache.release(lectureId, chunkSeq); // 재전송하면 다시 처리
+            throw e;
+        }
+        return ChunkUploadResponseDto.builder()
+                .chunkSeq(chunkSeq)
+                .duplicate(false)
+                .status("accepted")
+                .build();
+    }
 
-        // 4) Transcript 저장 + 요약 트리거 + WebSocket 전송
-        transcriptService.saveFromStt(lectureId, startSec, endSec, transcriptText);
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -71,5 +113,6 @@ public class AudioIngestService {
             lecture.setStatus(Lecture.Status.COMPLETED);
             lectureRepository.save(lecture);
         });
+        transcriptionPipeline.forget(lectureId);
     }
 }
\ No newline at end of file
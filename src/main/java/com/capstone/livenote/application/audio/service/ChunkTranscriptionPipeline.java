@@ -0,0 +1,420 @@
+package com.capstone.livenote.application.audio.service;
+
+import com.capstone.livenote.application.openai.service.OpenAiSttService;
+import com.capstone.livenote.application.ws.StreamGateway;
+import com.capstone.livenote.domain.transcript.service.TranscriptService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 업로드된 오디오 청크를 강의별로 여러 개씩 동시에 Whisper로 보내고,
+ * 결과는 chunkSeq 순서대로만 TranscriptService.saveFromStt에 넘긴다 (섹션 배정이 순서에 의존).
+ *
+ * - 강의당 동시 STT 호출은 max-in-flight-per-lecture개까지. 나머지는 강의별 대기열에서 스레드를 잡지 않고 기다린다.
+ * - 먼저 끝난 뒤 순번 청크의 결과는 재정렬 버퍼에 두었다가 앞 순번이 저장되면 이어서 저장한다.
+ * - 강의의 첫 순번은 처음 저장하기 전까지 들어온 가장 작은 순번 (이미 저장한 강의는 이어서 기대하는 순번).
+ *   앞 순번 청크가 업로드되지 않은 채 gap-timeout-ms가 지나면 그 구멍은 건너뛴다.
+ * - STT는 stt-attempts번까지 다시 시도한다. 그래도 실패하면 접수 기록을 지우고 순번 자리는 비워 둔 채
+ *   강의 error 채널로 알린다 (gap-timeout-ms 안에 재전송하면 다시 처리된다).
+ * - 저장에 실패한 청크와 이미 지나간 순번으로 늦게 온 청크는 저장하지 않는다. 늦은 청크를 끼워 넣으면
+ *   타임라인이 재시작으로 보고 이후 전사를 모두 밀어 버리기 때문. 대신 접수 기록을 지우고
+ *   강의 error 채널로 알린다.
+ * - 저장은 강의별로 한 번에 하나만 (저장 중 끝난 결과는 저장하던 스레드가 이어서 처리한다).
+ * - 같은 내용 해시의 결과가 SttResultCache에 있으면 Whisper를 부르지 않고, 저장이 끝나면 재전송용 결과를 남긴다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ChunkTranscriptionPipeline {
+
+    private final OpenAiSttService sttService;
+    private final TranscriptService transcriptService;
+    private final SttResultCache resultCache;
+    private final StreamGateway streamGateway;
+
+    @Value("${app.audio-ingest.stt-threads:8}")
+    private int sttThreads;
+
+    @Value("${app.audio-ingest.max-in-flight-per-lecture:4}")
+    private int maxInFlightPerLecture;
+
+    @Value("${app.audio-ingest.gap-timeout-ms:30000}")
+    private long gapTimeoutMs;
+
+    @Value("${app.audio-ingest.stt-attempts:3}")
+    private int sttAttempts;
+
+    @Value("${app.audio-ingest.stt-retry-backoff-ms:1000}")
+    private long sttRetryBackoffMs;
+
+    @Value("${app.audio-ingest.shutdown-timeout-seconds:30}")
+    private int shutdownTimeoutSeconds;
+
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    // 대기열이 비어 정리된 강의의 다음 순번 (다시 업로드가 오면 여기서부터)
+    private final Map<Long, Integer> expectedSeqs = new ConcurrentHashMap<>();
+
+    private ExecutorService workers;
+    private ScheduledExecutorService timer;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger seq = new AtomicInteger();
+        workers = Executors.newFixedThreadPool(Math.max(1, sttThreads), r -> {
+            Thread t = new Thread(r, "audio-stt-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        timer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "audio-stt-reorder");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        timer.shutdownNow();
+        workers.shutdown();
+        if (!workers.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            log.warn("[AudioIngest] STT pipeline shutdown timed out, lectures pending={}", lanes.size());
+            workers.shutdownNow();
+        }
+    }
+
+    /**
+     * 청크를 강의별 STT 대기열에 넣고 바로 반환한다.
+     */
+    public void submit(Long lectureId, int chunkSeq, int startSec, int endSec, Resource audio, String language) {
+        submit(lectureId, chunkSeq, startSec, endSec, audio, language, null);
+    }
+
+    /**
+     * @param contentHash 오디오 내용 해시 (같은 바이트의 이전 STT 결과를 재사용, null이면 항상 STT)
+     */
+    public void submit(Long lectureId, int chunkSeq, int startSec, int endSec, Resource audio, String language,
+                       String contentHash) {
+        Chunk chunk = new Chunk(chunkSeq, startSec, endSec, audio, language, contentHash);
+        boolean[] accepted = new boolean[1];
+        Lane lane = lanes.compute(lectureId, (id, l) -> {
+            if (l == null) {
+                l = new Lane(id, expectedSeqs.remove(id));
+            }
+            accepted[0] = l.add(chunk);
+            return l;
+        });
+        if (!accepted[0]) {
+            reject(lane.lectureId, chunkSeq, "이미 지나간 순번의 청크라 저장하지 않습니다");
+            removeIfIdle(lane);
+            return;
+        }
+        pump(lane);
+    }
+
+    /**
+     * 강의가 끝났거나 삭제됐다. 다음 순번 기록을 지운다.
+     */
+    public void forget(Long lectureId) {
+        expectedSeqs.remove(lectureId);
+    }
+
+    private void pump(Lane lane) {
+        for (Chunk chunk : lane.startable(maxInFlightPerLecture)) {
+            runTranscribe(lane, chunk);
+        }
+    }
+
+    private void runTranscribe(Lane lane, Chunk chunk) {
+        try {
+            workers.execute(() -> transcribe(lane, chunk));
+        } catch (RejectedExecutionException e) {
+            // 종료 중: 호출한 스레드에서 처리
+            transcribe(lane, chunk);
+        }
+    }
+
+    private void transcribe(Lane lane, Chunk chunk) {
+        chunk.attempts++;
+        long started = System.currentTimeMillis();
+        try {
+            String cached = resultCache.cachedText(chunk.contentHash);
+            if (cached != null) {
+                chunk.text = cached;
+                log.info("[AudioIngest] STT cache hit: lecture={} seq={}", lane.lectureId, chunk.seq);
+            } else {
+                String filename = lane.lectureId + "_" + chunk.seq + ".webm";
+                chunk.text = sttService.transcribe(lane.lectureId, chunk.audio, filename, chunk.language);
+                resultCache.cacheText(chunk.contentHash, chunk.text);
+            }
+            log.info("[AudioIngest] STT completed: lecture={} seq={} took={}ms text={}...", lane.lectureId, chunk.seq,
+                    System.currentTimeMillis() - started,
+                    chunk.text.substring(0, Math.min(50, chunk.text.length())));
+        } catch (Exception e) {
+            if (chunk.attempts < Math.max(1, sttAttempts) && retryLater(lane, chunk)) {
+                log.warn("[AudioIngest] STT failed, retrying: lecture={} seq={} attempt={} err={}",
+                        lane.lectureId, chunk.seq, chunk.attempts, e.getMessage());
+                return;
+            }
+            log.error("[AudioIngest] STT failed, leaving slot open for re-upload: lecture={} seq={} err={}",
+                    lane.lectureId, chunk.seq, e.getMessage());
+            chunk.audio = null;
+            lane.failed(chunk);
+            giveUp(lane.lectureId, chunk.seq, "STT 실패: " + e.getMessage());
+            pump(lane);
+            commitReady(lane);
+            return;
+        }
+        chunk.audio = null;
+        lane.completed(chunk);
+        pump(lane);
+        commitReady(lane);
+    }
+
+    /**
+     * STT 재시도를 예약한다. 종료 중이라 예약할 수 없으면 false
+     */
+    private boolean retryLater(Lane lane, Chunk chunk) {
+        try {
+            timer.schedule(() -> runTranscribe(lane, chunk),
+                    sttRetryBackoffMs * chunk.attempts, TimeUnit.MILLISECONDS);
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 순서가 된 결과를 저장한다. 다른 스레드가 저장 중이면 그 스레드가 이어서 처리한다.
+     */
+    private void commitReady(Lane lane) {
+        while (true) {
+            Chunk next = lane.pollReady();
+            if (next == null) {
+                scheduleGapCheck(lane);
+                removeIfIdle(lane);
+                return;
+            }
+            try {
+                transcriptService.saveFromStt(lane.lectureId, next.startSec, next.endSec, next.text);
+                resultCache.completed(lane.lectureId, next.seq, next.text);
+            } catch (Exception e) {
+                log.error("[AudioIngest] transcript save failed lecture={} seq={} err={}",
+                        lane.lectureId, next.seq, e.getMessage(), e);
+                reject(lane.lectureId, next.seq, "전사 저장 실패: " + e.getMessage());
+            } finally {
+                lane.committed();
+            }
+        }
+    }
+
+    /**
+     * 저장하지 못한 청크: 접수 기록을 지우고 강의 error 채널로 알린다.
+     */
+    private void reject(Long lectureId, int chunkSeq, String reason) {
+        log.warn("[AudioIngest] chunk not saved: lecture={} seq={} reason={}", lectureId, chunkSeq, reason);
+        resultCache.release(lectureId, chunkSeq);
+        notifyError(lectureId, "오디오 청크 " + chunkSeq + " 전사 실패: " + reason);
+    }
+
+    /**
+     * STT를 끝내 못 한 청크: 접수 기록을 지워 재전송하면 다시 처리되게 하고 강의 error 채널로 알린다.
+     */
+    private void giveUp(Long lectureId, int chunkSeq, String reason) {
+        resultCache.release(lectureId, chunkSeq);
+        notifyError(lectureId, "오디오 청크 " + chunkSeq + " 전사 실패 (다시 업로드해 주세요): " + reason);
+    }
+
+    private void notifyError(Long lectureId, String message) {
+        try {
+            streamGateway.sendError(lectureId, message);
+        } catch (Exception e) {
+            log.warn("[AudioIngest] error notify failed lecture={} err={}", lectureId, e.getMessage());
+        }
+    }
+
+    private void scheduleGapCheck(Lane lane) {
+        if (!lane.needsGapCheck()) return;
+        try {
+            timer.schedule(() -> {
+                lane.gapCheckDone();
+                if (lane.skipGapIfExpired(gapTimeoutMs)) {
+                    workers.execute(() -> commitReady(lane));
+                } else {
+                    scheduleGapCheck(lane);
+                }
+            }, gapTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            lane.gapCheckDone();
+        }
+    }
+
+    private void removeIfIdle(Lane lane) {
+        lanes.computeIfPresent(lane.lectureId, (id, l) -> {
+            if (l != lane || !l.isIdle()) return l;
+            expectedSeqs.put(id, l.nextSeq());
+            return null;
+        });
+    }
+
+    private static final class Chunk {
+        final int seq;
+        final int startSec;
+        final int endSec;
+        final String language;
+        final String contentHash;
+        Resource audio;       // 저장된 청크 (STT 요청 본문으로 스트리밍)
+        String text;
+        int attempts;         // STT 시도 횟수
+
+        Chunk(int seq, int startSec, int endSec, Resource audio, String language, String contentHash) {
+            this.seq = seq;
+            this.startSec = startSec;
+            this.endSec = endSec;
+            this.audio = audio;
+            this.language = language;
+            this.contentHash = contentHash;
+        }
+    }
+
+    /**
+     * 강의 하나의 STT 대기열 + 재정렬 버퍼
+     */
+    private static final class Lane {
+        final Long lectureId;
+        private final Deque<Chunk> waiting = new ArrayDeque<>();
+        private final TreeSet<Integer> pendingSeqs = new TreeSet<>();   // 대기/STT 중인 청크 순번
+        private final TreeMap<Integer, Chunk> done = new TreeMap<>();    // STT가 끝나 저장 순서를 기다리는 청크
+        private int inFlight;
+        private int nextSeq;              // 다음에 저장할 순번
+        private boolean anchored;         // false면 처음 저장 전이라 더 작은 순번이 오면 거기서 시작
+        private boolean committing;
+        private long gapSinceMillis;      // 앞 순번이 없어 저장이 멈춘 시각 (0이면 멈추지 않음)
+        private boolean gapCheckScheduled;
+
+        /**
+         * @param expectedSeq 이 강의에서 이어서 기대하는 순번 (null이면 처음 들어오는 청크부터)
+         */
+        Lane(Long lectureId, Integer expectedSeq) {
+            this.lectureId = lectureId;
+            this.anchored = expectedSeq != null;
+            this.nextSeq = anchored ? expectedSeq : Integer.MAX_VALUE;
+        }
+
+        /**
+         * @return 이미 저장했거나 건너뛴 순번이면 false (넣지 않음)
+         */
+        synchronized boolean add(Chunk chunk) {
+            if (!anchored) {
+                nextSeq = Math.min(nextSeq, chunk.seq);
+            }
+            if (chunk.seq < nextSeq) {
+                return false;
+            }
+            waiting.add(chunk);
+            pendingSeqs.add(chunk.seq);
+            return true;
+        }
+
+        synchronized List<Chunk> startable(int maxInFlight) {
+            List<Chunk> out = new ArrayList<>();
+            while (inFlight < Math.max(1, maxInFlight) && !waiting.isEmpty()) {
+                inFlight++;
+                out.add(waiting.poll());
+            }
+            return out;
+        }
+
+        synchronized void completed(Chunk chunk) {
+            inFlight--;
+            pendingSeqs.remove(chunk.seq);
+            done.put(chunk.seq, chunk);
+        }
+
+        /**
+         * STT를 끝내 못 했다. 순번 자리는 비워 두어 재전송을 받을 수 있게 한다.
+         */
+        synchronized void failed(Chunk chunk) {
+            inFlight--;
+            pendingSeqs.remove(chunk.seq);
+        }
+
+        /**
+         * 저장할 차례인 청크. 다른 스레드가 저장 중이거나 앞 순번이 아직이면 null
+         */
+        synchronized Chunk pollReady() {
+            if (committing || done.isEmpty()) return null;
+            int first = done.firstKey();
+            if (first > nextSeq) {
+                if (gapSinceMillis == 0) gapSinceMillis = System.currentTimeMillis();
+                return null;
+            }
+            gapSinceMillis = 0;
+            anchored = true;
+            committing = true;
+            nextSeq = first + 1;
+            return done.remove(first);
+        }
+
+        synchronized void committed() {
+            committing = false;
+        }
+
+        synchronized int nextSeq() {
+            return nextSeq;
+        }
+
+        synchronized boolean needsGapCheck() {
+            if (gapSinceMillis == 0 || gapCheckScheduled) return false;
+            gapCheckScheduled = true;
+            return true;
+        }
+
+        synchronized void gapCheckDone() {
+            gapCheckScheduled = false;
+        }
+
+        /**
+         * 구멍 앞 순번이 업로드/처리 중이 아니고 오래 기다렸으면 구멍을 건너뛴다.
+         */
+        synchronized boolean skipGapIfExpired(long timeoutMs) {
+            if (gapSinceMillis == 0 || done.isEmpty()) return false;
+            int first = done.firstKey();
+            Integer pendingBefore = pendingSeqs.lower(first);
+            if (pendingBefore != null && pendingBefore >= nextSeq) {
+                gapSinceMillis = System.currentTimeMillis(); // 채워질 청크가 처리 중
+                return false;
+            }
+            if (System.currentTimeMillis() - gapSinceMillis < timeoutMs) return false;
+            log.warn("[AudioIngest] chunks missing, skipping: lecture={} seq={}..{}", lectureId, nextSeq, first - 1);
+            nextSeq = first;
+            anchored = true;
+            gapSinceMillis = 0;
+            return true;
+        }
+
+        synchronized boolean isIdle() {
+            return waiting.isEmpty() && inFlight == 0 && done.isEmpty() && !committing && !gapCheckScheduled;
+        }
+    }
+}
@@ -0,0 +1,392 @@
+package com.capstone.livenote.application.audio.service;
+
+import com.capstone.livenote.application.audio.storage.AudioStorage;
+import com.capstone.livenote.application.openai.service.OpenAiSttService;
+import com.capstone.livenote.application.openai.service.SttCircuitBreaker;
+import com.capstone.livenote.domain.transcript.service.TranscriptService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * STT가 실패하거나 circuit breaker가 열려 있을 때 청크를 디스크에 맡겨 두었다가 나중에 전사하는 큐.
+ *
+ * - 오디오 저장소 root 아래 deferred-stt/ 디렉터리에 항목마다 {id}.webm 파일로 두고, 큐 항목은 같은 곳의
+ *   저널 파일에 한 줄씩 남긴다 (E=추가, D=완료, N=다음 id). 재시작하면 저널을 다시 읽어 끝나지 않은 항목부터
+ *   이어서 처리한다. 전사가 저장된 항목의 오디오는 지운다.
+ * - id는 재시작해도 다시 쓰지 않는다 (저널을 비우거나 다시 쓸 때 N 줄로 남긴다).
+ * - 드레이너 스레드 하나가 breaker가 허용할 때만 앞에서부터 하나씩, 초당 drain-per-second개 이하로 전사한다.
+ *   강의마다 가장 앞 항목만 대상이므로 같은 강의의 전사는 넣은 순서대로 saveFromStt에 들어간다.
+ *   STT가 실패한 항목은 retry-ms 동안 쉬고, 그동안 다른 강의의 항목을 먼저 처리한다 (한 항목이 큐 전체를 막지 않게).
+ * - 강의에 밀린 항목이 있는 동안에는 그 강의의 새 청크도 큐 뒤에 넣어야 순서가 유지된다 ({@link #hasPending}).
+ */
+@Component
+@Slf4j
+public class DeferredTranscriptionQueue {
+
+    static final String SPOOL_DIR = "deferred-stt";
+    private static final String JOURNAL_FILE = "deferred-stt.journal";
+
+    private final AudioStorage storage;
+    private final OpenAiSttService sttService;
+    private final TranscriptService transcriptService;
+    private final SttCircuitBreaker breaker;
+
+    // 비어 있으면 오디오 저장소 root 아래 deferred-stt/
+    @Value("${app.audio-stream.deferred.dir:}")
+    private String spoolDir;
+
+    @Value("${app.audio-stream.deferred.drain-per-second:2}")
+    private double drainPerSecond;
+
+    @Value("${app.audio-stream.deferred.retry-ms:5000}")
+    private long retryMillis;
+
+    @Value("${app.audio-stream.deferred.max-attempts:5}")
+    private int maxAttempts;
+
+    private final Deque<Entry> pending = new ArrayDeque<>();
+    private final Map<Long, Integer> pendingPerLecture = new HashMap<>();
+    private Path spool;
+    private FileChannel journal;
+    private long nextId = 1;
+
+    private Thread drainer;
+    private volatile boolean running;
+
+    public DeferredTranscriptionQueue(AudioStorage storage,
+                                      OpenAiSttService sttService,
+                                      TranscriptService transcriptService,
+                                      SttCircuitBreaker breaker,
+                                      MeterRegistry meterRegistry) {
+        this.storage = storage;
+        this.sttService = sttService;
+        this.transcriptService = transcriptService;
+        this.breaker = breaker;
+        Gauge.builder("stt.deferred.pending", this, DeferredTranscriptionQueue::size)
+                .description("STT를 미뤄 디스크 큐에서 기다리는 청크 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        spool = spoolDir == null || spoolDir.isBlank()
+                ? storage.root().resolve(SPOOL_DIR)
+                : Paths.get(spoolDir);
+        Files.createDirectories(spool);
+        replay(spool.resolve(JOURNAL_FILE));
+        running = true;
+        drainer = new Thread(this::drainLoop, "stt-deferred-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException, IOException {
+        running = false;
+        if (drainer != null) {
+            LockSupport.unpark(drainer);
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        synchronized (this) {
+            if (journal != null) journal.close();
+        }
+    }
+
+    /**
+     * 청크를 저장하고 큐 뒤에 넣는다. 반환되면 재시작해도 남는다.
+     *
+     * @param onCommitted 전사가 저장된 뒤 텍스트로 호출 (메모리에만 있으므로 재시작 후에는 부르지 않는다, null 가능)
+     */
+    public void enqueue(Long lectureId, int chunkSeq, int startSec, int endSec, String language, byte[] audio,
+                        Consumer<String> onCommitted) throws IOException {
+        Entry entry;
+        synchronized (this) {
+            entry = new Entry(nextId++, lectureId, chunkSeq, startSec, endSec, language);
+        }
+        writeAudio(entry, audio);
+        synchronized (this) {
+            append(entry.toJournalLine());
+            entry.onCommitted = onCommitted;
+            pending.add(entry);
+            pendingPerLecture.merge(lectureId, 1, Integer::sum);
+        }
+        LockSupport.unpark(drainer);
+        log.info("[DeferredSTT] queued lecture={} seq={} id={} pending={}", lectureId, chunkSeq, entry.id, size());
+    }
+
+    public synchronized boolean hasPending(Long lectureId) {
+        return pendingPerLecture.containsKey(lectureId);
+    }
+
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    private void drainLoop() {
+        long intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / Math.max(0.01, drainPerSecond));
+        while (running) {
+            long now = System.nanoTime();
+            Entry next = null;
+            long waitNanos = TimeUnit.SECONDS.toNanos(1);
+            synchronized (this) {
+                Set<Long> seen = new HashSet<>();
+                for (Entry e : pending) {
+                    if (!seen.add(e.lectureId)) continue; // 강의마다 가장 앞 항목만
+                    long untilRetry = e.attempts == 0 ? 0 : e.retryAtNanos - now;
+                    if (untilRetry <= 0) {
+                        next = e;
+                        break;
+                    }
+                    waitNanos = Math.min(waitNanos, untilRetry);
+                }
+            }
+            if (next == null) {
+                LockSupport.parkNanos(this, waitNanos);
+                continue;
+            }
+            if (drain(next)) {
+                LockSupport.parkNanos(this, intervalNanos);
+            } else {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(retryMillis));
+            }
+        }
+    }
+
+    /**
+     * @return STT를 호출했으면 true (항목을 끝냈거나, 실패해서 retry-ms 뒤로 미뤘거나), breaker가 막았으면 false
+     */
+    private boolean drain(Entry entry) {
+        Resource audio;
+        try {
+            audio = loadAudio(entry);
+        } catch (IOException e) {
+            // 오디오가 없으면 다시 해도 소용없다
+            log.error("[DeferredSTT] audio missing lecture={} seq={} err={}", entry.lectureId, entry.chunkSeq, e.getMessage());
+            complete(entry);
+            return true;
+        }
+
+        if (!breaker.tryAcquire()) {
+            return false;
+        }
+        String text;
+        try {
+            String filename = entry.lectureId + "_" + entry.chunkSeq + ".webm";
+            text = sttService.transcribe(entry.lectureId, audio, filename, entry.language);
+            breaker.onSuccess();
+        } catch (Exception e) {
+            breaker.onFailure(e);
+            entry.attempts++;
+            if (entry.attempts < Math.max(1, maxAttempts)) {
+                log.warn("[DeferredSTT] STT failed lecture={} seq={} attempt={} err={}",
+                        entry.lectureId, entry.chunkSeq, entry.attempts, e.getMessage());
+                entry.retryAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryMillis);
+                return true;
+            }
+            log.error("[DeferredSTT] giving up lecture={} seq={} after {} attempts, audio kept at {} err={}",
+                    entry.lectureId, entry.chunkSeq, entry.attempts, keepFailedAudio(entry), e.getMessage());
+            complete(entry);
+            return true;
+        }
+        try {
+            transcriptService.saveFromStt(entry.lectureId, entry.startSec, entry.endSec, text);
+            log.info("[DeferredSTT] committed lecture={} seq={} pending={}", entry.lectureId, entry.chunkSeq, size() - 1);
+        } catch (Exception e) {
+            log.error("[DeferredSTT] transcript save failed lecture={} seq={} err={}",
+                    entry.lectureId, entry.chunkSeq, e.getMessage(), e);
+            text = null;
+        }
+        complete(entry);
+        deleteAudio(entry);
+        if (text != null && entry.onCommitted != null) {
+            try {
+                entry.onCommitted.accept(text);
+            } catch (Exception e) {
+                log.warn("[DeferredSTT] commit callback failed lecture={} err={}", entry.lectureId, e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private synchronized void complete(Entry entry) {
+        pending.remove(entry);
+        pendingPerLecture.computeIfPresent(entry.lectureId, (id, n) -> n > 1 ? n - 1 : null);
+        try {
+            if (pending.isEmpty()) {
+                journal.truncate(0); // 다 비었으면 저널을 비워 무한히 자라지 않게 (id는 이어 간다)
+                append("N " + nextId);
+            } else {
+                append("D " + entry.id);
+            }
+        } catch (IOException e) {
+            log.warn("[DeferredSTT] journal update failed id={} err={}", entry.id, e.getMessage());
+        }
+    }
+
+    private void append(String line) throws IOException {
+        journal.write(ByteBuffer.wrap((line + "\n").getBytes(StandardCharsets.UTF_8)));
+        journal.force(false);
+    }
+
+    /**
+     * 저널을 읽어 끝나지 않은 항목을 복구하고, 남은 항목만으로 저널을 다시 쓴다.
+     */
+    private synchronized void replay(Path path) throws IOException {
+        Map<Long, Entry> alive = new LinkedHashMap<>();
+        if (Files.exists(path)) {
+            for (String line : Files.readAllLines(path, StandardCharsets.UTF_8)) {
+                String[] f = line.trim().split(" ");
+                try {
+                    if (f.length == 7 && "E".equals(f[0])) {
+                        Entry e = Entry.parse(f);
+                        alive.put(e.id, e);
+                        nextId = Math.max(nextId, e.id + 1);
+                    } else if (f.length == 2 && "D".equals(f[0])) {
+                        alive.remove(Long.parseLong(f[1]));
+                    } else if (f.length == 2 && "N".equals(f[0])) {
+                        nextId = Math.max(nextId, Long.parseLong(f[1]));
+                    }
+                } catch (NumberFormatException e) {
+                    log.warn("[DeferredSTT] skipping corrupt journal line: {}", line); // 쓰다 죽은 마지막 줄
+                }
+            }
+        }
+        List<String> lines = new ArrayList<>();
+        lines.add("N " + nextId);
+        for (Entry e : alive.values()) {
+            pending.add(e);
+            pendingPerLecture.merge(e.lectureId, 1, Integer::sum);
+            lines.add(e.toJournalLine());
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.write(tmp, lines, StandardCharsets.UTF_8);
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        deleteOrphanAudio(alive);
+        if (!pending.isEmpty()) {
+            log.info("[DeferredSTT] recovered {} deferred chunks from {}", pending.size(), path);
+        }
+    }
+
+    private Path audioPath(Entry entry) {
+        return spool.resolve(entry.id + ".webm");
+    }
+
+    private void writeAudio(Entry entry, byte[] audio) throws IOException {
+        try (FileChannel ch = FileChannel.open(audioPath(entry), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.wrap(audio);
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+            ch.force(true);
+        }
+    }
+
+    private Resource loadAudio(Entry entry) throws IOException {
+        Path p = audioPath(entry);
+        if (!Files.exists(p)) throw new FileNotFoundException(p.toString());
+        return new FileSystemResource(p);
+    }
+
+    /**
+     * 포기한 항목의 오디오는 손으로 다시 처리할 수 있게 failed-{lectureId}_{chunkSeq}_{id}.webm으로 남긴다.
+     */
+    private Path keepFailedAudio(Entry entry) {
+        Path kept = spool.resolve("failed-" + entry.lectureId + "_" + entry.chunkSeq + "_" + entry.id + ".webm");
+        try {
+            Files.move(audioPath(entry), kept, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            log.warn("[DeferredSTT] could not keep failed audio id={} err={}", entry.id, e.getMessage());
+            return audioPath(entry);
+        }
+        return kept;
+    }
+
+    private void deleteAudio(Entry entry) {
+        try {
+            Files.deleteIfExists(audioPath(entry));
+        } catch (IOException e) {
+            log.warn("[DeferredSTT] could not delete audio id={} err={}", entry.id, e.getMessage());
+        }
+    }
+
+    /**
+     * 저널에 없는 {id}.webm(추가 도중이나 지우기 전에 죽은 것)을 지운다. failed- 파일은 건드리지 않는다.
+     */
+    private void deleteOrphanAudio(Map<Long, Entry> alive) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(spool, "*.webm")) {
+            for (Path p : files) {
+                String name = p.getFileName().toString();
+                try {
+                    long id = Long.parseLong(name.substring(0, name.length() - ".webm".length()));
+                    if (!alive.containsKey(id)) Files.deleteIfExists(p);
+                } catch (NumberFormatException ignored) {
+                    // failed- 파일
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        final long id;
+        final Long lectureId;
+        final int chunkSeq;
+        final int startSec;
+        final int endSec;
+        final String language;
+        int attempts;                    // 드레이너 스레드 전용
+        long retryAtNanos;               // attempts > 0일 때 이 시각 전에는 다시 하지 않는다
+        Consumer<String> onCommitted;
+
+        Entry(long id, Long lectureId, int chunkSeq, int startSec, int endSec, String language) {
+            this.id = id;
+            this.lectureId = lectureId;
+            this.chunkSeq = chunkSeq;
+            this.startSec = startSec;
+            this.endSec = endSec;
+            this.language = language;
+        }
+
+        String toJournalLine() {
+            return "E " + id + " " + lectureId + " " + chunkSeq + " " + startSec + " " + endSec + " "
+                    + (language == null ? "-" : language);
+        }
+
+        static Entry parse(String[] f) {
+            return new Entry(Long.parseLong(f[1]), Long.parseLong(f[2]), Integer.parseInt(f[3]),
+                    Integer.parseInt(f[4]), Integer.parseInt(f[5]), "-".equals(f[6]) ? null : f[6]);
+        }
+    }
+}
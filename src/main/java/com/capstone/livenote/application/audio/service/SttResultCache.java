@@ -0,0 +1,92 @@
+package com.capstone.livenote.application.audio.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 업로드 청크 재전송 처리.
+ *
+ * - (lectureId, chunkSeq)마다 결과 future를 하나 두어, 같은 청크가 다시 오면 저장/STT/전사 저장 없이 앞 결과를 돌려준다.
+ *   돌려주는 건 처리 중이거나 끝난 결과뿐이다. 저장/STT/전사 저장에 실패한 청크는 기록을 지워
+ *   다시 올리면 처음부터 처리한다.
+ * - 오디오 내용 해시(SHA-256) -> 전사 결과 캐시. 번호가 달라도 같은 바이트면 Whisper를 다시 부르지 않는다.
+ * 둘 다 최근 항목만 max-entries개까지 메모리에 둔다 (오래된 것부터 버림).
+ */
+@Component
+public class SttResultCache {
+
+    private final int maxEntries;
+    private final Map<ChunkKey, CompletableFuture<String>> chunks;
+    private final Map<String, String> texts;
+
+    public SttResultCache(@Value("${app.audio-ingest.result-cache.max-entries:10000}") int maxEntries) {
+        this.maxEntries = Math.max(1, maxEntries);
+        this.chunks = lru();
+        this.texts = lru();
+    }
+
+    private <K, V> Map<K, V> lru() {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * 청크를 처음 접수하면 null, 이미 접수된 청크면 앞 접수의 결과 future (진행 중이면 아직 미완료)
+     */
+    public CompletableFuture<String> claim(Long lectureId, int chunkSeq) {
+        synchronized (chunks) {
+            ChunkKey key = new ChunkKey(lectureId, chunkSeq);
+            CompletableFuture<String> earlier = chunks.get(key);
+            if (earlier != null) return earlier;
+            chunks.put(key, new CompletableFuture<>());
+            return null;
+        }
+    }
+
+    /**
+     * 전사가 저장된 뒤 부른다. 이후 재전송에는 text를 바로 돌려준다.
+     */
+    public void completed(Long lectureId, int chunkSeq, String text) {
+        CompletableFuture<String> future;
+        synchronized (chunks) {
+            future = chunks.get(new ChunkKey(lectureId, chunkSeq));
+        }
+        if (future != null) future.complete(text);
+    }
+
+    /**
+     * 접수 기록을 지워 같은 청크를 다시 처리할 수 있게 한다 (업로드 저장/STT/전사 저장 실패 시).
+     */
+    public void release(Long lectureId, int chunkSeq) {
+        CompletableFuture<String> future;
+        synchronized (chunks) {
+            future = chunks.remove(new ChunkKey(lectureId, chunkSeq));
+        }
+        if (future != null) future.cancel(false);
+    }
+
+    public String cachedText(String contentHash) {
+        if (contentHash == null) return null;
+        synchronized (texts) {
+            return texts.get(contentHash);
+        }
+    }
+
+    public void cacheText(String contentHash, String text) {
+        if (contentHash == null || text == null) return;
+        synchronized (texts) {
+            texts.put(contentHash, text);
+        }
+    }
+
+    private record ChunkKey(Long lectureId, int chunkSeq) {
+    }
+}
@@ -1,7 +1,25 @@
 package com.capstone.livenote.application.audio.storage;
 
+import org.springframework.core.io.Resource;
+
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
 
 public interface AudioStorage {
     String save(Long lectureId, int chunkSeq, byte[] bytes) throws IOException, IOException;
+
+    // 업로드 스트림을 메모리에 모으지 않고 한 번만 읽어 저장한다
+    String save(Long lectureId, int chunkSeq, InputStream in) throws IOException;
+
+    // 시간 범위로 다시 읽을 수 있는 저장소(RangeReadableAudioStorage)는 startSec을 함께 색인한다
+    default String save(Long lectureId, int chunkSeq, int startSec, InputStream in) throws IOException {
+        return save(lectureId, chunkSeq, in);
+    }
+
+    // 저장된 청크를 스트림으로 다시 읽는다 (STT 요청 본문 등)
+    Resource load(Long lectureId, int chunkSeq) throws IOException;
+
+    // 오디오를 두는 디렉터리 (같은 디스크에 부가 파일을 둘 때)
+    Path root();
 }
@@ -1,24 +1,63 @@
 package com.capstone.livenote.application.audio.storage;
 
 import jakarta.annotation.PostConstruct;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Component;
 
+import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 
-// 로컬 파일 시스템에 저장
+// 로컬 파일 시스템에 청크마다 파일 하나로 저장 (기본값, app.storage.audio-layout=files)
 @Component
+@ConditionalOnProperty(name = "app.storage.audio-layout", havingValue = "files", matchIfMissing = true)
 public class LocalAudioStorage implements AudioStorage {
+    // transferFrom 한 번에 옮길 최대 바이트
+    private static final long TRANSFER_CHUNK = 1 << 20;
+
     private final Path root = Paths.get(System.getProperty("user.home"), "livenote-audio");
     @PostConstruct
     void init() throws IOException { Files.createDirectories(root); }
     @Override
     public String save(Long lectureId, int chunkSeq, byte[] bytes) throws IOException {
-        Path p = root.resolve(lectureId + "_" + chunkSeq + ".webm");
+        Path p = path(lectureId, chunkSeq);
         Files.write(p, bytes);
         return p.toAbsolutePath().toString();
     }
+    @Override
+    public String save(Long lectureId, int chunkSeq, InputStream in) throws IOException {
+        Path p = path(lectureId, chunkSeq);
+        try (ReadableByteChannel src = Channels.newChannel(in);
+             FileChannel dst = FileChannel.open(p, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)) {
+            long position = 0;
+            long n;
+            while ((n = dst.transferFrom(src, position, TRANSFER_CHUNK)) > 0) {
+                position += n;
+            }
+        }
+        return p.toAbsolutePath().toString();
+    }
+    @Override
+    public Resource load(Long lectureId, int chunkSeq) throws IOException {
+        Path p = path(lectureId, chunkSeq);
+        if (!Files.exists(p)) throw new FileNotFoundException(p.toString());
+        return new FileSystemResource(p);
+    }
+    @Override
+    public Path root() {
+        return root;
+    }
+    private Path path(Long lectureId, int chunkSeq) {
+        return root.resolve(lectureId + "_" + chunkSeq + ".webm");
+    }
 }
-
@@ -0,0 +1,13 @@
+package com.capstone.livenote.application.audio.storage;
+
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.util.List;
+
+// startSec 색인으로 시간 범위를 다시 읽을 수 있는 저장소 (쓰는 쪽은 instanceof로 확인)
+public interface RangeReadableAudioStorage extends AudioStorage {
+
+    // startSec이 [fromSec, toSec)인 청크들을 시간 순서로
+    List<Resource> loadRange(Long lectureId, int fromSec, int toSec) throws IOException;
+}
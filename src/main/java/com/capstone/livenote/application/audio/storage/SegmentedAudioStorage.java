@@ -0,0 +1,509 @@
+package com.capstone.livenote.application.audio.storage;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 강의별 세그먼트 파일에 청크를 이어 쓰는 저장소 (app.storage.audio-layout=segmented).
+ *
+ * {audio-dir}/{lectureId}/
+ *   seg-000000.log ...  청크 바이트를 이어 붙인 세그먼트 (segment-mb를 넘으면 다음 세그먼트)
+ *   index.idx           메모리 매핑된 고정 길이 색인 (chunkSeq → 세그먼트, offset, length, startSec)
+ *
+ * - 쓰기는 세그먼트 끝에 붙이고 색인 레코드를 남긴 뒤, 동기화 스레드가 group-sync-ms 동안 모인
+ *   쓰기를 한 번에 fsync할 때까지 기다렸다가 반환한다.
+ * - 읽기는 세그먼트를 매핑한 버퍼의 slice를 그대로 돌려준다 (힙으로 복사하지 않음).
+ * - 재시작 시 색인을 처음부터 훑어 세그먼트 범위를 벗어난(쓰다 만) 레코드부터 버리고 그 뒤를 잘라낸다.
+ * - 같은 chunkSeq를 다시 저장하면 마지막 것이 보인다.
+ */
+@Component
+@ConditionalOnProperty(name = "app.storage.audio-layout", havingValue = "segmented")
+@Slf4j
+public class SegmentedAudioStorage implements RangeReadableAudioStorage {
+
+    static final int INDEX_RECORD_BYTES = 32;
+    private static final int INDEX_MAGIC = 0x41554458; // "AUDX"
+    private static final int INITIAL_INDEX_RECORDS = 1024;
+    private static final long TRANSFER_CHUNK = 1 << 20;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30; // 매핑 slice 위치가 int라서
+
+    @Value("${app.storage.audio-dir:uploads/audio}")
+    private String audioDir;
+
+    @Value("${app.storage.segmented.segment-mb:64}")
+    private long segmentMb;
+
+    @Value("${app.storage.segmented.group-sync-ms:5}")
+    private long groupSyncMillis;
+
+    @Value("${app.storage.segmented.idle-close-seconds:300}")
+    private long idleCloseSeconds;
+
+    private Path root;
+    private long segmentBytes;
+
+    // 열려 있는 강의 로그 (this로 보호)
+    private final Map<Long, LectureLog> logs = new HashMap<>();
+
+    // fsync 대기 중인 쓰기 (syncLock으로 보호)
+    private final Object syncLock = new Object();
+    private List<PendingSync> pending = new ArrayList<>();
+    private boolean running;
+    private Thread syncThread;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Paths.get(audioDir).toAbsolutePath();
+        Files.createDirectories(root);
+        segmentBytes = Math.max(1, Math.min(MAX_SEGMENT_BYTES, segmentMb * 1024 * 1024));
+        running = true;
+        syncThread = new Thread(this::syncLoop, "audio-segment-sync");
+        syncThread.setDaemon(true);
+        syncThread.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        synchronized (syncLock) {
+            running = false;
+            syncLock.notifyAll();
+        }
+        syncThread.join(TimeUnit.SECONDS.toMillis(10));
+        synchronized (this) {
+            for (LectureLog lectureLog : logs.values()) {
+                lectureLog.close();
+            }
+            logs.clear();
+        }
+    }
+
+    @Override
+    public String save(Long lectureId, int chunkSeq, byte[] bytes) throws IOException {
+        return save(lectureId, chunkSeq, -1, new ByteArrayInputStream(bytes));
+    }
+
+    @Override
+    public String save(Long lectureId, int chunkSeq, InputStream in) throws IOException {
+        return save(lectureId, chunkSeq, -1, in);
+    }
+
+    @Override
+    public String save(Long lectureId, int chunkSeq, int startSec, InputStream in) throws IOException {
+        LectureLog lectureLog = acquire(lectureId, true);
+        try {
+            Entry entry = lectureLog.append(chunkSeq, startSec, in);
+            awaitSync(lectureLog);
+            return lectureLog.segmentPath(entry.segment) + "@" + entry.offset + "+" + entry.length;
+        } finally {
+            release(lectureLog);
+        }
+    }
+
+    @Override
+    public Resource load(Long lectureId, int chunkSeq) throws IOException {
+        LectureLog lectureLog = acquire(lectureId, false);
+        if (lectureLog == null) throw new FileNotFoundException("no audio for lecture " + lectureId);
+        try {
+            Entry entry = lectureLog.entry(chunkSeq);
+            if (entry == null) throw new FileNotFoundException("no chunk " + lectureId + "_" + chunkSeq);
+            return lectureLog.resource(entry);
+        } finally {
+            release(lectureLog);
+        }
+    }
+
+    @Override
+    public List<Resource> loadRange(Long lectureId, int fromSec, int toSec) throws IOException {
+        LectureLog lectureLog = acquire(lectureId, false);
+        if (lectureLog == null) return List.of();
+        try {
+            List<Resource> out = new ArrayList<>();
+            for (Entry entry : lectureLog.range(fromSec, toSec)) {
+                out.add(lectureLog.resource(entry));
+            }
+            return out;
+        } finally {
+            release(lectureLog);
+        }
+    }
+
+    @Override
+    public Path root() {
+        return root;
+    }
+
+    private synchronized LectureLog acquire(Long lectureId, boolean create) throws IOException {
+        LectureLog lectureLog = logs.get(lectureId);
+        if (lectureLog == null) {
+            Path dir = root.resolve(String.valueOf(lectureId));
+            if (!create && !Files.isDirectory(dir)) return null;
+            lectureLog = new LectureLog(lectureId, dir);
+            logs.put(lectureId, lectureLog);
+        }
+        lectureLog.users++;
+        lectureLog.lastUsedMillis = System.currentTimeMillis();
+        return lectureLog;
+    }
+
+    private synchronized void release(LectureLog lectureLog) {
+        lectureLog.users--;
+    }
+
+    // 오래 안 쓴 강의 로그는 파일을 닫는다 (쓰기/읽기 중인 것은 제외)
+    private synchronized void closeIdle(long now) {
+        long idleMillis = TimeUnit.SECONDS.toMillis(idleCloseSeconds);
+        Iterator<LectureLog> it = logs.values().iterator();
+        while (it.hasNext()) {
+            LectureLog lectureLog = it.next();
+            if (lectureLog.users == 0 && now - lectureLog.lastUsedMillis >= idleMillis) {
+                lectureLog.close();
+                it.remove();
+            }
+        }
+    }
+
+    private void awaitSync(LectureLog lectureLog) throws IOException {
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (syncLock) {
+            if (!running) {
+                lectureLog.force();
+                return;
+            }
+            pending.add(new PendingSync(lectureLog, done));
+            syncLock.notifyAll();
+        }
+        try {
+            done.get(30, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted while waiting for fsync", e);
+        } catch (TimeoutException e) {
+            throw new IOException("fsync timed out", e);
+        }
+    }
+
+    /**
+     * 모인 쓰기를 강의 로그별로 한 번씩만 fsync하고 기다리던 쓰기를 모두 깨운다.
+     */
+    private void syncLoop() {
+        long sweepEvery = Math.max(1000, TimeUnit.SECONDS.toMillis(idleCloseSeconds) / 2);
+        long nextSweep = System.currentTimeMillis() + sweepEvery;
+        while (true) {
+            List<PendingSync> batch;
+            synchronized (syncLock) {
+                while (running && pending.isEmpty() && System.currentTimeMillis() < nextSweep) {
+                    try {
+                        syncLock.wait(Math.max(1, nextSweep - System.currentTimeMillis()));
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        running = false;
+                    }
+                }
+                if (!running && pending.isEmpty()) return;
+            }
+            if (groupSyncMillis > 0) {
+                // 같은 fsync에 태울 쓰기를 조금 더 모은다
+                try {
+                    Thread.sleep(groupSyncMillis);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (syncLock) {
+                batch = pending;
+                pending = new ArrayList<>();
+            }
+
+            Set<LectureLog> dirty = new LinkedHashSet<>();
+            for (PendingSync p : batch) dirty.add(p.lectureLog);
+            Map<LectureLog, IOException> failures = new HashMap<>();
+            for (LectureLog lectureLog : dirty) {
+                try {
+                    lectureLog.force();
+                } catch (IOException e) {
+                    log.error("[AudioStorage] fsync failed lecture={} err={}", lectureLog.lectureId, e.getMessage());
+                    failures.put(lectureLog, e);
+                }
+            }
+            for (PendingSync p : batch) {
+                IOException failure = failures.get(p.lectureLog);
+                if (failure != null) p.done.completeExceptionally(failure);
+                else p.done.complete(null);
+            }
+
+            long now = System.currentTimeMillis();
+            if (now >= nextSweep) {
+                closeIdle(now);
+                nextSweep = now + sweepEvery;
+            }
+        }
+    }
+
+    private record PendingSync(LectureLog lectureLog, CompletableFuture<Void> done) {
+    }
+
+    private record Entry(int chunkSeq, int segment, long offset, int length, int startSec) {
+    }
+
+    /**
+     * 강의 하나의 세그먼트 + 색인. 모든 메서드는 synchronized.
+     */
+    private final class LectureLog {
+        final Long lectureId;
+        private final Path dir;
+        private final FileChannel indexChannel;
+        private MappedByteBuffer indexMap;
+        private int indexCount;
+        private final Map<Integer, Entry> entries = new HashMap<>();
+        private final List<Segment> segments = new ArrayList<>();
+        private final Set<Segment> unsynced = new LinkedHashSet<>(); // 마지막 fsync 이후 쓴 세그먼트
+
+        // acquire/release/closeIdle에서 SegmentedAudioStorage 잠금으로 보호
+        int users;
+        long lastUsedMillis;
+
+        LectureLog(Long lectureId, Path dir) throws IOException {
+            this.lectureId = lectureId;
+            this.dir = dir;
+            Files.createDirectories(dir);
+            indexChannel = FileChannel.open(dir.resolve("index.idx"),
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long records = Math.max(INITIAL_INDEX_RECORDS, indexChannel.size() / INDEX_RECORD_BYTES);
+            indexMap = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, records * INDEX_RECORD_BYTES);
+            for (int n = 0; Files.exists(segmentPath(n)); n++) {
+                segments.add(new Segment(n, segmentPath(n)));
+            }
+            recover();
+        }
+
+        private void recover() throws IOException {
+            long[] ends = new long[segments.size()];
+            int capacity = indexMap.capacity() / INDEX_RECORD_BYTES;
+            int i = 0;
+            for (; i < capacity; i++) {
+                int base = i * INDEX_RECORD_BYTES;
+                if (indexMap.getInt(base) != INDEX_MAGIC) break;
+                Entry entry = new Entry(indexMap.getInt(base + 4), indexMap.getInt(base + 8),
+                        indexMap.getLong(base + 16), indexMap.getInt(base + 12), indexMap.getInt(base + 24));
+                if (entry.segment < 0 || entry.segment >= segments.size()
+                        || entry.offset + entry.length > segments.get(entry.segment).size) {
+                    log.warn("[AudioStorage] dropping torn index tail lecture={} record={}", lectureId, i);
+                    break;
+                }
+                entries.put(entry.chunkSeq, entry);
+                ends[entry.segment] = Math.max(ends[entry.segment], entry.offset + entry.length);
+            }
+            indexCount = i;
+            // 색인에 남지 않은 뒷부분은 지운다
+            for (int r = i; r < capacity && indexMap.getInt(r * INDEX_RECORD_BYTES) == INDEX_MAGIC; r++) {
+                indexMap.putInt(r * INDEX_RECORD_BYTES, 0);
+            }
+            if (!segments.isEmpty()) {
+                Segment last = segments.get(segments.size() - 1);
+                if (last.size > ends[last.number]) last.truncate(ends[last.number]);
+            }
+        }
+
+        synchronized Entry append(int chunkSeq, int startSec, InputStream in) throws IOException {
+            Segment active = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+            if (active == null || active.size >= segmentBytes) {
+                active = new Segment(segments.size(), segmentPath(segments.size()));
+                segments.add(active);
+            }
+            long offset = active.size;
+            unsynced.add(active);
+            long length = active.append(in);
+            if (length > Integer.MAX_VALUE) throw new IOException("chunk too large: " + length);
+
+            Entry entry = new Entry(chunkSeq, active.number, offset, (int) length, startSec);
+            if ((long) (indexCount + 1) * INDEX_RECORD_BYTES > indexMap.capacity()) {
+                indexMap.force();
+                indexMap = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, (long) indexMap.capacity() * 2);
+            }
+            int base = indexCount * INDEX_RECORD_BYTES;
+            indexMap.putInt(base + 4, entry.chunkSeq);
+            indexMap.putInt(base + 8, entry.segment);
+            indexMap.putInt(base + 12, entry.length);
+            indexMap.putLong(base + 16, entry.offset);
+            indexMap.putInt(base + 24, entry.startSec);
+            indexMap.putInt(base, INDEX_MAGIC); // 마지막에 표시
+            indexCount++;
+            entries.put(chunkSeq, entry);
+            return entry;
+        }
+
+        synchronized Entry entry(int chunkSeq) {
+            return entries.get(chunkSeq);
+        }
+
+        synchronized List<Entry> range(int fromSec, int toSec) {
+            List<Entry> out = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                if (entry.startSec >= fromSec && entry.startSec < toSec) out.add(entry);
+            }
+            out.sort(Comparator.comparingInt(Entry::startSec).thenComparingInt(Entry::chunkSeq));
+            return out;
+        }
+
+        synchronized Resource resource(Entry entry) throws IOException {
+            ByteBuffer slice = segments.get(entry.segment).slice(entry.offset, entry.length);
+            return new MappedChunkResource(slice, lectureId + "_" + entry.chunkSeq + ".webm");
+        }
+
+        synchronized void force() throws IOException {
+            for (Segment segment : unsynced) {
+                segment.channel.force(false);
+            }
+            unsynced.clear();
+            indexMap.force();
+        }
+
+        synchronized void close() {
+            try {
+                force();
+            } catch (IOException e) {
+                log.warn("[AudioStorage] fsync on close failed lecture={} err={}", lectureId, e.getMessage());
+            }
+            for (Segment segment : segments) {
+                closeQuietly(segment.channel);
+            }
+            closeQuietly(indexChannel);
+        }
+
+        Path segmentPath(int number) {
+            return dir.resolve(String.format("seg-%06d.log", number));
+        }
+    }
+
+    private static final class Segment {
+        final int number;
+        final FileChannel channel;
+        long size;
+        private MappedByteBuffer readMap;
+
+        Segment(int number, Path path) throws IOException {
+            this.number = number;
+            this.channel = FileChannel.open(path,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            this.size = channel.size();
+        }
+
+        long append(InputStream in) throws IOException {
+            ReadableByteChannel src = Channels.newChannel(in);
+            long start = size;
+            long n;
+            while ((n = channel.transferFrom(src, size, TRANSFER_CHUNK)) > 0) {
+                size += n;
+            }
+            return size - start;
+        }
+
+        void truncate(long newSize) throws IOException {
+            channel.truncate(newSize);
+            size = newSize;
+            readMap = null;
+        }
+
+        // 필요한 범위까지 매핑돼 있지 않으면 현재 크기로 다시 매핑한다 (이전 매핑은 쓰던 쪽이 놓으면 GC가 정리)
+        ByteBuffer slice(long offset, int length) throws IOException {
+            if (readMap == null || readMap.capacity() < offset + length) {
+                readMap = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            return readMap.slice((int) offset, length).asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * 매핑된 세그먼트 일부를 그대로 읽는 Resource (STT 요청 본문으로 스트리밍)
+     */
+    private static final class MappedChunkResource extends AbstractResource {
+        private final ByteBuffer buffer;
+        private final String filename;
+
+        MappedChunkResource(ByteBuffer buffer, String filename) {
+            this.buffer = buffer;
+            this.filename = filename;
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            ByteBuffer buf = buffer.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return buf.hasRemaining() ? buf.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] b, int off, int len) {
+                    if (len == 0) return 0;
+                    if (!buf.hasRemaining()) return -1;
+                    int n = Math.min(len, buf.remaining());
+                    buf.get(b, off, n);
+                    return n;
+                }
+
+                @Override
+                public int available() {
+                    return buf.remaining();
+                }
+            };
+        }
+
+        @Override
+        public long contentLength() {
+            return buffer.remaining();
+        }
+
+        @Override
+        public String getFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getDescription() {
+            return "mapped audio chunk [" + filename + "]";
+        }
+    }
+
+    private static void closeQuietly(FileChannel channel) {
+        try {
+            channel.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
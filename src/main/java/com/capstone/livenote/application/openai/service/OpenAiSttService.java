@@ -1,20 +1,30 @@
 package com.capstone.livenote.application.openai.service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
 
 /**
  * OpenAI Whisper API를 사용한 STT 서비스
+ *
+ * PCM16 mono WAV는 올리기 전에 SttAudioPreparer로 16kHz로 줄이고 앞뒤 무음을 자른다.
  */
 @Service
 @RequiredArgsConstructor
@@ -28,20 +38,104 @@ public class OpenAiSttService {
 
     private static final String WHISPER_URL = "https://api.openai.com/v1/audio/transcriptions";
 
+    private static final TypeReference<Map<String, Object>> RESPONSE_TYPE = new TypeReference<>() {};
+
     private final RestTemplate restTemplate;
+    private final SttAudioPreparer audioPreparer;
+    private final SttRequestMetrics requestMetrics;
+    private final SttHedger hedger;
+    private final ObjectMapper objectMapper;
 
     /**
      * 오디오 파일을 텍스트로 변환
      */
     public String transcribe(byte[] audioBytes, String filename, String language) {
+        return transcribe(new ByteArrayResource(audioBytes), filename, language);
+    }
+
+    /**
+     * 강의 청크를 텍스트로 변환. 응답이 늦으면 강의별 예산 안에서 같은 요청을 한 번 더 보낸다 (hedging)
+     */
+    public String transcribe(Long lectureId, Resource audio, String filename, String language) {
+        Upload upload = prepare(audio, filename);
+        if (upload == null) {
+            return "";
+        }
+        return hedger.call(lectureId, () -> upload(upload.audio(), upload.filename(), language));
+    }
+
+    public String transcribe(Long lectureId, byte[] audioBytes, String filename, String language) {
+        return transcribe(lectureId, new ByteArrayResource(audioBytes), filename, language);
+    }
+
+    /**
+     * PCM16 mono를 16kHz WAV로 줄이고 앞뒤 무음을 잘라 변환한다. 말소리가 없으면 호출하지 않고 빈 문자열
+     *
+     * @param filename 확장자는 .wav로 바뀐다
+     */
+    public String transcribePcm(byte[] pcm, int sampleRate, String filename, String language) {
+        Upload upload = preparePcm(pcm, sampleRate, filename);
+        return upload == null ? "" : upload(upload.audio(), upload.filename(), language);
+    }
+
+    /**
+     * 오디오 파일을 텍스트로 변환. PCM WAV가 아니면 요청 본문은 resource에서 바로 스트리밍한다
+     * (저장된 파일을 메모리에 올리지 않음)
+     */
+    public String transcribe(Resource audio, String filename, String language) {
+        Upload upload = prepare(audio, filename);
+        return upload == null ? "" : upload(upload.audio(), upload.filename(), language);
+    }
+
+    /**
+     * PCM16 mono WAV면 줄인 WAV로 바꾼다. 다른 포맷은 그대로. 말소리가 없으면 null (올릴 필요 없음)
+     */
+    private Upload prepare(Resource audio, String filename) {
+        // InputStreamResource처럼 한 번만 읽을 수 있는 건 들여다보지 않는다
+        if (audio.isOpen()) {
+            return new Upload(audio, filename);
+        }
         try {
+            byte[] header;
+            try (InputStream in = audio.getInputStream()) {
+                header = in.readNBytes(12);
+            }
+            if (!SttAudioPreparer.isRiffWave(header)) {
+                return new Upload(audio, filename);
+            }
+            byte[] bytes;
+            try (InputStream in = audio.getInputStream()) {
+                bytes = in.readAllBytes();
+            }
+            SttAudioPreparer.PcmWav wav = SttAudioPreparer.readWav(bytes);
+            if (wav == null) {
+                return new Upload(audio, filename);
+            }
+            return preparePcm(wav.pcm(), wav.sampleRate(), filename);
+        } catch (IOException e) {
+            return new Upload(audio, filename); // 읽지 못하면 업로드에서 같은 오류가 난다
+        }
+    }
+
+    private Upload preparePcm(byte[] pcm, int sampleRate, String filename) {
+        SttAudioPreparer.Prepared prepared = audioPreparer.prepare(pcm, sampleRate);
+        if (prepared.silent()) {
+            return null;
+        }
+        int dot = filename.lastIndexOf('.');
+        String wavName = (dot < 0 ? filename : filename.substring(0, dot)) + ".wav";
+        return new Upload(new ByteArrayResource(prepared.wav()), wavName);
+    }
+
+    private String upload(Resource audio, String filename, String language) {
+        SttRequestMetrics.Exchange exchange = requestMetrics.begin();
+        boolean success = false;
+        try {
+            HttpHeaders fileHeaders = new HttpHeaders();
+            fileHeaders.setContentDisposition(ContentDisposition.formData().name("file").filename(filename).build());
+
             MultiValueMap<String, Object> body = new LinkedMultiValueMap<>();
-            body.add("file", new ByteArrayResource(audioBytes) {
-                @Override
-                public String getFilename() {
-                    return filename;
-                }
-            });
+            body.add("file", new HttpEntity<>(exchange.track(audio), fileHeaders));
             body.add("model", model);
             body.add("language", language);
             body.add("response_format", "json");
@@ -57,9 +151,17 @@ public class OpenAiSttService {
 
             HttpEntity<MultiValueMap<String, Object>> request = new HttpEntity<>(body, headers);
 
-            Map<String, Object> response = restTemplate.postForObject(WHISPER_URL, request, Map.class);
+            // 응답 헤더 도착 시각과 본문 크기를 재기 위해 본문을 직접 읽는다 (JSON 몇백 바이트)
+            Map<String, Object> response = restTemplate.execute(WHISPER_URL, HttpMethod.POST,
+                    restTemplate.httpEntityCallback(request), res -> {
+                        long headerNanos = System.nanoTime();
+                        byte[] bytes = StreamUtils.copyToByteArray(res.getBody());
+                        exchange.responded(headerNanos, bytes.length);
+                        return objectMapper.readValue(bytes, RESPONSE_TYPE);
+                    });
 
             if (response != null && response.containsKey("text")) {
+                success = true;
                 return (String) response.get("text");
             }
 
@@ -68,6 +170,11 @@ public class OpenAiSttService {
         } catch (Exception e) {
             System.err.println("[OpenAI STT 오류] " + e.getMessage());
             throw new RuntimeException("STT 처리 실패: " + e.getMessage(), e);
+        } finally {
+            exchange.finish(success);
         }
     }
-}
\ No newline at end of file
+
+    private record Upload(Resource audio, String filename) {
+    }
+}
@@ -0,0 +1,213 @@
+package com.capstone.livenote.application.openai.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Whisper에 올리기 전에 PCM16(mono, little-endian)을 줄인다.
+ *
+ * 1) 앞뒤 무음을 잘라내고 (말소리 앞뒤로 paddingMs는 남김)
+ * 2) targetSampleRate(기본 16kHz)로 리샘플링한 뒤 (저역 통과 windowed-sinc 보간)
+ * 3) WAV 컨테이너로 감싼다.
+ * Whisper는 내부적으로 16kHz mono만 쓰므로 24kHz PCM이면 업로드 크기가 1/3 이상 준다.
+ * PCM16 mono WAV로 들어온 오디오는 {@link #readWav}로 꺼내 같은 과정을 거친다 (webm 등 압축 포맷은 그대로 올린다).
+ */
+@Component
+@Slf4j
+public class SttAudioPreparer {
+
+    static final int WAV_HEADER_BYTES = 44;
+
+    private static final int TAPS = 8;          // 보간 시 양쪽으로 참조하는 입력 샘플 수
+    private static final int FRAME_MS = 20;     // 무음 판단 단위
+
+    @Value("${app.openai.stt.prepare.target-sample-rate:16000}")
+    private int targetSampleRate;
+
+    @Value("${app.openai.stt.prepare.silence-threshold:300}")
+    private double silenceThreshold;
+
+    @Value("${app.openai.stt.prepare.padding-ms:200}")
+    private int paddingMs;
+
+    private final DistributionSummary savedBytes;
+
+    public SttAudioPreparer(MeterRegistry meterRegistry) {
+        this.savedBytes = DistributionSummary.builder("stt.upload.saved")
+                .description("PCM을 16kHz WAV로 줄여 요청마다 아낀 업로드 바이트")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param pcm        PCM16 mono little-endian 샘플
+     * @param sampleRate pcm의 샘플레이트
+     * @return 업로드할 WAV. 말소리가 없으면 {@link Prepared#silent()}가 true이고 wav는 비어 있다
+     */
+    public Prepared prepare(byte[] pcm, int sampleRate) {
+        short[] samples = toSamples(pcm);
+        int frame = Math.max(1, sampleRate * FRAME_MS / 1000);
+        int from = firstVoicedFrame(samples, frame);
+        if (from < 0) {
+            savedBytes.record(pcm.length);
+            log.info("[STT] prepared audio is silent, skipped {}B", pcm.length);
+            return new Prepared(new byte[0], pcm.length, true);
+        }
+        int to = lastVoicedFrameEnd(samples, frame);
+        int padding = sampleRate * paddingMs / 1000;
+        from = Math.max(0, from - padding);
+        to = Math.min(samples.length, to + padding);
+
+        short[] out = resample(samples, from, to, sampleRate, targetSampleRate);
+        byte[] wav = toWav(out, targetSampleRate);
+
+        savedBytes.record(Math.max(0, pcm.length - wav.length));
+        log.info("[STT] prepared audio {}B@{}Hz -> {}B@{}Hz wav (trimmed {}ms, saved {}%)",
+                pcm.length, sampleRate, wav.length, targetSampleRate,
+                (samples.length - (to - from)) * 1000L / sampleRate,
+                pcm.length == 0 ? 0 : Math.round((pcm.length - wav.length) * 1000.0 / pcm.length) / 10.0);
+        return new Prepared(wav, pcm.length, false);
+    }
+
+    /**
+     * PCM16 mono WAV면 샘플과 샘플레이트를 꺼낸다. 다른 포맷이면 null
+     */
+    static PcmWav readWav(byte[] bytes) {
+        if (!isRiffWave(bytes)) return null;
+        ByteBuffer buf = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int sampleRate = 0;
+        boolean pcm16Mono = false;
+        int pos = 12;
+        while (pos + 8 <= bytes.length) {
+            String id = new String(bytes, pos, 4, StandardCharsets.US_ASCII);
+            int size = buf.getInt(pos + 4);
+            int body = pos + 8;
+            if (size < 0) return null;
+            if ("fmt ".equals(id) && size >= 16 && body + 16 <= bytes.length) {
+                pcm16Mono = buf.getShort(body) == 1 && buf.getShort(body + 2) == 1 && buf.getShort(body + 14) == 16;
+                sampleRate = buf.getInt(body + 4);
+            } else if ("data".equals(id)) {
+                if (!pcm16Mono || sampleRate <= 0) return null;
+                int end = (int) Math.min(bytes.length, (long) body + size);
+                byte[] pcm = new byte[(end - body) & ~1];
+                System.arraycopy(bytes, body, pcm, 0, pcm.length);
+                return new PcmWav(pcm, sampleRate);
+            }
+            if (size > bytes.length - body) return null;
+            pos = body + size + (size & 1); // 청크는 짝수 바이트로 정렬
+        }
+        return null;
+    }
+
+    static boolean isRiffWave(byte[] header) {
+        return header.length >= 12
+                && header[0] == 'R' && header[1] == 'I' && header[2] == 'F' && header[3] == 'F'
+                && header[8] == 'W' && header[9] == 'A' && header[10] == 'V' && header[11] == 'E';
+    }
+
+    private static short[] toSamples(byte[] pcm) {
+        short[] samples = new short[pcm.length / 2];
+        ByteBuffer.wrap(pcm).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(samples);
+        return samples;
+    }
+
+    private int firstVoicedFrame(short[] samples, int frame) {
+        for (int start = 0; start < samples.length; start += frame) {
+            if (rms(samples, start, Math.min(samples.length, start + frame)) >= silenceThreshold) return start;
+        }
+        return -1;
+    }
+
+    private int lastVoicedFrameEnd(short[] samples, int frame) {
+        int lastStart = (samples.length - 1) / frame * frame;
+        for (int start = lastStart; start >= 0; start -= frame) {
+            int end = Math.min(samples.length, start + frame);
+            if (rms(samples, start, end) >= silenceThreshold) return end;
+        }
+        return 0;
+    }
+
+    private static double rms(short[] samples, int from, int to) {
+        double sum = 0;
+        for (int i = from; i < to; i++) sum += (double) samples[i] * samples[i];
+        return Math.sqrt(sum / Math.max(1, to - from));
+    }
+
+    /**
+     * [from, to) 구간을 outRate로 변환한다. 내릴 때는 새 나이퀴스트 주파수 아래로 걸러 aliasing을 막는다.
+     */
+    static short[] resample(short[] in, int from, int to, int inRate, int outRate) {
+        int n = to - from;
+        if (inRate == outRate) {
+            short[] copy = new short[n];
+            System.arraycopy(in, from, copy, 0, n);
+            return copy;
+        }
+        int outLength = (int) ((long) n * outRate / inRate);
+        short[] out = new short[outLength];
+        double step = (double) inRate / outRate;
+        double cutoff = Math.min(1.0, (double) outRate / inRate); // 입력 나이퀴스트 대비 통과 대역
+        for (int i = 0; i < outLength; i++) {
+            double center = from + i * step;
+            int base = (int) Math.floor(center);
+            double acc = 0;
+            double weight = 0;
+            for (int k = base - TAPS + 1; k <= base + TAPS; k++) {
+                if (k < from || k >= to) continue;
+                double x = center - k;
+                double w = cutoff * sinc(cutoff * x) * hann(x / TAPS);
+                acc += in[k] * w;
+                weight += w;
+            }
+            double v = weight == 0 ? 0 : acc / weight;
+            out[i] = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, Math.round(v)));
+        }
+        return out;
+    }
+
+    private static double sinc(double x) {
+        if (x == 0) return 1;
+        double px = Math.PI * x;
+        return Math.sin(px) / px;
+    }
+
+    private static double hann(double x) {
+        if (Math.abs(x) >= 1) return 0;
+        return 0.5 + 0.5 * Math.cos(Math.PI * x);
+    }
+
+    static byte[] toWav(short[] samples, int sampleRate) {
+        int dataBytes = samples.length * 2;
+        ByteBuffer buf = ByteBuffer.allocate(WAV_HEADER_BYTES + dataBytes).order(ByteOrder.LITTLE_ENDIAN);
+        buf.put(new byte[]{'R', 'I', 'F', 'F'}).putInt(36 + dataBytes)
+                .put(new byte[]{'W', 'A', 'V', 'E'})
+                .put(new byte[]{'f', 'm', 't', ' '}).putInt(16)
+                .putShort((short) 1)                 // PCM
+                .putShort((short) 1)                 // mono
+                .putInt(sampleRate)
+                .putInt(sampleRate * 2)              // byte rate
+                .putShort((short) 2)                 // block align
+                .putShort((short) 16)                // bits per sample
+                .put(new byte[]{'d', 'a', 't', 'a'}).putInt(dataBytes);
+        buf.asShortBuffer().put(samples);
+        return buf.array();
+    }
+
+    /**
+     * @param wav         업로드할 WAV 바이트
+     * @param sourceBytes 원본 PCM 바이트 수
+     * @param silent      말소리가 없어 업로드할 필요가 없음
+     */
+    public record Prepared(byte[] wav, int sourceBytes, boolean silent) {
+    }
+
+    record PcmWav(byte[] pcm, int sampleRate) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.capstone.livenote.application.openai.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+/**
+ * Whisper 호출 circuit breaker.
+ *
+ * 연속 failure-threshold번 실패하면 open-ms 동안 열려 호출을 막는다 (호출하는 쪽은 지연 큐로 돌린다).
+ * 시간이 지나면 요청 하나만 시험 삼아 통과시키고(half-open), 성공하면 닫고 실패하면 다시 연다.
+ * 시험 요청의 결과가 open-ms 안에 오지 않으면 (호출자가 알리지 않고 빠진 경우 등) 다음 요청을 새 시험으로 보낸다.
+ * 호출자는 tryAcquire()가 true일 때만 호출하고, 결과를 onSuccess/onFailure로 알린다.
+ * 4xx(잘못된 오디오 등 요청 쪽 문제)는 Whisper가 살아 있다는 뜻이므로 실패로 세지 않는다 (408, 429는 셈).
+ */
+@Component
+@Slf4j
+public class SttCircuitBreaker {
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    @Value("${app.openai.stt.breaker.failure-threshold:5}")
+    private int failureThreshold;
+
+    @Value("${app.openai.stt.breaker.open-ms:30000}")
+    private long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+    private long probeStartedAtMillis;
+
+    public SttCircuitBreaker(MeterRegistry registry) {
+        Gauge.builder("stt.breaker.open", this, b -> b.state() == State.CLOSED ? 0 : 1)
+                .description("STT circuit breaker가 열려 있으면 1")
+                .register(registry);
+    }
+
+    /**
+     * 지금 STT를 호출해도 되는지. 열린 뒤 open-ms가 지났으면 이 호출 하나를 시험 요청으로 통과시킨다.
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.currentTimeMillis();
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (now - openedAtMillis < openMillis) return false;
+                state = State.HALF_OPEN;
+                probeStartedAtMillis = now;
+                log.info("[STT] circuit half-open, probing upstream");
+                return true;
+            default:
+                // 시험 요청 진행 중. 결과 없이 open-ms가 지나면 새 시험 요청을 보낸다
+                if (now - probeStartedAtMillis < openMillis) return false;
+                probeStartedAtMillis = now;
+                log.warn("[STT] circuit probe never reported back, probing again");
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("[STT] circuit closed");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    /**
+     * 호출이 예외로 끝났을 때. 요청 쪽 문제(4xx)면 Whisper는 응답했으므로 성공으로 친다.
+     */
+    public void onFailure(Throwable error) {
+        if (isClientError(error)) {
+            onSuccess();
+        } else {
+            onFailure();
+        }
+    }
+
+    public synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= Math.max(1, failureThreshold)) {
+            if (state != State.OPEN) {
+                log.warn("[STT] circuit opened after {} consecutive failures", consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAtMillis = System.currentTimeMillis();
+        }
+    }
+
+    static boolean isClientError(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause()) {
+            if (t instanceof HttpClientErrorException e) {
+                int status = e.getStatusCode().value();
+                return status != HttpStatus.REQUEST_TIMEOUT.value() && status != HttpStatus.TOO_MANY_REQUESTS.value();
+            }
+            if (t.getCause() == t) break;
+        }
+        return false;
+    }
+
+    synchronized State state() {
+        return state;
+    }
+}
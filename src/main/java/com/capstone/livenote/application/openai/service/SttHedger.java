@@ -0,0 +1,293 @@
+package com.capstone.livenote.application.openai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * STT 요청 hedging.
+ *
+ * 요청이 최근 지연 시간의 percentile(기본 p95)을 넘기도록 끝나지 않으면 같은 요청을 한 번 더 보내고
+ * 먼저 성공한 응답을 쓴다. 진 쪽 요청은 끊지 않고 끝나게 두며 결과만 버린다.
+ * 강의마다 hedge 수를 요청 수의 budgetRatio 이하로 묶어 부하가 두 배가 되지 않게 한다.
+ *
+ * hedge를 보낼 수 없는 호출(표본 부족, 강의 예산 소진, 요청 스레드가 모두 사용 중)은 호출한 스레드에서 바로 실행한다.
+ * hedge할 수도 있는 호출만 첫 요청을 요청 스레드(최대 max-threads개)로 넘긴다. 막힌 HTTP 호출은 중간에 버릴 수
+ * 없으므로, 먼저 온 응답을 돌려주려면 첫 요청도 호출한 스레드 밖에서 돌아야 한다.
+ *
+ * 지표: stt.hedge.fired / stt.hedge.won / stt.hedge.skipped (hedge 비율 = fired / stt.hedge.calls),
+ * stt.hedge.p99.saved (hedge 없이 기다렸을 p99 - 실제 p99, ms)
+ */
+@Component
+public class SttHedger {
+
+    private static final int BUDGET_SWEEP_EVERY = 256;
+    private static final long BUDGET_IDLE_MILLIS = TimeUnit.MINUTES.toMillis(30);
+
+    @Value("${app.openai.stt.hedge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.openai.stt.hedge.percentile:0.95}")
+    private double percentile;
+
+    @Value("${app.openai.stt.hedge.min-samples:20}")
+    private int minSamples;
+
+    @Value("${app.openai.stt.hedge.min-delay-ms:500}")
+    private long minDelayMs;
+
+    @Value("${app.openai.stt.hedge.budget-ratio:0.1}")
+    private double budgetRatio;
+
+    private final LatencyWindow primaryLatency;   // 첫 요청만 보냈다면 걸렸을 시간
+    private final LatencyWindow effectiveLatency; // 호출한 쪽이 실제로 기다린 시간
+    private final Map<Long, Budget> budgets = new ConcurrentHashMap<>();
+    private final AtomicInteger budgetLookups = new AtomicInteger();
+
+    private final Counter calls;
+    private final Counter fired;
+    private final Counter won;
+    private final Counter skipped;
+
+    // hedge할 수 있는 호출의 첫 요청과 hedge 요청을 실행한다. 모두 사용 중이면 거절 (대기열 없음)
+    private final ThreadPoolExecutor requests;
+
+    public SttHedger(MeterRegistry registry,
+                     @Value("${app.openai.stt.hedge.window-size:200}") int windowSize,
+                     @Value("${app.openai.stt.hedge.max-threads:16}") int maxThreads) {
+        this.requests = new ThreadPoolExecutor(Math.max(1, maxThreads), Math.max(1, maxThreads),
+                60L, TimeUnit.SECONDS, new SynchronousQueue<>(), new ThreadFactory() {
+            private final AtomicInteger seq = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread t = new Thread(r, "stt-hedge-" + seq.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            }
+        }, new ThreadPoolExecutor.AbortPolicy());
+        this.requests.allowCoreThreadTimeOut(true);
+        this.primaryLatency = new LatencyWindow(windowSize);
+        this.effectiveLatency = new LatencyWindow(windowSize);
+        this.calls = Counter.builder("stt.hedge.calls").description("hedging 대상 STT 호출 수").register(registry);
+        this.fired = Counter.builder("stt.hedge.fired").description("지연되어 중복 요청을 보낸 수").register(registry);
+        this.won = Counter.builder("stt.hedge.won").description("중복 요청이 먼저 끝나 결과로 쓰인 수").register(registry);
+        this.skipped = Counter.builder("stt.hedge.skipped")
+                .description("지연되었지만 강의별 hedge 예산이나 요청 스레드가 없어 보내지 않은 수")
+                .register(registry);
+        Gauge.builder("stt.hedge.p99.saved", this, SttHedger::p99SavedMillis)
+                .description("hedging으로 줄어든 STT p99 지연 (최근 구간)")
+                .baseUnit("milliseconds")
+                .register(registry);
+    }
+
+    /**
+     * request를 실행하고 결과를 돌려준다. 꺼져 있으면 호출한 스레드에서 그대로 실행한다.
+     * request는 여러 번(동시에) 불려도 안전해야 한다.
+     */
+    public <T> T call(Long lectureId, Supplier<T> request) {
+        if (!enabled) return request.get();
+        calls.increment();
+        long start = System.nanoTime();
+        Budget budget = budget(lectureId);
+        budget.requested();
+
+        long delay = hedgeDelayMillis();
+        if (delay < 0) {
+            return effective(start, runPrimary(start, request)); // 표본이 모일 때까지는 hedge하지 않는다
+        }
+        if (!budget.hasRoom()) {
+            T result = runPrimary(start, request);
+            if (elapsedMillis(start) >= delay) skipped.increment();
+            return effective(start, result);
+        }
+        CompletableFuture<T> primary;
+        try {
+            primary = CompletableFuture.supplyAsync(() -> runPrimary(start, request), requests);
+        } catch (RejectedExecutionException e) {
+            // 요청 스레드가 모두 사용 중
+            T result = runPrimary(start, request);
+            if (elapsedMillis(start) >= delay) skipped.increment();
+            return effective(start, result);
+        }
+
+        try {
+            try {
+                return effective(start, primary.get(delay, TimeUnit.MILLISECONDS));
+            } catch (TimeoutException ignored) {
+                // p 지연을 넘김 -> 예산이 있으면 hedge
+            }
+            if (!budget.tryHedge()) {
+                skipped.increment();
+                return effective(start, primary.get());
+            }
+            CompletableFuture<T> hedge;
+            try {
+                hedge = CompletableFuture.supplyAsync(request, requests);
+            } catch (RejectedExecutionException e) {
+                budget.refund();
+                skipped.increment();
+                return effective(start, primary.get());
+            }
+            fired.increment();
+            return effective(start, firstSuccess(primary, hedge).get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("STT 요청 대기 중 인터럽트", e);
+        } catch (ExecutionException e) {
+            throw unwrap(e.getCause());
+        }
+    }
+
+    private <T> T runPrimary(long start, Supplier<T> request) {
+        T result = request.get();
+        primaryLatency.add(elapsedMillis(start));
+        return result;
+    }
+
+    private <T> CompletableFuture<T> firstSuccess(CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        primary.whenComplete((value, err) -> {
+            if (err == null) result.complete(value);
+            else if (failures.incrementAndGet() == 2) result.completeExceptionally(err);
+        });
+        hedge.whenComplete((value, err) -> {
+            if (err == null) {
+                if (result.complete(value)) won.increment();
+            } else if (failures.incrementAndGet() == 2) {
+                result.completeExceptionally(err);
+            }
+        });
+        return result;
+    }
+
+    private <T> T effective(long start, T result) {
+        effectiveLatency.add(elapsedMillis(start));
+        return result;
+    }
+
+    /**
+     * hedge를 보낼 대기 시간(ms). 표본이 부족하면 -1
+     */
+    long hedgeDelayMillis() {
+        long p = primaryLatency.percentile(percentile, minSamples);
+        return p < 0 ? -1 : Math.max(minDelayMs, p);
+    }
+
+    double p99SavedMillis() {
+        long primary = primaryLatency.percentile(0.99, 1);
+        long effective = effectiveLatency.percentile(0.99, 1);
+        return primary < 0 || effective < 0 ? 0 : primary - effective;
+    }
+
+    private Budget budget(Long lectureId) {
+        if (budgetLookups.incrementAndGet() % BUDGET_SWEEP_EVERY == 0) {
+            long now = System.currentTimeMillis();
+            for (Iterator<Budget> it = budgets.values().iterator(); it.hasNext(); ) {
+                if (now - it.next().lastUsedMillis > BUDGET_IDLE_MILLIS) it.remove();
+            }
+        }
+        return budgets.computeIfAbsent(lectureId, id -> new Budget());
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static RuntimeException unwrap(Throwable t) {
+        while (t instanceof CompletionException && t.getCause() != null) t = t.getCause();
+        return t instanceof RuntimeException re ? re : new RuntimeException(t);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        requests.shutdownNow();
+    }
+
+
+    /**
+     * 강의별 hedge 예산: hedge 수 <= max(1, 요청 수 * budgetRatio)
+     */
+    private final class Budget {
+        private final AtomicLong requests = new AtomicLong();
+        private final AtomicLong hedges = new AtomicLong();
+        private volatile long lastUsedMillis = System.currentTimeMillis();
+
+        void requested() {
+            requests.incrementAndGet();
+            lastUsedMillis = System.currentTimeMillis();
+        }
+
+        boolean hasRoom() {
+            return hedges.get() + 1 <= Math.max(1, requests.get() * budgetRatio);
+        }
+
+        void refund() {
+            hedges.decrementAndGet();
+        }
+
+        boolean tryHedge() {
+            double allowed = Math.max(1, requests.get() * budgetRatio);
+            long used;
+            do {
+                used = hedges.get();
+                if (used + 1 > allowed) return false;
+            } while (!hedges.compareAndSet(used, used + 1));
+            return true;
+        }
+    }
+
+    /**
+     * 최근 N개 지연 시간(ms). percentile은 요청마다 한 번 계산하므로 복사 후 정렬로 충분하다 (N=200)
+     */
+    static final class LatencyWindow {
+        private final long[] samples;
+        private int next;
+        private int size;
+
+        LatencyWindow(int capacity) {
+            this.samples = new long[Math.max(1, capacity)];
+        }
+
+        synchronized void add(long millis) {
+            samples[next] = millis;
+            next = (next + 1) % samples.length;
+            if (size < samples.length) size++;
+        }
+
+        /**
+         * @return 표본이 minSamples보다 적으면 -1
+         */
+        long percentile(double p, int minSamples) {
+            long[] copy;
+            synchronized (this) {
+                if (size == 0 || size < minSamples) return -1;
+                copy = Arrays.copyOf(samples, size);
+            }
+            Arrays.sort(copy);
+            int index = (int) Math.ceil(p * copy.length) - 1;
+            return copy[Math.max(0, Math.min(copy.length - 1, index))];
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.capstone.livenote.application.openai.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.core.io.AbstractResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whisper 요청 구간별 지표. STT 동시 호출 수/연결 풀 크기를 실제 수치로 정하기 위해 쓴다.
+ *
+ * stt.request.upload  요청 시작 ~ 오디오 본문을 다 보낼 때까지 (연결 대기/수립 포함)
+ * stt.request.server  본문을 다 보낸 뒤 ~ 응답 헤더를 받을 때까지 (OpenAI 처리 시간)
+ * stt.response.size   응답 본문 바이트
+ * stt.request         전체 시간 (outcome=success|error)
+ */
+@Component
+public class SttRequestMetrics {
+
+    private final Timer uploadTimer;
+    private final Timer serverTimer;
+    private final DistributionSummary responseSize;
+    private final Timer successTimer;
+    private final Timer errorTimer;
+
+    public SttRequestMetrics(MeterRegistry registry) {
+        this.uploadTimer = Timer.builder("stt.request.upload")
+                .description("STT 요청 시작부터 오디오 본문을 다 보낼 때까지")
+                .register(registry);
+        this.serverTimer = Timer.builder("stt.request.server")
+                .description("오디오 본문을 다 보낸 뒤 응답 헤더를 받을 때까지")
+                .register(registry);
+        this.responseSize = DistributionSummary.builder("stt.response.size")
+                .description("STT 응답 본문 크기")
+                .baseUnit("bytes")
+                .register(registry);
+        this.successTimer = requestTimer(registry, "success");
+        this.errorTimer = requestTimer(registry, "error");
+    }
+
+    private static Timer requestTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("stt.request")
+                .description("STT 요청 전체 시간")
+                .tag("outcome", outcome)
+                .register(registry);
+    }
+
+    /**
+     * 요청 하나의 측정을 시작한다.
+     */
+    Exchange begin() {
+        return new Exchange();
+    }
+
+    final class Exchange {
+        private final long startNanos = System.nanoTime();
+        private volatile long uploadedNanos;
+
+        /**
+         * 본문을 끝까지 읽는 순간(= 소켓에 다 쓴 순간)을 기록하도록 감싼다.
+         */
+        Resource track(Resource audio) {
+            return new TrackedResource(audio, this);
+        }
+
+        /**
+         * 응답 헤더를 받은 시각과 본문 크기를 기록한다.
+         */
+        void responded(long headerNanos, long bodyBytes) {
+            long uploaded = uploadedNanos;
+            if (uploaded != 0) {
+                uploadTimer.record(uploaded - startNanos, TimeUnit.NANOSECONDS);
+                serverTimer.record(Math.max(0, headerNanos - uploaded), TimeUnit.NANOSECONDS);
+            }
+            responseSize.record(bodyBytes);
+        }
+
+        void finish(boolean success) {
+            (success ? successTimer : errorTimer).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+
+        private void uploaded() {
+            if (uploadedNanos == 0) uploadedNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * 원본 Resource에 위임하되 스트림이 끝나면 업로드 완료로 기록한다.
+     * contentLength/getFilename도 위임해야 본문을 미리 읽지 않는다.
+     */
+    private static final class TrackedResource extends AbstractResource {
+        private final Resource delegate;
+        private final Exchange exchange;
+
+        private TrackedResource(Resource delegate, Exchange exchange) {
+            this.delegate = delegate;
+            this.exchange = exchange;
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(delegate.getInputStream()) {
+                @Override
+                public int read() throws IOException {
+                    int b = super.read();
+                    if (b < 0) exchange.uploaded();
+                    return b;
+                }
+
+                @Override
+                public int read(byte[] buf, int off, int len) throws IOException {
+                    int n = super.read(buf, off, len);
+                    if (n < 0) exchange.uploaded();
+                    return n;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    exchange.uploaded();
+                    super.close();
+                }
+            };
+        }
+
+        @Override
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        @Override
+        public String getFilename() {
+            return delegate.getFilename();
+        }
+
+        @Override
+        public boolean exists() {
+            return delegate.exists();
+        }
+
+        @Override
+        public String getDescription() {
+            return delegate.getDescription();
+        }
+    }
+}
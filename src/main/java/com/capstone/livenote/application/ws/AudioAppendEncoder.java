@@ -0,0 +1,96 @@
+package com.capstone.livenote.application.ws;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+
+/**
+ * PCM 바이트를 input_audio_buffer.append JSON 메시지로 바로 인코딩한다.
+ *
+ * Base64.getEncoder().encodeToString() + 문자열 결합 대신, 입력 ByteBuffer에서 읽어
+ * 재사용 가능한 CharBuffer에 Base64 문자를 직접 쓰므로 프레임당 중간 byte[]/String이 생기지 않는다.
+ */
+final class AudioAppendEncoder {
+
+    private static final char[] PREFIX = "{\"type\":\"input_audio_buffer.append\",\"audio\":\"".toCharArray();
+    private static final char[] SUFFIX = "\"}".toCharArray();
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray();
+
+    private AudioAppendEncoder() {
+    }
+
+    /**
+     * charCapacity 크기의 버퍼 하나에 담을 수 있는 최대 PCM 바이트 수.
+     * 메시지마다 독립적인 Base64가 되도록 3바이트, PCM16 샘플 경계를 지키도록 2바이트의 배수(6의 배수)로 맞춘다.
+     */
+    static int maxPcmBytes(int charCapacity) {
+        int base64Chars = charCapacity - PREFIX.length - SUFFIX.length;
+        return Math.max(0, base64Chars / 8 * 6);
+    }
+
+    /**
+     * pcm의 position부터 최대 maxPcmBytes(dst.capacity()) 바이트를 읽어 dst에 append 메시지 하나를 쓴다.
+     * pcm의 position은 읽은 만큼 전진하고, dst는 읽기 가능한 상태(flip)로 남는다.
+     *
+     * @return 이번 메시지에 담긴 PCM 바이트 수
+     */
+    static int encode(ByteBuffer pcm, CharBuffer dst) {
+        int n = Math.min(pcm.remaining(), maxPcmBytes(dst.capacity()));
+        if (n <= 0) {
+            throw new IllegalArgumentException("buffer too small for an append message: " + dst.capacity());
+        }
+        begin(dst);
+
+        int full = n - n % 3;
+        for (int i = 0; i < full; i += 3) {
+            putGroup(dst, (pcm.get() & 0xff) << 16 | (pcm.get() & 0xff) << 8 | (pcm.get() & 0xff));
+        }
+
+        int rest = n - full;
+        int carry = 0;
+        for (int i = 0; i < rest; i++) {
+            carry = carry << 8 | (pcm.get() & 0xff);
+        }
+        finish(dst, carry, rest);
+        return n;
+    }
+
+    /**
+     * dst를 비우고 메시지 앞부분(JSON envelope)을 쓴다.
+     */
+    static void begin(CharBuffer dst) {
+        dst.clear();
+        dst.put(PREFIX);
+    }
+
+    /**
+     * 3바이트(24bit) 묶음 하나를 Base64 문자 4개로 쓴다.
+     */
+    static void putGroup(CharBuffer dst, int bits) {
+        dst.put(ALPHABET[(bits >>> 18) & 0x3f]);
+        dst.put(ALPHABET[(bits >>> 12) & 0x3f]);
+        dst.put(ALPHABET[(bits >>> 6) & 0x3f]);
+        dst.put(ALPHABET[bits & 0x3f]);
+    }
+
+    /**
+     * 남은 carryLen(0~2)바이트를 패딩과 함께 쓰고 메시지를 닫은 뒤 flip 한다.
+     */
+    static void finish(CharBuffer dst, int carry, int carryLen) {
+        if (carryLen == 1) {
+            int bits = carry << 16;
+            dst.put(ALPHABET[(bits >>> 18) & 0x3f]);
+            dst.put(ALPHABET[(bits >>> 12) & 0x3f]);
+            dst.put('=');
+            dst.put('=');
+        } else if (carryLen == 2) {
+            int bits = carry << 8;
+            dst.put(ALPHABET[(bits >>> 18) & 0x3f]);
+            dst.put(ALPHABET[(bits >>> 12) & 0x3f]);
+            dst.put(ALPHABET[(bits >>> 6) & 0x3f]);
+            dst.put('=');
+        }
+        dst.put(SUFFIX);
+        dst.flip();
+    }
+}
@@ -0,0 +1,120 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties.BacklogDropPolicy;
+
+import java.nio.ByteBuffer;
+
+/**
+ * OpenAI로 아직 보내지 못한 PCM을 담아 두는 바이트 단위 상한의 링 버퍼 (off-heap).
+ *
+ * 업스트림 연결 전/재연결 중이거나 전송이 밀릴 때만 쓰이므로, 버퍼는 처음 쓸 때 할당한다.
+ * 가득 차면 정책에 따라 가장 오래된 오디오를 버리거나(DROP_OLDEST) 새 프레임을 거절(REJECT)한다.
+ */
+final class AudioBacklog {
+
+    private final int capacity;
+    private final BacklogDropPolicy policy;
+
+    private ByteBuffer ring;
+    private long head;   // 지금까지 읽어 간 총 바이트
+    private long tail;   // 지금까지 쓴 총 바이트
+    private long droppedBytes;
+
+    AudioBacklog(int capacity, BacklogDropPolicy policy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("backlog capacity must be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.policy = policy;
+    }
+
+    /**
+     * src의 남은 바이트를 모두 소비한다.
+     *
+     * @return 정책에 따라 버려진 바이트 수
+     */
+    synchronized int write(ByteBuffer src) {
+        int n = src.remaining();
+        if (n == 0) return 0;
+
+        int dropped = 0;
+        if (n > capacity - size()) {
+            if (policy == BacklogDropPolicy.REJECT) {
+                src.position(src.limit());
+                droppedBytes += n;
+                return n;
+            }
+            if (n > capacity) {
+                // 프레임 하나가 버퍼보다 크면 뒷부분만 남긴다 (PCM16 샘플 경계 유지)
+                int skip = n - capacity;
+                skip += skip % 2;
+                src.position(src.position() + skip);
+                dropped += skip;
+                n = src.remaining();
+            }
+            int overflow = n - (capacity - size());
+            if (overflow > 0) {
+                overflow += overflow % 2;
+                int discard = Math.min(overflow, size());
+                head += discard;
+                dropped += discard;
+            }
+            int free = capacity - size();
+            if (n > free) {
+                src.position(src.position() + (n - free));
+                dropped += n - free;
+                n = free;
+            }
+        }
+
+        if (ring == null) {
+            ring = ByteBuffer.allocateDirect(capacity);
+        }
+        int index = (int) (tail % capacity);
+        int first = Math.min(n, capacity - index);
+        ring.put(index, src, src.position(), first);
+        if (first < n) {
+            ring.put(0, src, src.position() + first, n - first);
+        }
+        src.position(src.position() + n);
+        tail += n;
+        droppedBytes += dropped;
+        return dropped;
+    }
+
+    /**
+     * 가장 오래된 바이트부터 최대 max 바이트를 담은 읽기 전용 뷰를 반환한다 (링 경계에서 끊길 수 있음).
+     * 뷰를 다 쓴 뒤 {@link #skip(int)}으로 소비를 알려야 한다.
+     */
+    synchronized ByteBuffer peek(int max) {
+        int size = size();
+        if (size == 0) return null;
+        int index = (int) (head % capacity);
+        int n = Math.min(Math.min(size, max), capacity - index);
+        return ring.slice(index, n).asReadOnlyBuffer();
+    }
+
+    synchronized void skip(int n) {
+        head += Math.min(n, size());
+    }
+
+    synchronized void clear() {
+        head = tail;
+    }
+
+    synchronized int size() {
+        return (int) (tail - head);
+    }
+
+    synchronized boolean isEmpty() {
+        return tail == head;
+    }
+
+    synchronized long droppedBytes() {
+        return droppedBytes;
+    }
+
+    int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,132 @@
+package com.capstone.livenote.application.ws;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.function.Consumer;
+
+/**
+ * 작은 PCM 프레임 여러 개를 input_audio_buffer.append 메시지 하나로 모은다.
+ *
+ * 프레임을 따로 복사해 두지 않고, 열려 있는 메시지 버퍼에 Base64로 바로 이어 쓴다.
+ * 3바이트 묶음에 못 미친 나머지(최대 2바이트)만 carry로 들고 있다가 다음 프레임과 합친다.
+ * thresholdBytes만큼 모이면 메시지를 닫아 sink로 넘기며, 그 전에도 flush()로 닫을 수 있다.
+ * 모든 메서드는 세션 하나 안에서 여러 스레드(수신/타이머/OpenAI 리스너)가 부를 수 있어 synchronized.
+ */
+final class AudioCoalescer {
+
+    private final CharBufferPool bufferPool;
+    private final int thresholdBytes;
+    private final Consumer<CharBuffer> sink;
+
+    private CharBuffer current;
+    private int currentBytes;
+    private int carry;
+    private int carryLen;
+    private long openedAtMillis;
+    private long messages;
+
+    /**
+     * @param thresholdBytes 메시지 하나에 모을 PCM 바이트 수. 0 이하이면 프레임마다 바로 보낸다
+     */
+    AudioCoalescer(CharBufferPool bufferPool, int thresholdBytes, Consumer<CharBuffer> sink) {
+        int max = AudioAppendEncoder.maxPcmBytes(bufferPool.bufferChars());
+        this.bufferPool = bufferPool;
+        this.thresholdBytes = thresholdBytes <= 0 ? 0 : Math.min(thresholdBytes - thresholdBytes % 2, max);
+        this.sink = sink;
+    }
+
+    synchronized void write(ByteBuffer pcm) {
+        int max = AudioAppendEncoder.maxPcmBytes(bufferPool.bufferChars());
+        int limit = thresholdBytes == 0 ? max : thresholdBytes;
+        while (pcm.hasRemaining()) {
+            if (current == null) {
+                open();
+            }
+            int take = Math.min(pcm.remaining(), limit - currentBytes);
+            append(pcm, take);
+            if (currentBytes >= limit) {
+                close();
+            }
+        }
+        if (thresholdBytes == 0 && current != null) {
+            close();
+        }
+    }
+
+    /**
+     * 모아 둔 오디오가 있으면 지금 메시지로 내보낸다.
+     */
+    synchronized boolean flush() {
+        if (current == null) return false;
+        close();
+        return true;
+    }
+
+    /**
+     * 첫 프레임이 들어온 지 maxDelayMillis 이상 지난 메시지를 내보낸다 (타이머용).
+     */
+    synchronized boolean flushIfOlderThan(long nowMillis, long maxDelayMillis) {
+        if (current == null || nowMillis - openedAtMillis < maxDelayMillis) return false;
+        close();
+        return true;
+    }
+
+    /**
+     * 열려 있는 메시지를 보내지 않고 버린다 (업스트림이 끊겨 재전송 링에서 다시 보낼 때).
+     */
+    synchronized void discard() {
+        if (current == null) return;
+        bufferPool.release(current);
+        current = null;
+        currentBytes = 0;
+        carry = 0;
+        carryLen = 0;
+    }
+
+    synchronized long messageCount() {
+        return messages;
+    }
+
+    private void open() {
+        current = bufferPool.acquire();
+        AudioAppendEncoder.begin(current);
+        currentBytes = 0;
+        carry = 0;
+        carryLen = 0;
+        openedAtMillis = System.currentTimeMillis();
+    }
+
+    private void append(ByteBuffer pcm, int n) {
+        int i = 0;
+        // 이전 프레임에서 남은 바이트부터 채운다
+        while (carryLen > 0 && i < n) {
+            carry = carry << 8 | (pcm.get() & 0xff);
+            carryLen++;
+            i++;
+            if (carryLen == 3) {
+                AudioAppendEncoder.putGroup(current, carry);
+                carry = 0;
+                carryLen = 0;
+            }
+        }
+        for (; i + 3 <= n; i += 3) {
+            AudioAppendEncoder.putGroup(current, (pcm.get() & 0xff) << 16 | (pcm.get() & 0xff) << 8 | (pcm.get() & 0xff));
+        }
+        for (; i < n; i++) {
+            carry = carry << 8 | (pcm.get() & 0xff);
+            carryLen++;
+        }
+        currentBytes += n;
+    }
+
+    private void close() {
+        CharBuffer message = current;
+        AudioAppendEncoder.finish(message, carry, carryLen);
+        current = null;
+        currentBytes = 0;
+        carry = 0;
+        carryLen = 0;
+        messages++;
+        sink.accept(message);
+    }
+}
@@ -0,0 +1,77 @@
+package com.capstone.livenote.application.ws;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 업스트림으로 넘긴 최근 PCM을 세션 시작부터의 절대 오프셋과 함께 보관하는 링 버퍼 (off-heap).
+ *
+ * OpenAI 소켓이 끊기면 아직 전사가 끝나지 않은 구간을 새 소켓으로 다시 보내는 데 쓴다.
+ * 용량을 넘으면 가장 오래된 바이트부터 덮어쓰며, 버퍼는 처음 쓸 때 할당한다.
+ * 세션의 audioLock 안에서만 쓰이므로 자체 동기화는 하지 않는다.
+ */
+final class AudioReplayRing {
+
+    private final int capacity;
+
+    private ByteBuffer ring;
+    private long endOffset; // 지금까지 기록한 총 바이트
+
+    /**
+     * @param capacity 보관할 최대 바이트 (0이면 기록하지 않는다)
+     */
+    AudioReplayRing(int capacity) {
+        this.capacity = Math.max(0, capacity);
+    }
+
+    /**
+     * src의 남은 바이트를 기록한다. src의 position은 바꾸지 않는다.
+     */
+    void write(ByteBuffer src) {
+        int n = src.remaining();
+        if (n == 0) return;
+        if (capacity == 0) {
+            endOffset += n;
+            return;
+        }
+        if (ring == null) {
+            ring = ByteBuffer.allocateDirect(capacity);
+        }
+        int from = src.position();
+        long offset = endOffset;
+        if (n > capacity) {
+            // 용량보다 크면 뒷부분만 남긴다
+            from += n - capacity;
+            offset += n - capacity;
+            n = capacity;
+        }
+        int index = (int) (offset % capacity);
+        int first = Math.min(n, capacity - index);
+        ring.put(index, src, from, first);
+        if (first < n) {
+            ring.put(0, src, from + first, n - first);
+        }
+        endOffset = offset + n;
+    }
+
+    /**
+     * 아직 보관 중인 가장 오래된 바이트의 오프셋
+     */
+    long startOffset() {
+        return endOffset - Math.min(endOffset, capacity);
+    }
+
+    long endOffset() {
+        return endOffset;
+    }
+
+    /**
+     * offset부터 최대 max 바이트를 담은 읽기 전용 뷰 (링 경계에서 끊길 수 있음).
+     * 이미 덮어쓴 구간이거나 끝에 도달했으면 null.
+     */
+    ByteBuffer slice(long offset, int max) {
+        if (offset < startOffset() || offset >= endOffset) return null;
+        int index = (int) (offset % capacity);
+        int n = (int) Math.min(Math.min(max, endOffset - offset), capacity - index);
+        return ring.slice(index, n).asReadOnlyBuffer();
+    }
+}
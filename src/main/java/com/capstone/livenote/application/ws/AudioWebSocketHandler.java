@@ -1,33 +1,56 @@
 package com.capstone.livenote.application.ws;
 
+import com.capstone.livenote.application.audio.service.DeferredTranscriptionQueue;
 import com.capstone.livenote.application.openai.service.OpenAiSttService;
+import com.capstone.livenote.application.openai.service.SttCircuitBreaker;
 import com.capstone.livenote.domain.lecture.entity.Lecture;
 import com.capstone.livenote.domain.lecture.repository.LectureRepository;
 import com.capstone.livenote.domain.transcript.dto.TranscriptResponseDto;
 import com.capstone.livenote.domain.transcript.service.TranscriptService;
+import com.capstone.livenote.global.concurrent.KeyedSerialExecutor;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
-import java.util.Base64;
+import java.nio.ByteBuffer;
 import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * WebSocket 오디오 스트리밍 핸들러
  *
  * 프론트엔드에서 실시간으로 오디오 청크를 WebSocket으로 전송하면
+ * 0. 받는 즉시 chunk_ack 전송 (컨테이너 스레드는 여기까지만 하고 반환)
  * 1. OpenAI Whisper로 STT 처리
  * 2. Transcript 저장
  * 3. 섹션/요약/AI 서버 트리거 (TranscriptService 내부)
  * 4. STOMP(WebSocket)으로 실시간 전사 전송(StreamGateway)
- * 5. 이 WebSocket 연결로도 ACK 전송
+ * 5. 이 WebSocket 연결로 chunk_done 전송
+ *
+ * 1~5는 작업 스레드 풀(app.audio-stream.workers)에서 세션별로 청크 순서대로 처리하므로
+ * chunk_done도 청크 순서대로 나간다. 세션당 처리 대기 청크가 max-pending-chunks를 넘거나 작업 큐
+ * (worker-queue-capacity, 처리할 청크가 있는 세션 수)가 차 있으면 그 청크는 청크 번호를 주지 않고 거절한다.
+ * 컨테이너 스레드는 STT를 직접 처리하지 않는다.
+ *
+ * STT가 실패하거나 circuit breaker가 열려 있으면 청크를 버리지 않고 DeferredTranscriptionQueue에 넣고
+ * chunk_deferred를 보낸다. 큐가 나중에 전사를 저장하면 (연결이 살아 있을 때) chunk_done을 보낸다.
+ * 강의에 밀린 청크가 남아 있는 동안은 새 청크도 큐로 보내 전사 저장 순서를 지킨다.
  */
 @Component
 @RequiredArgsConstructor
@@ -37,11 +60,59 @@ public class AudioWebSocketHandler extends AbstractWebSocketHandler {
     private final TranscriptService transcriptService;
     private final LectureRepository lectureRepository;
     private final ObjectMapper objectMapper;
+    private final DeferredTranscriptionQueue deferredQueue;
+    private final SttCircuitBreaker sttBreaker;
     //private final StreamGateway streamGateway;
 
+    @Value("${app.audio-stream.workers:4}")
+    private int workerThreads;
+
+    @Value("${app.audio-stream.worker-queue-capacity:256}")
+    private int workerQueueCapacity;
+
+    @Value("${app.audio-stream.max-pending-chunks:8}")
+    private int maxPendingChunks;
+
+    @Value("${app.audio-stream.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${app.audio-stream.send-buffer-limit-bytes:65536}")
+    private int sendBufferLimitBytes;
+
+    @Value("${app.audio-stream.shutdown-timeout-seconds:10}")
+    private int shutdownTimeoutSeconds;
+
     // 세션별 강의 정보 저장
     private final Map<String, SessionInfo> sessions = new ConcurrentHashMap<>();
 
+    // STT/저장 작업 스레드 풀 + 세션별 순서 보장 큐
+    private ThreadPoolExecutor workers;
+    private KeyedSerialExecutor<String> lanes;
+
+    @PostConstruct
+    void init() {
+        AtomicInteger seq = new AtomicInteger();
+        int threads = Math.max(1, workerThreads);
+        workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, workerQueueCapacity)), r -> {
+                    Thread t = new Thread(r, "audio-chunk-" + seq.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+        // 큐가 차면 거절 (AbortPolicy): 컨테이너 스레드는 청크를 거절하고, 세션을 다시 줄 세우던 작업 스레드는
+        // KeyedSerialExecutor가 그 자리에서 이어서 처리한다
+        lanes = new KeyedSerialExecutor<>(workers);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(shutdownTimeoutSeconds, TimeUnit.SECONDS)) {
+            System.err.println("[AudioWebSocket] 종료 대기 시간 초과, 남은 청크=" + lanes.pendingTasks());
+            workers.shutdownNow();
+        }
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         System.out.println("[AudioWebSocket] 연결됨: " + session.getId());
@@ -54,13 +125,25 @@ public class AudioWebSocketHandler extends AbstractWebSocketHandler {
         String type = json.get("type").asText();
 
         if ("init".equals(type)) {
-            // 초기화: 강의 ID 등록
+            // 초기화: 강의 ID 등록 + 강의 정보(언어)는 세션 동안 캐시
             Long lectureId = json.get("lectureId").asLong();
-            SessionInfo info = new SessionInfo(lectureId, 0);
+            Optional<Lecture> lecture = lectureRepository.findById(lectureId);
+            if (lecture.isEmpty()) {
+                session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
+                        "type", "error",
+                        "message", "강의를 찾을 수 없습니다"
+                ))));
+                return;
+            }
+
+            // 작업 스레드와 컨테이너 스레드가 함께 보내므로 동시 전송이 가능한 세션으로 감싼다
+            WebSocketSession out = new ConcurrentWebSocketSessionDecorator(
+                    session, sendTimeLimitMs, sendBufferLimitBytes);
+            SessionInfo info = new SessionInfo(out, lectureId, lecture.get().getSttLanguage());
             sessions.put(session.getId(), info);
 
             // 응답
-            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
+            out.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
                     "type", "init_ack",
                     "lectureId", lectureId,
                     "message", "WebSocket 초기화 완료"
@@ -81,51 +164,139 @@ public class AudioWebSocketHandler extends AbstractWebSocketHandler {
             return;
         }
 
-        try {
-            // 1. 바이너리 데이터 추출
-            byte[] audioData = message.getPayload().array();
-            int chunkSeq = info.chunkSeq;
-            int startSec = chunkSeq * 5; // 5초 단위 가정
-            int endSec = startSec + 5;
+        // 1. 바이너리 데이터 추출 (수신 버퍼는 반환 후 재사용될 수 있으므로 복사)
+        ByteBuffer payload = message.getPayload();
+        byte[] audioData = new byte[payload.remaining()];
+        payload.get(audioData);
+
+        // 2. 받을 수 있는지 확인 (거절한 청크는 청크 번호를 쓰지 않는다)
+        if (info.pending.incrementAndGet() > maxPendingChunks) {
+            info.pending.decrementAndGet();
+            send(info, Map.of(
+                    "type", "error",
+                    "message", "처리 대기 중인 청크가 너무 많습니다"
+            ));
+            return;
+        }
+
+        // 3. 청크 시퀀스 (같은 세션의 메시지는 컨테이너가 순서대로 한 번에 하나씩 넘겨준다)
+        int chunkSeq = info.chunkSeq;
+        int startSec = chunkSeq * 5; // 5초 단위 가정
+        int endSec = startSec + 5;
+
+        // 4. STT/저장은 작업 스레드에 넘기고 받았다는 응답을 보낸다.
+        //    작업 스레드의 응답(send)은 info 잠금을 기다리므로 chunk_ack보다 먼저 나가지 않는다
+        synchronized (info) {
+            try {
+                lanes.execute(session.getId(), () -> {
+                    try {
+                        processChunk(info, chunkSeq, startSec, endSec, audioData);
+                    } finally {
+                        info.pending.decrementAndGet();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                info.pending.decrementAndGet();
+                send(info, Map.of(
+                        "type", "error",
+                        "message", "서버가 바빠 청크를 받지 못했습니다"
+                ));
+                return;
+            }
+            info.chunkSeq++;
 
             System.out.println("[AudioWebSocket] 오디오 수신: lectureId=" + info.lectureId +
                     " seq=" + chunkSeq + " size=" + audioData.length);
+            send(info, Map.of(
+                    "type", "chunk_ack",
+                    "chunkSeq", chunkSeq,
+                    "startSec", startSec,
+                    "endSec", endSec
+            ));
+        }
+    }
 
-            // 2. 강의 언어 조회
-            Lecture lecture = lectureRepository.findById(info.lectureId)
-                    .orElseThrow(() -> new IllegalArgumentException("강의를 찾을 수 없습니다"));
+    private void processChunk(SessionInfo info, int chunkSeq, int startSec, int endSec, byte[] audioData) {
+        // 앞서 미룬 청크가 남았거나 STT가 막혀 있으면 바로 지연 큐로
+        if (deferredQueue.hasPending(info.lectureId) || !sttBreaker.tryAcquire()) {
+            defer(info, chunkSeq, startSec, endSec, audioData);
+            return;
+        }
 
-            // 3. OpenAI Whisper STT 호출
+        String transcriptText;
+        try {
+            // OpenAI Whisper STT 호출
             String filename = info.lectureId + "_" + chunkSeq + ".webm";
-            String transcriptText = sttService.transcribe(audioData, filename, lecture.getSttLanguage());
+            transcriptText = sttService.transcribe(info.lectureId, audioData, filename, info.language);
+            sttBreaker.onSuccess();
+        } catch (Exception e) {
+            sttBreaker.onFailure(e);
+            System.err.println("[AudioWebSocket] STT 실패, 지연 큐로: " + e.getMessage());
+            defer(info, chunkSeq, startSec, endSec, audioData);
+            return;
+        }
 
+        try {
             System.out.println("[AudioWebSocket] STT 완료: " +
                     transcriptText.substring(0, Math.min(50, transcriptText.length())));
 
-            // 4. Transcript 저장 + 섹션/요약/AI 트리거
+            // Transcript 저장 + 섹션/요약/AI 트리거
             TranscriptResponseDto dto =
                     transcriptService.saveFromStt(info.lectureId, startSec, endSec, transcriptText);
 
-            // 5. STOMP(WebSocket)으로 실시간 전사 전송
+            // STOMP(WebSocket)으로 실시간 전사 전송
             //streamGateway.sendTranscript(info.lectureId, dto, false);
 
-            // 6. 처리 완료 응답 (이 WebSocket 연결로도 ACK 전송)
-            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
-                    "type", "chunk_ack",
+            // 처리 완료 응답
+            sendDone(info, chunkSeq, startSec, endSec);
+        } catch (Exception e) {
+            System.err.println("[AudioWebSocket] 처리 오류: " + e.getMessage());
+            send(info, Map.of(
+                    "type", "error",
+                    "chunkSeq", chunkSeq,
+                    "message", String.valueOf(e.getMessage())
+            ));
+        }
+    }
+
+    private void defer(SessionInfo info, int chunkSeq, int startSec, int endSec, byte[] audioData) {
+        try {
+            deferredQueue.enqueue(info.lectureId, chunkSeq, startSec, endSec, info.language, audioData,
+                    text -> sendDone(info, chunkSeq, startSec, endSec));
+            send(info, Map.of(
+                    "type", "chunk_deferred",
                     "chunkSeq", chunkSeq,
                     "startSec", startSec,
                     "endSec", endSec
-            ))));
+            ));
+        } catch (Exception e) {
+            System.err.println("[AudioWebSocket] 지연 큐 저장 실패: " + e.getMessage());
+            send(info, Map.of(
+                    "type", "error",
+                    "chunkSeq", chunkSeq,
+                    "message", String.valueOf(e.getMessage())
+            ));
+        }
+    }
 
-            // 7. 다음 청크 시퀀스 증가
-            info.chunkSeq++;
+    private void sendDone(SessionInfo info, int chunkSeq, int startSec, int endSec) {
+        send(info, Map.of(
+                "type", "chunk_done",
+                "chunkSeq", chunkSeq,
+                "startSec", startSec,
+                "endSec", endSec
+        ));
+    }
 
+    private void send(SessionInfo info, Map<String, Object> body) {
+        if (!info.session.isOpen()) return;
+        try {
+            String json = objectMapper.writeValueAsString(body);
+            synchronized (info) {
+                info.session.sendMessage(new TextMessage(json));
+            }
         } catch (Exception e) {
-            System.err.println("[AudioWebSocket] 처리 오류: " + e.getMessage());
-            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(Map.of(
-                    "type", "error",
-                    "message", e.getMessage()
-            ))));
+            System.err.println("[AudioWebSocket] 전송 실패: " + e.getMessage());
         }
     }
 
@@ -133,8 +304,9 @@ public class AudioWebSocketHandler extends AbstractWebSocketHandler {
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) throws Exception {
         SessionInfo info = sessions.remove(session.getId());
         if (info != null) {
+            // 이미 받은 청크는 작업 스레드에서 마저 저장한다 (응답만 생략)
             System.out.println("[AudioWebSocket] 연결 종료: lectureId=" + info.lectureId +
-                    " 총 청크=" + info.chunkSeq);
+                    " 총 청크=" + info.chunkSeq + " 처리 대기=" + info.pending.get());
         }
     }
 
@@ -148,12 +320,16 @@ public class AudioWebSocketHandler extends AbstractWebSocketHandler {
      * 세션별 정보 저장 클래스
      */
     private static class SessionInfo {
-        Long lectureId;
-        int chunkSeq;
+        final WebSocketSession session;
+        final Long lectureId;
+        final String language;
+        final AtomicInteger pending = new AtomicInteger(); // 작업 스레드에서 처리 대기/중인 청크 수
+        int chunkSeq;                                      // 컨테이너 스레드에서만 접근
 
-        SessionInfo(Long lectureId, int chunkSeq) {
+        SessionInfo(WebSocketSession session, Long lectureId, String language) {
+            this.session = session;
             this.lectureId = lectureId;
-            this.chunkSeq = chunkSeq;
+            this.language = language;
         }
     }
-}
\ No newline at end of file
+}
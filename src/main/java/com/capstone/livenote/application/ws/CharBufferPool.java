@@ -0,0 +1,48 @@
+package com.capstone.livenote.application.ws;
+
+import java.nio.CharBuffer;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 업스트림 전송용 고정 크기 CharBuffer 풀.
+ * 풀이 비어 있으면 새로 할당하고, 반납 시 maxPooled를 넘는 버퍼는 버린다(GC 대상).
+ */
+final class CharBufferPool {
+
+    private final int bufferChars;
+    private final int maxPooled;
+    private final Queue<CharBuffer> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    CharBufferPool(int bufferChars, int maxPooled) {
+        this.bufferChars = bufferChars;
+        this.maxPooled = maxPooled;
+    }
+
+    int bufferChars() {
+        return bufferChars;
+    }
+
+    CharBuffer acquire() {
+        CharBuffer buffer = free.poll();
+        if (buffer == null) {
+            return CharBuffer.allocate(bufferChars);
+        }
+        pooled.decrementAndGet();
+        buffer.clear();
+        return buffer;
+    }
+
+    void release(CharBuffer buffer) {
+        if (buffer == null || buffer.capacity() != bufferChars || buffer.isReadOnly()) {
+            return;
+        }
+        if (pooled.incrementAndGet() > maxPooled) {
+            pooled.decrementAndGet();
+            return;
+        }
+        free.offer(buffer);
+    }
+}
@@ -0,0 +1,285 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * OpenAI Realtime 업스트림 연결 관리.
+ *
+ * - 모든 세션이 HttpClient 하나(셀렉터 스레드 1개)를 공유한다.
+ * - session.update까지 끝낸 소켓을 poolSize만큼 미리 열어 두었다가 새 SessionContext에 넘겨준다.
+ *   풀이 비어 있으면 그 자리에서 새로 연결한다.
+ * - 풀에서 maxIdleSeconds 이상 대기한 소켓은 닫고 다시 채운다.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OpenAiRealtimeConnector {
+
+    // OpenAI Realtime 세션 설정: 오디오 입력, 텍스트 출력, VAD 활성화
+    private static final String SESSION_CONFIG = """
+            {
+              "type": "session.update",
+              "session": {
+                "modalities": ["text"],
+                "instructions": "You are a helpful assistant that transcribes audio to text. Respond with transcriptions only. Only return korean.",
+                "voice": "alloy",
+                "input_audio_format": "pcm16",
+                "output_audio_format": "pcm16",
+                "input_audio_transcription": {
+                  "model": "whisper-1"
+                },
+                "turn_detection": {
+                  "type": "server_vad",
+                  "threshold": 0.5,
+                  "prefix_padding_ms": 300,
+                  "silence_duration_ms": 500
+                },
+                "tools": [],
+                "tool_choice": "none",
+                "temperature": 0.6,
+                "max_response_output_tokens": "inf"
+              }
+            }
+            """;
+
+    private static final long MAINTENANCE_INTERVAL_SECONDS = 30;
+
+    private final RealtimeProperties properties;
+
+    @Value("${OPENAI_API_KEY}")
+    private String openAiApiKey;
+
+    private final Deque<WarmSocket> idle = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger warming = new AtomicInteger();
+    private final ScheduledExecutorService maintenance = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "openai-realtime-pool");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private HttpClient httpClient;
+    private URI realtimeUri;
+    private volatile boolean shuttingDown;
+
+    @PostConstruct
+    void init() {
+        realtimeUri = URI.create(properties.getUpstream().getUri());
+        httpClient = HttpClient.newBuilder()
+                .connectTimeout(connectTimeout())
+                .build();
+        maintenance.scheduleWithFixedDelay(this::evictAndRefill,
+                MAINTENANCE_INTERVAL_SECONDS, MAINTENANCE_INTERVAL_SECONDS, TimeUnit.SECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void warmUp() {
+        scheduleRefill();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        shuttingDown = true;
+        maintenance.shutdownNow();
+        WarmSocket socket;
+        while ((socket = idle.pollFirst()) != null) {
+            socket.close("shutdown");
+        }
+    }
+
+    /**
+     * session.update가 끝난 업스트림 소켓을 listener에 연결해 반환한다.
+     * 미리 열어 둔 소켓이 있으면 즉시 완료되고, 없으면 새로 연결한다.
+     * listener는 onText/onBinary에서 직접 request(1)을 호출해야 하며, onOpen은 호출되지 않는다.
+     * 서버가 종료 중이면 실패한 future를 반환한다.
+     */
+    public CompletableFuture<WebSocket> acquire(WebSocket.Listener listener) {
+        if (shuttingDown) {
+            return CompletableFuture.failedFuture(new IllegalStateException("realtime upstream unavailable: shutting down"));
+        }
+        WarmSocket warm;
+        while ((warm = idle.pollFirst()) != null) {
+            if (warm.isUsable(maxIdleMillis()) && warm.relay.attach(listener)) {
+                log.debug("[RealtimeUpstream] warm socket handed out (idle={}ms, remaining={})",
+                        System.currentTimeMillis() - warm.openedAtMillis, idle.size());
+                scheduleRefill();
+                return CompletableFuture.completedFuture(warm.webSocket);
+            }
+            warm.close("stale");
+        }
+
+        scheduleRefill();
+        RelayListener relay = new RelayListener();
+        relay.attach(listener);
+        return open(relay);
+    }
+
+    private CompletableFuture<WebSocket> open(RelayListener relay) {
+        return httpClient.newWebSocketBuilder()
+                .header("Authorization", "Bearer " + openAiApiKey)
+                .header("OpenAI-Beta", "realtime=v1")
+                .connectTimeout(connectTimeout())
+                .buildAsync(realtimeUri, relay)
+                .thenCompose(ws -> relay.configured);
+    }
+
+    private void scheduleRefill() {
+        try {
+            maintenance.execute(this::refill);
+        } catch (RejectedExecutionException e) {
+            // 종료 중 (acquire가 shuttingDown을 본 뒤 종료가 시작된 경우)
+        }
+    }
+
+    private synchronized void refill() {
+        if (shuttingDown) return;
+        int deficit = properties.getUpstream().getPoolSize() - idle.size() - warming.get();
+        for (int i = 0; i < deficit; i++) {
+            warming.incrementAndGet();
+            RelayListener relay = new RelayListener();
+            open(relay).whenComplete((ws, err) -> {
+                warming.decrementAndGet();
+                if (err != null) {
+                    log.warn("[RealtimeUpstream] warm-up connect failed: {}", err.getMessage());
+                    return;
+                }
+                WarmSocket socket = new WarmSocket(ws, relay, System.currentTimeMillis());
+                if (shuttingDown) {
+                    socket.close("shutdown");
+                    return;
+                }
+                idle.addLast(socket);
+            });
+        }
+    }
+
+    private void evictAndRefill() {
+        try {
+            long maxIdle = maxIdleMillis();
+            idle.removeIf(socket -> {
+                if (socket.isUsable(maxIdle)) return false;
+                socket.close("idle timeout");
+                return true;
+            });
+            refill();
+        } catch (Exception e) {
+            log.warn("[RealtimeUpstream] pool maintenance failed: {}", e.getMessage());
+        }
+    }
+
+    private Duration connectTimeout() {
+        return Duration.ofSeconds(properties.getUpstream().getConnectTimeoutSeconds());
+    }
+
+    private long maxIdleMillis() {
+        return TimeUnit.SECONDS.toMillis(properties.getUpstream().getMaxIdleSeconds());
+    }
+
+    private record WarmSocket(WebSocket webSocket, RelayListener relay, long openedAtMillis) {
+
+        boolean isUsable(long maxIdleMillis) {
+            return !relay.isClosed()
+                    && !webSocket.isOutputClosed()
+                    && !webSocket.isInputClosed()
+                    && System.currentTimeMillis() - openedAtMillis < maxIdleMillis;
+        }
+
+        void close(String reason) {
+            relay.markClosed();
+            try {
+                webSocket.sendClose(WebSocket.NORMAL_CLOSURE, reason);
+            } catch (Exception ignored) {
+            }
+        }
+    }
+
+    /**
+     * 소켓이 세션에 배정되기 전까지는 이벤트(session.created/updated 등)를 직접 소비하고,
+     * 배정된 뒤에는 세션의 listener로 그대로 넘긴다.
+     */
+    private static final class RelayListener implements WebSocket.Listener {
+        private final CompletableFuture<WebSocket> configured = new CompletableFuture<>();
+        private volatile WebSocket.Listener target;
+        private volatile boolean closed;
+
+        synchronized boolean attach(WebSocket.Listener listener) {
+            if (closed) return false;
+            this.target = listener;
+            return true;
+        }
+
+        synchronized WebSocket.Listener markClosed() {
+            closed = true;
+            return target;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        @Override
+        public void onOpen(WebSocket webSocket) {
+            webSocket.sendText(SESSION_CONFIG, true).whenComplete((ws, err) -> {
+                if (err != null) {
+                    configured.completeExceptionally(err);
+                } else {
+                    configured.complete(ws);
+                }
+            });
+            webSocket.request(1);
+        }
+
+        @Override
+        public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
+            WebSocket.Listener t = target;
+            if (t != null) return t.onText(webSocket, data, last);
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public CompletionStage<?> onBinary(WebSocket webSocket, ByteBuffer data, boolean last) {
+            WebSocket.Listener t = target;
+            if (t != null) return t.onBinary(webSocket, data, last);
+            webSocket.request(1);
+            return null;
+        }
+
+        @Override
+        public void onError(WebSocket webSocket, Throwable error) {
+            configured.completeExceptionally(error);
+            WebSocket.Listener t = markClosed();
+            if (t != null) t.onError(webSocket, error);
+        }
+
+        @Override
+        public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
+            configured.completeExceptionally(new IllegalStateException("closed before configured: " + statusCode));
+            WebSocket.Listener t = markClosed();
+            if (t != null) return t.onClose(webSocket, statusCode, reason);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.RealtimeEvent.Field;
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.util.EnumSet;
+
+/**
+ * OpenAI Realtime 서버 이벤트 → 중계 동작 표.
+ *
+ * 예전 handleOpenAiText의 if/else 순서를 그대로 따른다.
+ * 1. type이 error이거나 error 필드가 있으면 (어떤 이벤트든) 오류
+ * 2. speech_started / speech_stopped / transcription.completed / transcription.failed
+ * 3. type에 output_text.delta, audio_transcript.delta가 들어 있으면 부분 전사
+ * 4. type에 output_text.done, audio_transcript.done, response.done이 들어 있으면 모은 부분 전사를 최종으로
+ * 5. 그 밖의 이벤트에 문자열 content가 있으면 최종 전사
+ * 표에 없는 이벤트(conversation.item.input_audio_transcription.delta 등)는 클라이언트로 아무것도 보내지 않는다.
+ */
+final class OpenAiRealtimeEvents {
+
+    static final String TRANSCRIPTION_FAILED = "conversation.item.input_audio_transcription.failed";
+
+    private OpenAiRealtimeEvents() {
+    }
+
+    interface Handler<C> {
+
+        /**
+         * 오류 이벤트. transcription.failed면 event.itemId도 채워져 있다.
+         */
+        void onError(C ctx, RealtimeEvent event);
+
+        /**
+         * error 필드 없이 온 transcription.failed (로그만 남긴다)
+         */
+        void onTranscriptionFailed(C ctx, RealtimeEvent event);
+
+        void onSpeechStarted(C ctx, RealtimeEvent event);
+
+        void onSpeechStopped(C ctx, RealtimeEvent event);
+
+        void onTranscriptionCompleted(C ctx, RealtimeEvent event);
+
+        void onTranscriptDelta(C ctx, RealtimeEvent event);
+
+        void onTranscriptDone(C ctx, RealtimeEvent event);
+
+        /**
+         * 비어 있지 않은 문자열 content가 있는 기타 이벤트
+         */
+        void onContent(C ctx, RealtimeEvent event);
+    }
+
+    static <C> RealtimeEventDispatcher<C> dispatcher(JsonFactory jsonFactory, Handler<C> handler) {
+        EnumSet<Field> deltaFields = EnumSet.of(Field.DELTA, Field.TEXT, Field.CONTENT);
+        EnumSet<Field> none = EnumSet.noneOf(Field.class);
+        return RealtimeEventDispatcher.<C>builder(jsonFactory)
+                .onError(handler::onError)
+                .on(TRANSCRIPTION_FAILED, EnumSet.of(Field.ITEM_ID), handler::onTranscriptionFailed)
+                .on("input_audio_buffer.speech_started", none, handler::onSpeechStarted)
+                .on("input_audio_buffer.speech_stopped", EnumSet.of(Field.ITEM_ID, Field.AUDIO_END_MS),
+                        handler::onSpeechStopped)
+                .on("conversation.item.input_audio_transcription.completed", EnumSet.of(Field.ITEM_ID, Field.TRANSCRIPT),
+                        handler::onTranscriptionCompleted)
+                .onContaining("output_text.delta", deltaFields, handler::onTranscriptDelta)
+                .onContaining("audio_transcript.delta", deltaFields, handler::onTranscriptDelta)
+                .onContaining("output_text.done", none, handler::onTranscriptDone)
+                .onContaining("audio_transcript.done", none, handler::onTranscriptDone)
+                .onContaining("response.done", none, handler::onTranscriptDone)
+                .otherwise(EnumSet.of(Field.CONTENT), (ctx, event) -> {
+                    if (event.content != null && !event.content.isEmpty()) {
+                        handler.onContent(ctx, event);
+                    }
+                })
+                .build();
+    }
+}
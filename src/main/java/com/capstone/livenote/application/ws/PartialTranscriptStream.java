@@ -0,0 +1,101 @@
+package com.capstone.livenote.application.ws;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 발화 하나의 부분 전사를 모으고, 클라이언트로 내보내는 빈도를 세션당 최대 maxPerSecond로 제한한다.
+ *
+ * delta가 들어올 때마다 보내지 않고, 직전 전송 후 간격이 차지 않았으면 모아 두었다가 간격이 차는 시점에 한 번 보낸다.
+ * - 누적 모드: 지금까지 모인 전체 문장을 보낸다 (기존 형식)
+ * - delta 모드: 마지막 전송 이후 덧붙은 부분만 offset(발화 내 문자 위치)과 함께 보낸다
+ * OpenAI 리스너 스레드와 타이머 스레드가 함께 부르므로 모든 메서드는 synchronized.
+ */
+final class PartialTranscriptStream {
+
+    interface Sink {
+        /**
+         * @param text   delta 모드면 새로 덧붙은 부분, 누적 모드면 전체 문장
+         * @param offset delta 모드에서 text가 시작하는 발화 내 위치 (누적 모드는 0)
+         * @param seq    세션 안에서 1씩 증가하는 부분 전사 번호
+         */
+        void send(String text, int offset, long seq);
+    }
+
+    private final boolean deltaMode;
+    private final long minIntervalMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Sink sink;
+
+    private final StringBuilder buffer = new StringBuilder();
+    private int sentChars;         // delta 모드에서 이미 보낸 문자 수
+    private boolean dirty;         // 마지막 전송 이후 바뀐 내용이 있다
+    private boolean flushScheduled;
+    private long lastSentMillis;
+    private long seq;
+
+    /**
+     * @param maxPerSecond 초당 최대 부분 전사 전송 수 (0 이하이면 제한 없음)
+     */
+    PartialTranscriptStream(boolean deltaMode, int maxPerSecond, ScheduledExecutorService scheduler, Sink sink) {
+        this.deltaMode = deltaMode;
+        this.minIntervalMillis = maxPerSecond <= 0 ? 0 : 1000L / maxPerSecond;
+        this.scheduler = scheduler;
+        this.sink = sink;
+    }
+
+    synchronized void append(String delta) {
+        if (delta.isEmpty()) return;
+        buffer.append(delta);
+        dirty = true;
+        long wait = lastSentMillis + minIntervalMillis - System.currentTimeMillis();
+        if (wait <= 0) {
+            emit();
+        } else if (!flushScheduled) {
+            flushScheduled = true;
+            try {
+                scheduler.schedule(this::flushDeferred, wait, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                flushScheduled = false;
+                emit();
+            }
+        }
+    }
+
+    /**
+     * 모은 문장을 최종 전사로 가져가고 다음 발화를 위해 비운다. 아직 보내지 않은 부분 전사는 버린다.
+     */
+    synchronized String takeFinal() {
+        String text = buffer.toString();
+        reset();
+        return text;
+    }
+
+    /**
+     * 새 발화 시작: 모은 문장을 버린다.
+     */
+    synchronized void reset() {
+        buffer.setLength(0);
+        sentChars = 0;
+        dirty = false;
+    }
+
+    private synchronized void flushDeferred() {
+        flushScheduled = false;
+        if (dirty) emit();
+    }
+
+    private void emit() {
+        dirty = false;
+        lastSentMillis = System.currentTimeMillis();
+        seq++;
+        if (deltaMode) {
+            int offset = sentChars;
+            sentChars = buffer.length();
+            sink.send(buffer.substring(offset), offset, seq);
+        } else {
+            sink.send(buffer.toString(), 0, seq);
+        }
+    }
+}
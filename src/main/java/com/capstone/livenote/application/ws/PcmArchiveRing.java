@@ -0,0 +1,83 @@
+package com.capstone.livenote.application.ws;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 생산자 하나(웹소켓 수신 스레드)와 소비자 하나(기록 스레드)가 락 없이 주고받는 PCM 링 버퍼 (off-heap).
+ *
+ * 생산자는 tail만, 소비자는 head만 움직이고 각자 상대 위치를 읽어 남은 공간/데이터를 계산한다.
+ * 위치는 lazySet으로 공개하므로 바이트 복사가 끝난 뒤에야 상대편에 보인다.
+ * 공간이 모자라면 기다리지 않고 그 프레임을 통째로 버린다.
+ */
+final class PcmArchiveRing {
+
+    private final ByteBuffer ring;
+    private final int capacity;
+
+    private final AtomicLong head = new AtomicLong(); // 소비자가 읽은 총 바이트
+    private final AtomicLong tail = new AtomicLong(); // 생산자가 쓴 총 바이트
+    private final AtomicLong droppedBytes = new AtomicLong();
+
+    PcmArchiveRing(int capacity) {
+        if (capacity <= 0) throw new IllegalArgumentException("capacity must be positive");
+        this.capacity = capacity;
+        this.ring = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * src의 남은 바이트를 복사해 넣는다. src의 position은 바꾸지 않는다.
+     *
+     * @return 공간이 모자라 버렸으면 false
+     */
+    boolean offer(ByteBuffer src) {
+        int n = src.remaining();
+        if (n == 0) return true;
+        long t = tail.get();
+        if (n > capacity - (t - head.get())) {
+            droppedBytes.addAndGet(n);
+            return false;
+        }
+        int index = (int) (t % capacity);
+        int first = Math.min(n, capacity - index);
+        ring.put(index, src, src.position(), first);
+        if (first < n) {
+            ring.put(0, src, src.position() + first, n - first);
+        }
+        tail.lazySet(t + n);
+        return true;
+    }
+
+    /**
+     * 쌓인 바이트를 최대 length만큼 꺼내 dst에 복사한다.
+     *
+     * @return 꺼낸 바이트 수
+     */
+    int poll(byte[] dst, int offset, int length) {
+        long h = head.get();
+        int n = (int) Math.min(length, tail.get() - h);
+        if (n <= 0) return 0;
+        int index = (int) (h % capacity);
+        int first = Math.min(n, capacity - index);
+        ring.get(index, dst, offset, first);
+        if (first < n) {
+            ring.get(0, dst, offset + first, n - first);
+        }
+        head.lazySet(h + n);
+        return n;
+    }
+
+    /**
+     * 아직 꺼내지 않은 바이트 수
+     */
+    long available() {
+        return tail.get() - head.get();
+    }
+
+    /**
+     * 공간이 모자라 버린 누적 바이트
+     */
+    long droppedBytes() {
+        return droppedBytes.get();
+    }
+}
@@ -0,0 +1,227 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.audio.storage.AudioStorage;
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * /ws/transcription으로 받은 PCM을 나중에 다시 전사할 수 있도록 AudioStorage에 남긴다 (write-behind).
+ *
+ * 수신 스레드는 세션별 락 없는 링 버퍼에 프레임을 복사만 하고 바로 돌아간다.
+ * 기록 스레드 하나가 링 버퍼를 돌며 blockSeconds 분량씩 묶어 순차 기록하고, 블록마다 fsync한다.
+ * 기록이 밀려 링 버퍼가 차면 새 프레임을 버리고 realtime.audio.archive.dropped 로 집계한다.
+ * 버린 구간은 같은 길이의 무음으로 채워 파일 위치가 곧 시각이 되게 한다.
+ *
+ * 보관본은 업로드 청크와 섞이지 않도록 AudioStorage 디렉터리 아래 realtime-pcm(archive.dir)에
+ * 세션마다 {lectureId}_{시작 초}_{세션 id}.pcm (헤더 없는 PCM16 24kHz mono) 파일 하나로 남긴다.
+ */
+@Component
+@Slf4j
+public class PcmArchiver {
+
+    static final String ARCHIVE_DIR = "realtime-pcm";
+
+    private static final int PCM_BYTES_PER_SEC = RealtimeTranscriptionWebSocketHandler.PCM_BYTES_PER_MS * 1000;
+
+    private final AudioStorage storage;
+    private final RealtimeProperties.Archive properties;
+    private Path dir;
+    private final RealtimeRelayMetrics metrics;
+    private final int blockBytes;
+    private final Set<Recording> recordings = ConcurrentHashMap.newKeySet();
+    private final Thread writer;
+    private volatile boolean running = true;
+
+    public PcmArchiver(AudioStorage storage, RealtimeProperties properties, RealtimeRelayMetrics metrics) {
+        this.storage = storage;
+        this.properties = properties.getArchive();
+        this.metrics = metrics;
+        this.blockBytes = Math.max(1, this.properties.getBlockSeconds()) * PCM_BYTES_PER_SEC;
+        if (!this.properties.isEnabled()) {
+            this.writer = null;
+            return;
+        }
+        if (this.properties.getRingBytes() < blockBytes * 2) {
+            throw new IllegalArgumentException("archive ring must hold at least two blocks: "
+                    + this.properties.getRingBytes() + " < " + blockBytes * 2);
+        }
+        metrics.archiveGauges(this);
+        this.writer = new Thread(this::runWriter, "realtime-pcm-archive");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * 세션 오디오 기록을 시작한다. 꺼져 있으면 null.
+     *
+     * @param startSec  세션 첫 프레임의 강의 기준 시각(초)
+     * @param sessionId 같은 강의의 다른 세션과 파일을 나누는 값 (WebSocket 세션 id)
+     */
+    Recording open(Long lectureId, int startSec, String sessionId) {
+        if (writer == null || !running) return null;
+        String name = lectureId + "_" + startSec + "_" + sessionId.replaceAll("[^A-Za-z0-9-]", "") + ".pcm";
+        Recording recording = new Recording(lectureId, name, new PcmArchiveRing(properties.getRingBytes()));
+        recordings.add(recording);
+        return recording;
+    }
+
+    private Path dir() throws IOException {
+        if (dir == null) {
+            dir = properties.getDir() == null || properties.getDir().isBlank()
+                    ? storage.root().resolve(ARCHIVE_DIR)
+                    : Paths.get(properties.getDir());
+            Files.createDirectories(dir);
+        }
+        return dir;
+    }
+
+    /**
+     * 아직 기록하지 못한 PCM 바이트 (모든 세션 합계)
+     */
+    long pendingBytes() {
+        long sum = 0;
+        for (Recording r : recordings) sum += r.ring.available();
+        return sum;
+    }
+
+    /**
+     * 종료 시 링 버퍼에 남은 오디오를 가능한 한 기록하고 내려간다.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (writer == null) return;
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(properties.getShutdownTimeoutSeconds()));
+        if (writer.isAlive()) {
+            log.warn("[PcmArchive] shutdown timed out, pending={}B", pendingBytes());
+        }
+    }
+
+    private void runWriter() {
+        byte[] block = new byte[blockBytes];
+        long intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, properties.getFlushIntervalMs()));
+        while (running) {
+            drain(block, false);
+            LockSupport.parkNanos(this, intervalNanos);
+        }
+        drain(block, true);
+    }
+
+    private void drain(byte[] block, boolean shuttingDown) {
+        for (Recording r : recordings) {
+            // finished를 먼저 읽어야 그 전에 넣은 프레임까지 모두 보인다
+            boolean last = r.finished || shuttingDown;
+            while (r.ring.available() >= block.length || (last && r.ring.available() > 0)) {
+                write(r, block, r.ring.poll(block, 0, block.length));
+            }
+            if (last) {
+                recordings.remove(r);
+                r.closeFile();
+            }
+        }
+    }
+
+    private void write(Recording r, byte[] block, int n) {
+        try {
+            FileChannel channel = r.file();
+            // 버린 구간은 무음으로 채운다 (버린 위치는 블록 단위로 근사)
+            long dropped = r.ring.droppedBytes();
+            writeSilence(channel, dropped - r.droppedSeen);
+            r.droppedSeen = dropped;
+            writeFully(channel, ByteBuffer.wrap(block, 0, n));
+            channel.force(false);
+            metrics.archiveWritten(n);
+        } catch (IOException e) {
+            log.warn("[PcmArchive] write failed lectureId={} file={} bytes={} err={}",
+                    r.lectureId, r.fileName, n, e.getMessage());
+            metrics.archiveDropped("write-error", n);
+        }
+    }
+
+    private static void writeSilence(FileChannel channel, long bytes) throws IOException {
+        ByteBuffer zeros = ByteBuffer.allocate((int) Math.min(bytes, 64 * 1024));
+        while (bytes > 0) {
+            zeros.clear().limit((int) Math.min(bytes, zeros.capacity()));
+            bytes -= zeros.remaining();
+            writeFully(channel, zeros);
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+    }
+
+    /**
+     * 세션 하나의 기록 핸들. offer/finish는 세션 수신 순서대로(한 번에 한 스레드) 불러야 한다.
+     */
+    final class Recording {
+        private final Long lectureId;
+        private final String fileName;
+        private final PcmArchiveRing ring;
+        private volatile boolean finished;
+
+        // 기록 스레드 전용
+        private FileChannel channel;
+        private long droppedSeen;
+
+        private Recording(Long lectureId, String fileName, PcmArchiveRing ring) {
+            this.lectureId = lectureId;
+            this.fileName = fileName;
+            this.ring = ring;
+        }
+
+        private FileChannel file() throws IOException {
+            if (channel == null) {
+                channel = FileChannel.open(dir().resolve(fileName),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+            }
+            return channel;
+        }
+
+        private void closeFile() {
+            if (channel == null) return;
+            try {
+                channel.close();
+            } catch (IOException e) {
+                log.warn("[PcmArchive] close failed file={} err={}", fileName, e.getMessage());
+            }
+            channel = null;
+        }
+
+        /**
+         * 프레임을 복사해 넣는다. 절대 기다리지 않으며 frame의 position은 바꾸지 않는다.
+         */
+        void offer(ByteBuffer frame) {
+            if (finished) return;
+            int n = frame.remaining();
+            if (!ring.offer(frame)) {
+                metrics.archiveDropped("overflow", n);
+            }
+        }
+
+        /**
+         * 세션이 끝났음을 알린다. 남은 분량은 기록 스레드가 마저 기록한다.
+         */
+        void finish() {
+            finished = true;
+            LockSupport.unpark(writer);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.capstone.livenote.application.ws;
+
+/**
+ * OpenAI Realtime 서버 이벤트에서 중계에 필요한 필드만 뽑아 둔 값.
+ * 이벤트 타입별로 필요한 필드만 채워지며, 나머지는 null(또는 -1)이다.
+ */
+final class RealtimeEvent {
+
+    /**
+     * 이벤트 핸들러가 요청할 수 있는 최상위 필드
+     */
+    enum Field {
+        ITEM_ID,
+        AUDIO_END_MS,
+        DELTA,
+        TRANSCRIPT,
+        TEXT,
+        CONTENT,
+        ERROR;
+
+        final int bit = 1 << ordinal();
+    }
+
+    String type = "";
+    String itemId;
+    long audioEndMs = -1;
+    String delta;
+    String transcript;
+    String text;
+    String content;       // 문자열인 content
+    String contentParts;  // 배열인 content의 문자열 요소를 이어 붙인 값
+    boolean hasError;
+    String errorMessage;  // error.message
+
+    /**
+     * 부분 전사 텍스트: delta → text → content 배열 순 (기존 extractDelta와 같은 우선순위)
+     */
+    String deltaText() {
+        if (delta != null) return delta;
+        if (text != null) return text;
+        if (contentParts != null) return contentParts;
+        return "";
+    }
+
+    /**
+     * error.message가 없으면 이벤트 타입을 오류 메시지로 쓴다
+     */
+    String errorMessageOrType() {
+        if (errorMessage != null) return errorMessage;
+        return type.isEmpty() ? "openai error" : type;
+    }
+}
@@ -0,0 +1,254 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.RealtimeEvent.Field;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * OpenAI Realtime 서버 이벤트를 트리(JsonNode)로 만들지 않고 스트리밍 JsonParser로 읽어 타입별 핸들러로 보낸다.
+ *
+ * type을 읽는 순간 핸들러가 정해지고, 그 뒤로는 핸들러가 요청한 필드만 값으로 꺼내며 나머지는 건너뛴다.
+ * 필요한 필드를 모두 읽으면 남은 본문은 파싱하지 않는다. (type보다 앞에 오는 필드는 후보로 모두 읽어 둔다)
+ * 타입 → 핸들러 매핑은 정확히 일치 → 부분 문자열(등록 순서) → 기본 핸들러 순으로 정하고 결과를 캐시한다.
+ * 오류 핸들러를 등록하면 type이 error이거나 error 필드가 있는 이벤트는 type과 관계없이 오류 핸들러로 간다.
+ * 이때 error 필드가 있는지 알아야 하므로 모든 이벤트를 끝까지 훑는다 (필요 없는 값은 여전히 건너뛴다).
+ */
+final class RealtimeEventDispatcher<C> {
+
+    // 서버가 보내는 타입 종류는 수십 개 수준이지만, 이상 입력으로 캐시가 무한히 커지지 않게 막는다
+    private static final int MAX_CACHED_TYPES = 256;
+    private static final int ALL_FIELDS = (1 << Field.values().length) - 1;
+
+    private final JsonFactory jsonFactory;
+    private final Map<String, Route<C>> exact;
+    private final List<Map.Entry<String, Route<C>>> containing;
+    private final Route<C> fallback;
+    private final BiConsumer<C, RealtimeEvent> errorHandler;
+    private final int alwaysWant;
+    private final ConcurrentHashMap<String, Route<C>> resolved = new ConcurrentHashMap<>();
+
+    private RealtimeEventDispatcher(Builder<C> builder) {
+        this.jsonFactory = builder.jsonFactory;
+        this.exact = Map.copyOf(builder.exact);
+        this.containing = List.copyOf(builder.containing);
+        this.fallback = builder.fallback;
+        this.errorHandler = builder.errorHandler;
+        this.alwaysWant = errorHandler != null ? Field.ERROR.bit : 0;
+    }
+
+    static <C> Builder<C> builder(JsonFactory jsonFactory) {
+        return new Builder<>(jsonFactory);
+    }
+
+    /**
+     * 이벤트 하나를 파싱해 핸들러를 호출한다.
+     *
+     * @return 파싱한 이벤트 (JSON 객체가 아니면 null)
+     */
+    RealtimeEvent dispatch(C ctx, String json) throws IOException {
+        RealtimeEvent event = new RealtimeEvent();
+        Route<C> route = parse(json, event);
+        if (route == null) return null;
+        if (errorHandler != null && (event.hasError || "error".equalsIgnoreCase(event.type))) {
+            errorHandler.accept(ctx, event);
+        } else if (route.handler != null) {
+            route.handler.accept(ctx, event);
+        }
+        return event;
+    }
+
+    private Route<C> parse(String json, RealtimeEvent event) throws IOException {
+        try (JsonParser p = jsonFactory.createParser(json)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return null;
+            Route<C> route = null;
+            int want = ALL_FIELDS;
+            int found = 0;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken token = p.nextToken();
+                if ("type".equals(name)) {
+                    event.type = token.isScalarValue() ? p.getValueAsString("") : "";
+                    p.skipChildren();
+                    route = resolve(event.type);
+                    want = route.fields | alwaysWant;
+                } else {
+                    Field field = fieldOf(name);
+                    if (field != null && (want & field.bit) != 0 && read(p, token, field, event)) {
+                        found |= field.bit;
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+                if (route != null && (found & want) == want) break;
+            }
+            return route != null ? route : resolve("");
+        }
+    }
+
+    private Route<C> resolve(String type) {
+        Route<C> route = resolved.get(type);
+        if (route != null) return route;
+        route = exact.get(type);
+        if (route == null) {
+            route = fallback;
+            for (Map.Entry<String, Route<C>> entry : containing) {
+                if (type.contains(entry.getKey())) {
+                    route = entry.getValue();
+                    break;
+                }
+            }
+        }
+        if (resolved.size() < MAX_CACHED_TYPES) {
+            resolved.putIfAbsent(type, route);
+        }
+        return route;
+    }
+
+    private static Field fieldOf(String name) {
+        switch (name) {
+            case "item_id": return Field.ITEM_ID;
+            case "audio_end_ms": return Field.AUDIO_END_MS;
+            case "delta": return Field.DELTA;
+            case "transcript": return Field.TRANSCRIPT;
+            case "text": return Field.TEXT;
+            case "content": return Field.CONTENT;
+            case "error": return Field.ERROR;
+            default: return null;
+        }
+    }
+
+    /**
+     * @return 값을 읽었으면 true. 타입이 맞지 않아 읽지 않았으면 false (호출자가 건너뛴다)
+     */
+    private static boolean read(JsonParser p, JsonToken token, Field field, RealtimeEvent event) throws IOException {
+        switch (field) {
+            case ITEM_ID:
+                if (token != JsonToken.VALUE_STRING) return false;
+                event.itemId = p.getText();
+                return true;
+            case AUDIO_END_MS:
+                if (!token.isNumeric()) return false;
+                event.audioEndMs = p.getValueAsLong(-1);
+                return true;
+            case DELTA:
+                if (token != JsonToken.VALUE_STRING) return false;
+                event.delta = p.getText();
+                return true;
+            case TRANSCRIPT:
+                if (!token.isScalarValue()) return false;
+                event.transcript = p.getValueAsString("");
+                return true;
+            case TEXT:
+                if (token != JsonToken.VALUE_STRING) return false;
+                event.text = p.getText();
+                return true;
+            case CONTENT:
+                if (token == JsonToken.START_ARRAY) {
+                    StringBuilder sb = new StringBuilder();
+                    JsonToken element;
+                    while ((element = p.nextToken()) != JsonToken.END_ARRAY) {
+                        if (element == JsonToken.VALUE_STRING) {
+                            sb.append(p.getText());
+                        } else {
+                            p.skipChildren();
+                        }
+                    }
+                    event.contentParts = sb.toString();
+                    return true;
+                }
+                if (!token.isScalarValue()) return false;
+                event.content = p.getValueAsString("");
+                return true;
+            case ERROR:
+                event.hasError = true;
+                if (token == JsonToken.START_OBJECT) {
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String name = p.currentName();
+                        JsonToken value = p.nextToken();
+                        if ("message".equals(name) && value.isScalarValue()) {
+                            event.errorMessage = p.getValueAsString();
+                        } else {
+                            p.skipChildren();
+                        }
+                    }
+                } else {
+                    p.skipChildren();
+                }
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static final class Route<C> {
+        private final int fields;
+        private final BiConsumer<C, RealtimeEvent> handler;
+
+        private Route(Set<Field> fields, BiConsumer<C, RealtimeEvent> handler) {
+            int mask = 0;
+            for (Field field : fields) mask |= field.bit;
+            this.fields = mask;
+            this.handler = handler;
+        }
+    }
+
+    static final class Builder<C> {
+        private final JsonFactory jsonFactory;
+        private final Map<String, Route<C>> exact = new HashMap<>();
+        private final List<Map.Entry<String, Route<C>>> containing = new ArrayList<>();
+        private Route<C> fallback = new Route<>(EnumSet.noneOf(Field.class), null);
+        private BiConsumer<C, RealtimeEvent> errorHandler;
+
+        private Builder(JsonFactory jsonFactory) {
+            this.jsonFactory = jsonFactory;
+        }
+
+        /**
+         * type이 정확히 일치하는 이벤트
+         */
+        Builder<C> on(String type, Set<Field> fields, BiConsumer<C, RealtimeEvent> handler) {
+            exact.put(type, new Route<>(fields, handler));
+            return this;
+        }
+
+        /**
+         * type에 fragment가 들어 있는 이벤트 (정확히 일치하는 핸들러가 없을 때, 등록 순서대로 검사)
+         */
+        Builder<C> onContaining(String fragment, Set<Field> fields, BiConsumer<C, RealtimeEvent> handler) {
+            containing.add(Map.entry(fragment, new Route<>(fields, handler)));
+            return this;
+        }
+
+        /**
+         * 어느 핸들러에도 해당하지 않는 이벤트
+         */
+        Builder<C> otherwise(Set<Field> fields, BiConsumer<C, RealtimeEvent> handler) {
+            fallback = new Route<>(fields, handler);
+            return this;
+        }
+
+        /**
+         * type이 error(대소문자 무시)이거나 error 필드가 있는 이벤트. type별 핸들러보다 먼저 적용되며,
+         * 핸들러에는 type별 핸들러가 요청한 필드와 error가 채워진 이벤트가 온다.
+         */
+        Builder<C> onError(BiConsumer<C, RealtimeEvent> handler) {
+            errorHandler = handler;
+            return this;
+        }
+
+        RealtimeEventDispatcher<C> build() {
+            return new RealtimeEventDispatcher<>(this);
+        }
+    }
+}
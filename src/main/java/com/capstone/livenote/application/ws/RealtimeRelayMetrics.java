@@ -0,0 +1,179 @@
+package com.capstone.livenote.application.ws;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /ws/transcription 중계 지표 (/actuator/metrics 에서 조회)
+ */
+@Component
+public class RealtimeRelayMetrics {
+
+    private final MeterRegistry registry;
+    private final Counter backlogDroppedBytes;
+    private final Timer reconnectTimer;
+    private final Counter reconnectGaveUp;
+    private final Counter silenceDroppedBytes;
+    private final Counter clientEvictions;
+    private final Counter admissionRejectedFull;
+    private final Counter admissionRejectedTimeout;
+    private final Counter archiveWrittenBytes;
+    private final Counter archiveDroppedOverflow;
+    private final Counter archiveDroppedWriteError;
+
+    public RealtimeRelayMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.backlogDroppedBytes = Counter.builder("realtime.audio.backlog.dropped")
+                .description("백로그가 가득 차 버려진 PCM 바이트")
+                .baseUnit("bytes")
+                .register(registry);
+        this.reconnectTimer = Timer.builder("realtime.upstream.reconnect")
+                .description("OpenAI 소켓이 끊긴 뒤 다시 연결될 때까지 걸린 시간")
+                .register(registry);
+        this.reconnectGaveUp = Counter.builder("realtime.upstream.reconnect.gave-up")
+                .description("재연결을 포기하고 닫은 세션 수")
+                .register(registry);
+        this.clientEvictions = Counter.builder("realtime.client.evicted")
+                .description("전송 버퍼/시간 한도를 넘겨 닫은 브라우저 세션 수")
+                .register(registry);
+        this.silenceDroppedBytes = Counter.builder("realtime.audio.gate.dropped")
+                .description("무음으로 판단해 OpenAI로 보내지 않은 PCM 바이트 (pre-roll로 나중에 보낸 분량 포함)")
+                .baseUnit("bytes")
+                .register(registry);
+        this.admissionRejectedFull = admissionRejected(registry, "full");
+        this.admissionRejectedTimeout = admissionRejected(registry, "timeout");
+        this.archiveWrittenBytes = Counter.builder("realtime.audio.archive.written")
+                .description("보관용으로 AudioStorage에 기록한 PCM 바이트")
+                .baseUnit("bytes")
+                .register(registry);
+        this.archiveDroppedOverflow = archiveDropped(registry, "overflow");
+        this.archiveDroppedWriteError = archiveDropped(registry, "write-error");
+    }
+
+    private static Counter archiveDropped(MeterRegistry registry, String reason) {
+        return Counter.builder("realtime.audio.archive.dropped")
+                .description("보관하지 못한 PCM 바이트 (overflow: 링 버퍼 가득 참, write-error: 저장 실패)")
+                .baseUnit("bytes")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    private static Counter admissionRejected(MeterRegistry registry, String reason) {
+        return Counter.builder("realtime.admission.rejected")
+                .description("동시 세션 한도로 거절한 연결 수 (full: 대기열도 가득 참, timeout: 대기 중 시간 초과)")
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * 노드 단위 입장 제어 지표를 등록한다.
+     */
+    void admissionGauges(RelayAdmission admission) {
+        Gauge.builder("realtime.admission.active", admission, RelayAdmission::active)
+                .description("자리를 받아 중계 중인 세션 수")
+                .register(registry);
+        Gauge.builder("realtime.admission.queued", admission, RelayAdmission::queued)
+                .description("자리가 나기를 기다리는 세션 수")
+                .register(registry);
+    }
+
+    /**
+     * 오디오 보관 대기량 지표를 등록한다.
+     */
+    void archiveGauges(PcmArchiver archiver) {
+        Gauge.builder("realtime.audio.archive.pending", archiver, PcmArchiver::pendingBytes)
+                .description("링 버퍼에 쌓여 아직 기록하지 못한 PCM 바이트")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * 세션별 지표를 등록한다. 세션이 끝나면 반환된 핸들로 해제해야 한다.
+     */
+    SessionMeters sessionMeters(String sessionId, Long lectureId, SessionContext ctx) {
+        SessionMeters meters = new SessionMeters(registry);
+        String lecture = String.valueOf(lectureId);
+        meters.add(Gauge.builder("realtime.audio.backlog", ctx, SessionContext::backlogBytes)
+                .description("OpenAI로 아직 보내지 못한 PCM 바이트")
+                .baseUnit("bytes")
+                .tag("session", sessionId)
+                .tag("lectureId", lecture)
+                .register(registry));
+        meters.add(Gauge.builder("realtime.audio.gate.dropped.ratio", ctx, SessionContext::silenceDroppedRatio)
+                .description("무음으로 걸러진 프레임 비율")
+                .tag("session", sessionId)
+                .tag("lectureId", lecture)
+                .register(registry));
+        meters.add(FunctionCounter.builder("realtime.upstream.session.reconnects", ctx, SessionContext::reconnectCount)
+                .description("세션에서 OpenAI 소켓을 다시 연결한 횟수")
+                .tag("session", sessionId)
+                .tag("lectureId", lecture)
+                .register(registry));
+        meters.add(FunctionCounter.builder("realtime.upstream.session.reconnect.time", ctx, SessionContext::reconnectMillis)
+                .description("세션에서 업스트림 재연결을 기다린 누적 시간")
+                .baseUnit("milliseconds")
+                .tag("session", sessionId)
+                .tag("lectureId", lecture)
+                .register(registry));
+        return meters;
+    }
+
+    void backlogDropped(int bytes) {
+        backlogDroppedBytes.increment(bytes);
+    }
+
+    void silenceDropped(int bytes) {
+        silenceDroppedBytes.increment(bytes);
+    }
+
+    void clientEvicted() {
+        clientEvictions.increment();
+    }
+
+    void admissionRejected(String reason) {
+        ("timeout".equals(reason) ? admissionRejectedTimeout : admissionRejectedFull).increment();
+    }
+
+    void archiveWritten(int bytes) {
+        archiveWrittenBytes.increment(bytes);
+    }
+
+    void archiveDropped(String reason, int bytes) {
+        ("write-error".equals(reason) ? archiveDroppedWriteError : archiveDroppedOverflow).increment(bytes);
+    }
+
+    void reconnected(long millis) {
+        reconnectTimer.record(millis, TimeUnit.MILLISECONDS);
+    }
+
+    void reconnectGaveUp() {
+        reconnectGaveUp.increment();
+    }
+
+    static final class SessionMeters {
+        private final MeterRegistry registry;
+        private final List<Meter> meters = new ArrayList<>();
+
+        private SessionMeters(MeterRegistry registry) {
+            this.registry = registry;
+        }
+
+        private void add(Meter meter) {
+            meters.add(meter);
+        }
+
+        void remove() {
+            meters.forEach(registry::remove);
+            meters.clear();
+        }
+    }
+}
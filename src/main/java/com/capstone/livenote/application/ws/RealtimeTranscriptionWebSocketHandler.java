@@ -1,12 +1,13 @@
 package com.capstone.livenote.application.ws;
 
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
 import com.capstone.livenote.domain.lecture.entity.Lecture;
 import com.capstone.livenote.domain.lecture.repository.LectureRepository;
 import com.capstone.livenote.domain.transcript.entity.Transcript;
-import com.capstone.livenote.domain.transcript.repository.TranscriptRepository;
-import com.capstone.livenote.domain.transcript.service.TranscriptService;
-import com.fasterxml.jackson.databind.JsonNode;
+import com.capstone.livenote.domain.transcript.service.LectureTimelineCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -16,45 +17,52 @@ import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
 
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.WebSocket;
 import java.nio.ByteBuffer;
-import java.time.Duration;
-import java.util.Base64;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Queue;
-import java.util.concurrent.CompletableFuture;
+import java.util.Set;
 import java.util.concurrent.CompletionStage;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * 프론트 → 백엔드 바이너리 PCM(24kHz, mono) 전송을 받아
  * OpenAI Realtime(gpt-4o-transcribe)로 중계하는 WebSocket 핸들러.
  *
- * 클라이언트 요청: /ws/transcription?sessionId=<lectureId>
+ * 클라이언트 요청: /ws/transcription?sessionId=<lectureId>[&partials=delta]
  * - BinaryMessage만 전송(PCM16). 서버가 Base64 인코딩 후 input_audio_buffer.append로 전달.
  * - OpenAI 결과 중 transcript 계열 이벤트를 {type:"transcript", data:{content,isFinal}}로 클라이언트에 전달.
+ * - partials=delta로 연결하면 부분 전사는 덧붙은 부분만
+ *   {type:"transcript_delta", data:{text,offset,seq}}로 보낸다 (offset 0이면 새 발화). 최종 전사 형식은 같다.
+ * - 부분 전사는 어느 형식이든 세션당 초당 app.realtime.partials.max-per-second 번까지만 보낸다.
+ * - 노드의 동시 세션이 app.realtime.admission.max-sessions에 차면 {type:"queued", data:{position,timeoutMs}}를
+ *   보내고 기다리게 한다 (그동안 보낸 오디오는 버린다). 대기열도 차 있거나 시간 안에 자리가 나지 않으면
+ *   {type:"busy", data:{error,retryAfterSeconds}}를 보내고 1013(try again later)으로 닫는다.
  */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHandler {
 
-    private static final URI OPENAI_REALTIME_URI =
-            URI.create("wss://api.openai.com/v1/realtime?model=gpt-4o-realtime-preview-2024-10-01");
+    // PCM16, 24kHz, mono
+    static final int PCM_BYTES_PER_MS = 24_000 * 2 / 1000;
 
     private final LectureRepository lectureRepository;
-    private final TranscriptRepository transcriptRepository;
-    private final TranscriptService transcriptService;
+    private final LectureTimelineCache lectureTimelines;
+    private final TranscriptPersistencePipeline transcriptPipeline;
     private final ObjectMapper objectMapper;
-
-    @Value("${OPENAI_API_KEY}")
-    private String openAiApiKey;
+    private final OpenAiRealtimeConnector openAiConnector;
+    private final RealtimeProperties realtimeProperties;
+    private final RealtimeRelayMetrics relayMetrics;
+    private final PcmArchiver pcmArchiver;
 
     @Value("${app.callback-base-url:http://localhost:8080}")
     private String callbackBaseUrl;
@@ -67,6 +75,73 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
 
     private final Map<String, SessionContext> contexts = new ConcurrentHashMap<>();
 
+    // 동시 세션 자리를 받은 세션 id (끊길 때 자리를 한 번만 돌려주기 위해)
+    private final Set<String> admitted = ConcurrentHashMap.newKeySet();
+
+    private RelayAdmission admission;
+
+    // 모든 세션이 공유하는 append 메시지 버퍼 풀
+    private CharBufferPool bufferPool;
+
+    // OpenAI 이벤트 스트리밍 파서 + 타입별 핸들러 표
+    private RealtimeEventDispatcher<SessionContext> eventDispatcher;
+
+    // 모든 세션이 공유하는 타이머 스레드 (오디오 묶음 flush 등)
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "realtime-relay-timer");
+        t.setDaemon(true);
+        return t;
+    });
+
+    // 대기하다 자리를 받은 세션의 시작 (강의 조회/타임라인 초기화가 타이머 스레드를 막지 않도록)
+    private final ExecutorService queuedStarter = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "realtime-relay-start");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    void init() {
+        RealtimeProperties.Audio audio = realtimeProperties.getAudio();
+        bufferPool = new CharBufferPool(audio.getMessageChars(), audio.getBufferPoolSize());
+        eventDispatcher = buildEventDispatcher();
+        admission = new RelayAdmission(realtimeProperties.getAdmission(), scheduler, queuedStarter, relayMetrics);
+        relayMetrics.admissionGauges(admission);
+
+        long coalesceMs = audio.getCoalesceMs();
+        if (coalesceMs > 0) {
+            long tick = Math.max(10, coalesceMs / 2);
+            scheduler.scheduleAtFixedRate(() -> flushStaleAudio(coalesceMs), tick, tick, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdownNow();
+        queuedStarter.shutdownNow();
+    }
+
+    private void flushStaleAudio(long maxDelayMs) {
+        long now = System.currentTimeMillis();
+        for (SessionContext ctx : contexts.values()) {
+            try {
+                ctx.flushAudioIfOlderThan(now, maxDelayMs);
+            } catch (Exception e) {
+                log.warn("[RealtimeWS] coalesce flush failed lectureId={} err={}", ctx.lectureId, e.getMessage());
+            }
+        }
+    }
+
+    // 설정된 시간/크기 중 작은 쪽까지 프레임을 모아 append 메시지 하나로 보낸다 (0이면 프레임마다 전송)
+    private int coalesceThresholdBytes() {
+        RealtimeProperties.Audio audio = realtimeProperties.getAudio();
+        int byDuration = (int) Math.min(Integer.MAX_VALUE, audio.getCoalesceMs() * PCM_BYTES_PER_MS);
+        int byBytes = audio.getCoalesceMaxBytes();
+        if (byBytes <= 0) return byDuration;
+        if (byDuration <= 0) return byBytes;
+        return Math.min(byDuration, byBytes);
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) {
         String lectureIdStr = getQueryParam(session, "sessionId");
@@ -83,6 +158,35 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
             return;
         }
 
+        Long admittedLectureId = lectureId;
+        RelayAdmission.Outcome outcome = admission.admit(session.getId(),
+                () -> startQueued(session, admittedLectureId),
+                () -> rejectBusy(session, "queue timeout"));
+        switch (outcome) {
+            case ADMITTED -> startRelay(session, lectureId);
+            case QUEUED -> sendQueued(session);
+            case REJECTED -> rejectBusy(session, "queue full");
+        }
+    }
+
+    private void startQueued(WebSocketSession session, Long lectureId) {
+        try {
+            startRelay(session, lectureId);
+        } catch (Exception e) {
+            log.error("[RealtimeWS] start queued session failed sessionId={} err={}", session.getId(), e.getMessage());
+            sendError(session, "failed to start session");
+            closeSession(session, CloseStatus.SERVER_ERROR);
+        }
+    }
+
+    private void startRelay(WebSocketSession session, Long lectureId) {
+        admitted.add(session.getId());
+        if (!session.isOpen()) {
+            // 자리를 넘겨받는 사이에 끊긴 경우
+            if (admitted.remove(session.getId())) admission.release();
+            return;
+        }
+
         Optional<Lecture> lectureOpt = lectureRepository.findById(lectureId);
         if (lectureOpt.isEmpty()) {
             sendErrorAndClose(session, "lecture not found");
@@ -91,21 +195,40 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
         Lecture lecture = lectureOpt.get();
         String language = lecture.getSttLanguage() == null ? "ko" : lecture.getSttLanguage();
 
-        // 강의 재개 시 이전 최대 endSec 가져오기
-        Integer maxEndSec = transcriptRepository.findMaxEndSecByLectureId(lectureId);
-        int startFromSec = maxEndSec != null ? maxEndSec : 0;
+        // 강의 재개 시 이전 최대 endSec (메모리 타임라인, 처음 보는 강의만 DB 조회)
+        int startFromSec = lectureTimelines.get(lectureId).lastEndSec();
         
         log.info("[RealtimeWS] Lecture resume info: lectureId={} startFromSec={}", lectureId, startFromSec);
 
+        // 느린 브라우저가 OpenAI 리스너 스레드를 붙잡지 않도록 전송 버퍼/시간 한도가 있는 세션으로 감싼다
+        RealtimeProperties.Client client = realtimeProperties.getClient();
+        WebSocketSession clientSession = new ConcurrentWebSocketSessionDecorator(
+                session, client.getSendTimeLimitMs(), client.getBufferSizeLimitBytes());
+
         SessionContext ctx = new SessionContext(
-                session,
+                clientSession,
                 lectureId,
                 language,
                 startFromSec,
                 transcriptPaddingSeconds,
-                transcriptSpeedMultiplier
+                transcriptSpeedMultiplier,
+                bufferPool,
+                coalesceThresholdBytes(),
+                realtimeProperties.getAudio(),
+                realtimeProperties.getReconnect(),
+                realtimeProperties.getGate(),
+                relayMetrics
         );
+        boolean deltaPartials = "delta".equals(getQueryParam(session, "partials"));
+        ctx.partials = new PartialTranscriptStream(deltaPartials, realtimeProperties.getPartials().getMaxPerSecond(),
+                scheduler, (text, offset, seq) -> sendPartial(ctx, deltaPartials, text, offset, seq));
+        ctx.archive = pcmArchiver.open(lectureId, startFromSec, session.getId());
         contexts.put(session.getId(), ctx);
+        if (!session.isOpen()) {
+            // 위 확인 뒤 put 전에 끊겼으면 afterConnectionClosed가 ctx를 보지 못했다
+            if (contexts.remove(session.getId(), ctx)) discard(ctx);
+            return;
+        }
 
         connectOpenAi(ctx);
         log.info("[RealtimeWS] connected clientSessionId={} lectureId={} lang={} resumeFrom={}s",
@@ -116,19 +239,32 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
     protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
         SessionContext ctx = contexts.get(session.getId());
         if (ctx == null) {
+            if (admitted.contains(session.getId()) || admission.isQueued(session.getId())) {
+                return; // 대기 중이거나 시작하는 중: 자리를 받기 전 오디오는 버린다
+            }
             sendErrorAndClose(session, "session context missing");
             return;
         }
-        byte[] bytes = toByteArray(message.getPayload());
-        if (bytes.length == 0) {
+        ByteBuffer payload = message.getPayload();
+        if (!payload.hasRemaining()) {
             return;
         }
-        ctx.enqueueAudio(bytes);
+        if (ctx.archive != null) {
+            ctx.archive.offer(payload); // 링 버퍼에 복사만 하고 기록은 별도 스레드에서
+        }
+        // 복사 없이 수신 버퍼에서 바로 append 메시지로 인코딩
+        ctx.enqueueAudio(payload);
     }
 
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) {
         log.warn("[RealtimeWS] transport error sessionId={} err={}", session.getId(), exception.getMessage());
+        SessionContext ctx = contexts.get(session.getId());
+        if (ctx != null) {
+            sendError(ctx, "transport error: " + exception.getMessage());
+            closeSession(ctx.clientSession, CloseStatus.SERVER_ERROR);
+            return;
+        }
         sendError(session, "transport error: " + exception.getMessage());
         closeSession(session, CloseStatus.SERVER_ERROR);
     }
@@ -137,35 +273,92 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
     public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
         SessionContext ctx = contexts.remove(session.getId());
         if (ctx != null) {
-            ctx.close();
+            discard(ctx);
+        }
+        if (admitted.remove(session.getId())) {
+            admission.release();
+        } else {
+            admission.cancel(session.getId());
         }
         log.info("[RealtimeWS] closed sessionId={} code={}", session.getId(), status);
     }
 
-    private void connectOpenAi(SessionContext ctx) {
-        HttpClient client = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .build();
-
-        CompletableFuture<WebSocket> future = client.newWebSocketBuilder()
-                .header("Authorization", "Bearer " + openAiApiKey)
-                .header("OpenAI-Beta", "realtime=v1")
-                .connectTimeout(Duration.ofSeconds(5))
-                .buildAsync(OPENAI_REALTIME_URI, new OpenAiListener(ctx));
+    // 세션 자원 정리: 업스트림 소켓, 세션별 게이지, 오디오 보관
+    private void discard(SessionContext ctx) {
+        ctx.close();
+        if (ctx.archive != null) ctx.archive.finish();
+    }
 
-        future.whenComplete((ws, err) -> {
+    private void connectOpenAi(SessionContext ctx) {
+        // 공유 HttpClient + 미리 열어 둔 소켓 풀에서 session.update가 끝난 소켓을 받아온다
+        openAiConnector.acquire(new OpenAiListener(ctx)).whenComplete((ws, err) -> {
             if (err != null) {
                 log.error("[RealtimeWS] OpenAI connect fail lectureId={} err={}", ctx.lectureId, err.getMessage());
-                sendError(ctx.clientSession, "failed to connect OpenAI: " + err.getMessage());
+                sendError(ctx, "failed to connect OpenAI: " + err.getMessage());
                 closeSession(ctx.clientSession, CloseStatus.SERVER_ERROR);
                 return;
             }
+            if (!ctx.clientSession.isOpen()) {
+                // 연결되는 사이에 브라우저가 끊긴 경우 업스트림 소켓도 정리
+                try { ws.sendClose(WebSocket.NORMAL_CLOSURE, "client closed"); } catch (Exception ignored) {}
+                return;
+            }
             ctx.setOpenAiWebSocket(ws);
             log.info("[RealtimeWS] OpenAI connected lectureId={}", ctx.lectureId);
             ctx.flushPending();
         });
     }
 
+    /**
+     * OpenAI 소켓이 끊기면 브라우저 세션은 그대로 두고 업스트림만 다시 연결한다.
+     */
+    private void onUpstreamLost(SessionContext ctx, WebSocket ws, String cause) {
+        if (!ctx.upstreamLost(ws)) return;
+        if (!realtimeProperties.getReconnect().isEnabled() || !ctx.clientSession.isOpen()) {
+            sendError(ctx, "openai connection lost: " + cause);
+            closeSession(ctx.clientSession, CloseStatus.SERVER_ERROR);
+            return;
+        }
+        log.warn("[RealtimeWS] OpenAI connection lost, reconnecting lectureId={} cause={}", ctx.lectureId, cause);
+        scheduleReconnect(ctx, 0);
+    }
+
+    private void scheduleReconnect(SessionContext ctx, int attempt) {
+        if (ctx.isClosing() || !ctx.clientSession.isOpen()) return;
+        RealtimeProperties.Reconnect reconnect = realtimeProperties.getReconnect();
+        if (attempt >= reconnect.getMaxAttempts()) {
+            log.error("[RealtimeWS] OpenAI reconnect gave up lectureId={} attempts={}", ctx.lectureId, attempt);
+            relayMetrics.reconnectGaveUp();
+            sendError(ctx, "failed to reconnect OpenAI");
+            closeSession(ctx.clientSession, CloseStatus.SERVER_ERROR);
+            return;
+        }
+        // 지수 백오프: initial, initial*2, initial*4 ... (상한 maxBackoffMs)
+        long delay = Math.min(reconnect.getMaxBackoffMs(), reconnect.getInitialBackoffMs() << Math.min(attempt, 20));
+        try {
+            scheduler.schedule(() -> reconnectOpenAi(ctx, attempt), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            // 서버 종료 중
+        }
+    }
+
+    private void reconnectOpenAi(SessionContext ctx, int attempt) {
+        if (ctx.isClosing() || !ctx.clientSession.isOpen()) return;
+        openAiConnector.acquire(new OpenAiListener(ctx)).whenComplete((ws, err) -> {
+            if (err != null) {
+                log.warn("[RealtimeWS] OpenAI reconnect failed lectureId={} attempt={} err={}",
+                        ctx.lectureId, attempt + 1, err.getMessage());
+                scheduleReconnect(ctx, attempt + 1);
+                return;
+            }
+            if (ctx.isClosing() || !ctx.clientSession.isOpen()) {
+                try { ws.sendClose(WebSocket.NORMAL_CLOSURE, "client closed"); } catch (Exception ignored) {}
+                return;
+            }
+            ctx.upstreamRestored(ws);
+        });
+    }
+
     private void sendTranscript(SessionContext ctx, String content, boolean isFinal) {
         try {
             // 1. 클라이언트로 전송
@@ -178,9 +371,9 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
                             )
                     )
             );
-            ctx.clientSession.sendMessage(new TextMessage(json));
+            ctx.sendToClient(new TextMessage(json)); // 클라이언트 전송이 실패해도 저장은 한다
             
-            // 2. isFinal==true일 때 TranscriptService를 통해 저장 (요약 생성 트리거)
+            // 2. isFinal==true일 때 저장 파이프라인에 넘김 (요약 생성 트리거는 파이프라인 스레드에서)
             if (isFinal && content != null && !content.trim().isEmpty()) {
                 // 발화 구간 길이(초): speech_started ~ 현재까지
                 int segmentSec = ctx.endActiveSegment();
@@ -189,21 +382,39 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
                 int startSec = ctx.lastTranscriptEndSec;
                 int endSec = startSec + segmentSec;
 
-                // TranscriptService를 통해 저장 -> SectionAggregationService.onNewTranscript() 자동 호출
-                transcriptService.saveFromStt(ctx.lectureId, startSec, endSec, content.trim());
+                // DB/AI 서버 호출을 기다리지 않도록 강의별 순서 큐에 넣고 바로 다음 이벤트를 읽는다
+                transcriptPipeline.submit(ctx.lectureId, startSec, endSec, content.trim());
 
                 ctx.lastTranscriptEndSec = endSec;
                 ctx.spokenSeconds = endSec; // spoken 시간 누적
-
-                log.info("[RealtimeWS] ✅ Transcript saved to DB via TranscriptService: lectureId={} startSec={} endSec={} text={}",
-                        ctx.lectureId, startSec, endSec, 
-                        content.length() > 50 ? content.substring(0, 50) + "..." : content);
             }
         } catch (Exception e) {
             log.warn("[RealtimeWS] send transcript failed sessionId={} err={}", ctx.clientSession.getId(), e.getMessage());
         }
     }
 
+    private void sendPartial(SessionContext ctx, boolean deltaMode, String text, int offset, long seq) {
+        if (!deltaMode) {
+            sendTranscript(ctx, text, false);
+            return;
+        }
+        try {
+            String json = objectMapper.writeValueAsString(
+                    Map.of(
+                            "type", "transcript_delta",
+                            "data", Map.of(
+                                    "text", text,
+                                    "offset", offset,
+                                    "seq", seq
+                            )
+                    )
+            );
+            ctx.sendToClient(new TextMessage(json));
+        } catch (Exception e) {
+            log.warn("[RealtimeWS] send transcript delta failed sessionId={} err={}", ctx.clientSession.getId(), e.getMessage());
+        }
+    }
+
     private void sendError(WebSocketSession session, String message) {
         try {
             String json = objectMapper.writeValueAsString(
@@ -214,6 +425,47 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
         }
     }
 
+    private void sendError(SessionContext ctx, String message) {
+        try {
+            String json = objectMapper.writeValueAsString(
+                    Map.of("type", "error", "data", Map.of("error", message))
+            );
+            ctx.sendToClient(new TextMessage(json));
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void sendQueued(WebSocketSession session) {
+        long timeoutMs = realtimeProperties.getAdmission().getQueueTimeoutMs();
+        log.info("[RealtimeWS] node at capacity, queued sessionId={} active={} queued={}",
+                session.getId(), admission.active(), admission.queued());
+        try {
+            String json = objectMapper.writeValueAsString(
+                    Map.of("type", "queued", "data", Map.of(
+                            "position", admission.position(session.getId()),
+                            "timeoutMs", timeoutMs))
+            );
+            session.sendMessage(new TextMessage(json));
+        } catch (Exception ignored) {
+        }
+    }
+
+    private void rejectBusy(WebSocketSession session, String reason) {
+        int retryAfter = realtimeProperties.getAdmission().getRetryAfterSeconds();
+        log.warn("[RealtimeWS] rejected sessionId={} reason={} active={} queued={}",
+                session.getId(), reason, admission.active(), admission.queued());
+        try {
+            String json = objectMapper.writeValueAsString(
+                    Map.of("type", "busy", "data", Map.of(
+                            "error", "server busy",
+                            "retryAfterSeconds", retryAfter))
+            );
+            session.sendMessage(new TextMessage(json));
+        } catch (Exception ignored) {
+        }
+        closeSession(session, CloseStatus.SERVICE_OVERLOAD);
+    }
+
     private void sendErrorAndClose(WebSocketSession session, String message) {
         sendError(session, message);
         closeSession(session, CloseStatus.BAD_DATA);
@@ -239,59 +491,27 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
         return null;
     }
 
-    private byte[] toByteArray(ByteBuffer buffer) {
-        byte[] arr = new byte[buffer.remaining()];
-        buffer.get(arr);
-        return arr;
-    }
-
     private class OpenAiListener implements WebSocket.Listener {
         private final SessionContext ctx;
+        // 큰 이벤트는 여러 조각으로 나뉘어 오므로 마지막 조각까지 모아서 파싱한다
+        private StringBuilder partial;
 
         OpenAiListener(SessionContext ctx) {
             this.ctx = ctx;
         }
 
-        @Override
-        public void onOpen(WebSocket webSocket) {
-            // OpenAI Realtime 세션 설정: 오디오 입력, 텍스트 출력, VAD 활성화
-            try {
-                String sessionConfig = """
-                    {
-                      "type": "session.update",
-                      "session": {
-                        "modalities": ["text"],
-                        "instructions": "You are a helpful assistant that transcribes audio to text. Respond with transcriptions only. Only return korean.",
-                        "voice": "alloy",
-                        "input_audio_format": "pcm16",
-                        "output_audio_format": "pcm16",
-                        "input_audio_transcription": {
-                          "model": "whisper-1"
-                        },
-                        "turn_detection": {
-                          "type": "server_vad",
-                          "threshold": 0.5,
-                          "prefix_padding_ms": 300,
-                          "silence_duration_ms": 500
-                        },
-                        "tools": [],
-                        "tool_choice": "none",
-                        "temperature": 0.6,
-                        "max_response_output_tokens": "inf"
-                      }
-                    }
-                    """;
-                webSocket.sendText(sessionConfig, true);
-                log.info("[RealtimeWS] Sent session.update with audio input enabled");
-            } catch (Exception e) {
-                log.warn("[RealtimeWS] Failed to send session config: {}", e.getMessage());
-            }
-            webSocket.request(1);
-        }
-
         @Override
         public CompletionStage<?> onText(WebSocket webSocket, CharSequence data, boolean last) {
-            handleOpenAiText(ctx, data.toString());
+            if (!last) {
+                if (partial == null) partial = new StringBuilder();
+                partial.append(data);
+            } else if (partial != null) {
+                partial.append(data);
+                handleOpenAiText(ctx, partial.toString());
+                partial = null;
+            } else {
+                handleOpenAiText(ctx, data.toString());
+            }
             webSocket.request(1);
             return null;
         }
@@ -305,219 +525,109 @@ public class RealtimeTranscriptionWebSocketHandler extends AbstractWebSocketHand
         @Override
         public void onError(WebSocket webSocket, Throwable error) {
             log.warn("[RealtimeWS] OpenAI error lectureId={} err={}", ctx.lectureId, error.getMessage());
-            sendError(ctx.clientSession, "openai error: " + error.getMessage());
+            onUpstreamLost(ctx, webSocket, "error: " + error.getMessage());
         }
 
         @Override
         public CompletionStage<?> onClose(WebSocket webSocket, int statusCode, String reason) {
             log.info("[RealtimeWS] OpenAI closed lectureId={} code={} reason={}", ctx.lectureId, statusCode, reason);
+            // 우리가 닫은 경우(세션 종료)는 upstreamLost가 무시한다
+            onUpstreamLost(ctx, webSocket, "closed " + statusCode + " " + reason);
             return null;
         }
     }
 
-    private void handleOpenAiText(SessionContext ctx, String text) {
-        try {
-            JsonNode root = objectMapper.readTree(text);
-            String type = root.path("type").asText("");
-            
-            // 디버깅용 로그 추가
-            log.debug("[RealtimeWS] Received event type: {} lectureId={}", type, ctx.lectureId);
-
-            // 오류 이벤트
-            if (type.equalsIgnoreCase("error") || root.has("error")) {
-                String errMsg = root.path("error").path("message").asText(type.isEmpty() ? "openai error" : type);
-                log.error("[RealtimeWS] OpenAI error: {} lectureId={}", errMsg, ctx.lectureId);
-                sendError(ctx.clientSession, errMsg);
-                return;
+    /**
+     * OpenAI 이벤트 타입 → 핸들러 표 ({@link OpenAiRealtimeEvents})
+     */
+    private RealtimeEventDispatcher<SessionContext> buildEventDispatcher() {
+        return OpenAiRealtimeEvents.dispatcher(objectMapper.getFactory(), new OpenAiRealtimeEvents.Handler<>() {
+            @Override
+            public void onError(SessionContext ctx, RealtimeEvent event) {
+                onOpenAiError(ctx, event);
             }
-            
-            // input_audio_buffer.speech_started 이벤트
-            if (type.equals("input_audio_buffer.speech_started")) {
-                log.info("[RealtimeWS] Speech started lectureId={}", ctx.lectureId);
-                ctx.transcriptBuffer.setLength(0); // 버퍼 초기화
-                ctx.speechStartMillis = System.currentTimeMillis();
-                return;
-            }
-            
-            // conversation.item.input_audio_transcription.completed 이벤트 (Whisper 전사 결과)
-            if (type.equals("conversation.item.input_audio_transcription.completed")) {
-                String transcript = root.path("transcript").asText("");
-                if (!transcript.isEmpty()) {
-                    log.info("[RealtimeWS] Transcription completed: {} lectureId={}", transcript, ctx.lectureId);
-                    sendTranscript(ctx, transcript, true);
-                    ctx.transcriptBuffer.setLength(0);
-                }
-                return;
+
+            @Override
+            public void onTranscriptionFailed(SessionContext ctx, RealtimeEvent event) {
+                log.warn("[RealtimeWS] Transcription failed item={} lectureId={}", event.itemId, ctx.lectureId);
             }
-            
-            // conversation.item.input_audio_transcription.failed 이벤트
-            if (type.equals("conversation.item.input_audio_transcription.failed")) {
-                JsonNode error = root.path("error");
-                log.warn("[RealtimeWS] Transcription failed: {} lectureId={}", error, ctx.lectureId);
-                return;
+
+            @Override
+            public void onSpeechStarted(SessionContext ctx, RealtimeEvent event) {
+                RealtimeTranscriptionWebSocketHandler.this.onSpeechStarted(ctx);
             }
 
-            // delta / done 처리 (가능한 이벤트 다양성을 커버)
-            if (type.contains("output_text.delta") || type.contains("audio_transcript.delta")) {
-                String delta = extractDelta(root);
-                if (!delta.isEmpty()) {
-                    ctx.transcriptBuffer.append(delta);
-                    sendTranscript(ctx, ctx.transcriptBuffer.toString(), false);
-                }
-                return;
+            @Override
+            public void onSpeechStopped(SessionContext ctx, RealtimeEvent event) {
+                ctx.speechStopped(event.itemId, event.audioEndMs);
             }
 
-            if (type.contains("output_text.done") || type.contains("audio_transcript.done") || type.contains("response.done")) {
-                String finalText = ctx.transcriptBuffer.toString();
-                if (!finalText.isEmpty()) {
-                    sendTranscript(ctx, finalText, true);
-                    ctx.transcriptBuffer.setLength(0);
-                }
-                return;
+            @Override
+            public void onTranscriptionCompleted(SessionContext ctx, RealtimeEvent event) {
+                RealtimeTranscriptionWebSocketHandler.this.onTranscriptionCompleted(ctx, event);
             }
 
-            // 기타 타입: response.output_text 혹은 transcript가 바로 content에 있을 경우
-            if (root.has("content")) {
-                String content = root.path("content").asText("");
-                if (!content.isEmpty()) {
-                    ctx.transcriptBuffer.append(content);
-                    sendTranscript(ctx, ctx.transcriptBuffer.toString(), true);
-                    ctx.transcriptBuffer.setLength(0);
-                }
+            @Override
+            public void onTranscriptDelta(SessionContext ctx, RealtimeEvent event) {
+                // 바로 보내지 않고 세션별 전송 빈도 제한에 맞춰 모아 보낸다
+                ctx.partials.append(event.deltaText());
             }
 
-            // 전사 완료 이벤트
-            if (type.equals("conversation.item.input_audio_transcription.completed")) {
-                String transcript = root.path("transcript").asText("").trim();
-                if (!transcript.isEmpty()) {
-                    log.info("🎤 [RealtimeWS] Transcribed: {}", transcript);
-                    sendTranscript(ctx, transcript, true); // DB 저장 트리거
-                }
-                return;
+            @Override
+            public void onTranscriptDone(SessionContext ctx, RealtimeEvent event) {
+                RealtimeTranscriptionWebSocketHandler.this.onTranscriptDone(ctx);
             }
 
-            // 실시간 부분 전사 (User Experience용)
-            if (type.equals("response.audio_transcript.delta")) {
-                String delta = root.path("delta").asText("");
-                if (!delta.isEmpty()) {
-                    sendTranscript(ctx, delta, false); // 프론트에만 보여줌 (저장 X)
-                }
-                return;
+            @Override
+            public void onContent(SessionContext ctx, RealtimeEvent event) {
+                // transcript가 바로 content에 있으면 최종 전사로 처리
+                sendTranscript(ctx, ctx.partials.takeFinal() + event.content, true);
             }
+        });
+    }
 
+    private void handleOpenAiText(SessionContext ctx, String text) {
+        try {
+            RealtimeEvent event = eventDispatcher.dispatch(ctx, text);
+            if (event != null) {
+                log.debug("[RealtimeWS] Received event type: {} lectureId={}", event.type, ctx.lectureId);
+            }
         } catch (Exception e) {
             log.warn("[RealtimeWS] parse OpenAI text failed lectureId={} err={}", ctx.lectureId, e.getMessage());
         }
     }
 
-    private String extractDelta(JsonNode root) {
-        // 우선순위: delta 필드, text 필드, content 배열
-        if (root.has("delta")) {
-            JsonNode delta = root.get("delta");
-            if (delta.isTextual()) return delta.asText("");
-        }
-        if (root.has("text") && root.get("text").isTextual()) {
-            return root.get("text").asText("");
-        }
-        if (root.has("content") && root.get("content").isArray()) {
-            StringBuilder sb = new StringBuilder();
-            root.get("content").forEach(n -> {
-                if (n.isTextual()) sb.append(n.asText());
-            });
-            return sb.toString();
+    private void onOpenAiError(SessionContext ctx, RealtimeEvent event) {
+        if (OpenAiRealtimeEvents.TRANSCRIPTION_FAILED.equals(event.type)) {
+            ctx.transcriptionDone(event.itemId); // 실패한 발화는 다시 보내지 않는다
         }
-        return "";
+        String errMsg = event.errorMessageOrType();
+        log.error("[RealtimeWS] OpenAI error: {} lectureId={}", errMsg, ctx.lectureId);
+        sendError(ctx, errMsg);
     }
 
-    private static class SessionContext {
-        private final WebSocketSession clientSession;
-        private final Long lectureId;
-        private final String language;
-        private final Queue<byte[]> pendingAudio = new ConcurrentLinkedQueue<>();
-        private final AtomicBoolean openAiReady = new AtomicBoolean(false);
-        private final StringBuilder transcriptBuffer = new StringBuilder();
-        private volatile WebSocket openAiWebSocket;
-        private final long startTimeMillis = System.currentTimeMillis();
-        private final int baseSeconds; // 재개 시 기준 시간(초)
-        private int lastTranscriptEndSec;
-        private long speechStartMillis = -1;
-        private int spokenSeconds; // 말한 시간 누적
-        private final double paddingSeconds;
-        private final double speedMultiplier;
-
-        SessionContext(WebSocketSession clientSession, Long lectureId, String language, int startFromSec,
-                       double paddingSeconds, double speedMultiplier) {
-            this.clientSession = clientSession;
-            this.lectureId = lectureId;
-            this.language = language;
-            this.baseSeconds = startFromSec;
-            this.lastTranscriptEndSec = startFromSec;
-            this.spokenSeconds = startFromSec;
-            this.paddingSeconds = paddingSeconds;
-            this.speedMultiplier = speedMultiplier;
-        }
-        
-        int getElapsedSeconds() {
-            int active = 0;
-            if (speechStartMillis > 0) {
-                active = (int) ((System.currentTimeMillis() - speechStartMillis) / 1000);
-            }
-            return spokenSeconds + active;
-        }
-
-        void setOpenAiWebSocket(WebSocket ws) {
-            this.openAiWebSocket = ws;
-            openAiReady.set(true);
-        }
-
-        void enqueueAudio(byte[] bytes) {
-            if (openAiReady.get() && openAiWebSocket != null) {
-                sendAudio(bytes);
-            } else {
-                pendingAudio.add(bytes);
-            }
-        }
-
-        void flushPending() {
-            if (!openAiReady.get() || openAiWebSocket == null) return;
-            byte[] data;
-            while ((data = pendingAudio.poll()) != null) {
-                sendAudio(data);
-            }
-        }
-
-        void sendAudio(byte[] bytes) {
-            if (openAiWebSocket == null) return;
-            try {
-                String b64 = Base64.getEncoder().encodeToString(bytes);
-                String payload = "{\"type\":\"input_audio_buffer.append\",\"audio\":\"" + b64 + "\"}";
-                openAiWebSocket.sendText(payload, true);
-            } catch (Exception e) {
-                // 클라이언트에 에러 전파는 상위에서 처리
-            }
-        }
-
-        void sendToOpenAi(String payload) {
-            if (openAiWebSocket != null) {
-                openAiWebSocket.sendText(payload, true);
-            }
-        }
+    private void onSpeechStarted(SessionContext ctx) {
+        log.info("[RealtimeWS] Speech started lectureId={}", ctx.lectureId);
+        ctx.partials.reset(); // 버퍼 초기화
+        ctx.speechStartMillis = System.currentTimeMillis();
+        ctx.flushAudio(); // 발화 시작 직후 오디오는 모으지 않고 바로 보내 지연을 줄인다
+    }
 
-        void close() {
-            if (openAiWebSocket != null) {
-                try { openAiWebSocket.sendClose(WebSocket.NORMAL_CLOSURE, "client closed"); } catch (Exception ignored) {}
-            }
+    // conversation.item.input_audio_transcription.completed 이벤트 (Whisper 전사 결과)
+    private void onTranscriptionCompleted(SessionContext ctx, RealtimeEvent event) {
+        ctx.transcriptionDone(event.itemId);
+        String transcript = event.transcript == null ? "" : event.transcript;
+        if (!transcript.isEmpty()) {
+            log.info("[RealtimeWS] Transcription completed: {} lectureId={}", transcript, ctx.lectureId);
+            ctx.partials.reset();
+            sendTranscript(ctx, transcript, true);
         }
+    }
 
-        int endActiveSegment() {
-            if (speechStartMillis <= 0) return 0;
-            long now = System.currentTimeMillis();
-            double deltaSeconds = ((now - speechStartMillis) / 1000.0) * speedMultiplier;
-            // 약간의 완충(+paddingSeconds) 후 올림하여 반올림 효과
-            int delta = (int) Math.ceil(deltaSeconds + paddingSeconds);
-            spokenSeconds += delta;
-            speechStartMillis = -1;
-            return delta;
+    private void onTranscriptDone(SessionContext ctx) {
+        String finalText = ctx.partials.takeFinal();
+        if (!finalText.isEmpty()) {
+            sendTranscript(ctx, finalText, true);
         }
     }
 }
@@ -0,0 +1,145 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 노드당 동시 중계 세션 수 제한.
+ *
+ * 자리가 있으면 바로 받고, 없으면 최대 maxQueued개까지 queueTimeoutMs 동안 대기열에 세워 두었다가
+ * 다른 세션이 끝나는 순서대로 넘겨준다. 대기열이 꽉 찼거나 시간 안에 자리가 나지 않으면 거절한다.
+ * 대기 중인 세션은 업스트림 소켓을 열지 않는다. 자리를 받은 세션의 시작(DB 조회 포함)은 starter에서 실행해
+ * 모든 세션이 공유하는 타이머 스레드를 막지 않는다.
+ */
+final class RelayAdmission {
+
+    enum Outcome { ADMITTED, QUEUED, REJECTED }
+
+    private final int maxSessions;
+    private final int maxQueued;
+    private final long queueTimeoutMillis;
+    private final ScheduledExecutorService scheduler;
+    private final Executor starter;
+    private final RealtimeRelayMetrics metrics;
+
+    private final Map<String, Waiter> queue = new LinkedHashMap<>();
+    private int active;
+
+    RelayAdmission(RealtimeProperties.Admission admission, ScheduledExecutorService scheduler, Executor starter,
+                   RealtimeRelayMetrics metrics) {
+        this.maxSessions = admission.getMaxSessions();
+        this.maxQueued = Math.max(0, admission.getMaxQueued());
+        this.queueTimeoutMillis = admission.getQueueTimeoutMs();
+        this.scheduler = scheduler;
+        this.starter = starter;
+        this.metrics = metrics;
+    }
+
+    /**
+     * @param onAdmitted 대기하다 자리를 받았을 때 starter에서 실행
+     * @param onTimeout  대기 시간 안에 자리가 나지 않았을 때 스케줄러 스레드에서 실행
+     */
+    Outcome admit(String sessionId, Runnable onAdmitted, Runnable onTimeout) {
+        synchronized (this) {
+            if (maxSessions <= 0 || active < maxSessions) {
+                active++;
+                return Outcome.ADMITTED;
+            }
+            if (queue.size() < maxQueued) {
+                Waiter waiter = new Waiter(onAdmitted);
+                queue.put(sessionId, waiter);
+                try {
+                    waiter.timeout = scheduler.schedule(() -> expire(sessionId, waiter, onTimeout),
+                            queueTimeoutMillis, TimeUnit.MILLISECONDS);
+                    return Outcome.QUEUED;
+                } catch (RejectedExecutionException e) {
+                    queue.remove(sessionId);
+                }
+            }
+        }
+        metrics.admissionRejected("full");
+        return Outcome.REJECTED;
+    }
+
+    /**
+     * 받아 준 세션이 끝났다. 대기열 맨 앞 세션에 자리를 넘긴다.
+     */
+    void release() {
+        Waiter next = null;
+        synchronized (this) {
+            Iterator<Waiter> it = queue.values().iterator();
+            if (it.hasNext()) {
+                next = it.next();
+                it.remove();
+                next.timeout.cancel(false);
+            } else if (active > 0) {
+                active--;
+            }
+        }
+        if (next != null) {
+            Runnable start = next.onAdmitted;
+            try {
+                starter.execute(start);
+            } catch (RejectedExecutionException e) {
+                start.run();
+            }
+        }
+    }
+
+    /**
+     * 대기 중이던 세션이 먼저 끊겼다.
+     */
+    synchronized boolean cancel(String sessionId) {
+        Waiter waiter = queue.remove(sessionId);
+        if (waiter == null) return false;
+        waiter.timeout.cancel(false);
+        return true;
+    }
+
+    synchronized boolean isQueued(String sessionId) {
+        return queue.containsKey(sessionId);
+    }
+
+    synchronized int position(String sessionId) {
+        int position = 1;
+        for (String id : queue.keySet()) {
+            if (id.equals(sessionId)) return position;
+            position++;
+        }
+        return 0;
+    }
+
+    synchronized int active() {
+        return active;
+    }
+
+    synchronized int queued() {
+        return queue.size();
+    }
+
+    private void expire(String sessionId, Waiter waiter, Runnable onTimeout) {
+        synchronized (this) {
+            if (queue.get(sessionId) != waiter) return;
+            queue.remove(sessionId);
+        }
+        metrics.admissionRejected("timeout");
+        onTimeout.run();
+    }
+
+    private static final class Waiter {
+        private final Runnable onAdmitted;
+        private ScheduledFuture<?> timeout;
+
+        private Waiter(Runnable onAdmitted) {
+            this.onAdmitted = onAdmitted;
+        }
+    }
+}
@@ -0,0 +1,514 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+
+import java.net.http.WebSocket;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 브라우저 세션 하나와 OpenAI Realtime 업스트림 하나를 잇는 중계 상태.
+ *
+ * 오디오 경로: 수신 PCM → (업스트림이 받을 수 있으면) AudioCoalescer → outbound 큐 → sendText
+ *                      → (연결 전/전송 밀림) pendingAudio 백로그 → 여유가 생기면 AudioCoalescer
+ * AudioCoalescer로 넘긴 PCM은 replay 링에도 남겨 두었다가, 업스트림이 끊기면 전사가 끝나지 않은 구간부터
+ * 새 소켓으로 다시 보낸다. 재연결하는 동안 들어온 오디오는 백로그에 쌓인다.
+ */
+@Slf4j
+final class SessionContext {
+
+    private static final TextMessage FLOW_PAUSED = new TextMessage("{\"type\":\"flow\",\"paused\":true}");
+    private static final TextMessage FLOW_RESUMED = new TextMessage("{\"type\":\"flow\",\"paused\":false}");
+
+    final WebSocketSession clientSession;
+    final Long lectureId;
+    final String language;
+    PartialTranscriptStream partials; // 발화 중 부분 전사 (핸들러가 연결 직후 설정)
+    PcmArchiver.Recording archive;    // 받은 PCM 보관 (꺼져 있으면 null)
+    private final long startTimeMillis = System.currentTimeMillis();
+    private final int baseSeconds; // 재개 시 기준 시간(초)
+    int lastTranscriptEndSec;
+    long speechStartMillis = -1;
+    int spokenSeconds; // 말한 시간 누적
+    private final double paddingSeconds;
+    private final double speedMultiplier;
+
+    // 아직 업스트림으로 넘기지 못한 PCM (바이트 상한, off-heap)
+    private final AudioBacklog pendingAudio;
+    private final SilenceGate silenceGate; // null이면 모든 프레임을 보낸다
+    private final Object audioLock = new Object();
+    private final AudioCoalescer coalescer;
+    private final CharBufferPool bufferPool;
+    private final RealtimeRelayMetrics metrics;
+    private final int maxInFlightMessages;
+    private final int pauseBytes;
+    private final int resumeBytes;
+    private final AtomicBoolean flowPaused = new AtomicBoolean(false);
+
+    // 업스트림으로 넘긴 최근 PCM과 전사 완료 위치 (audioLock)
+    private final AudioReplayRing replay;
+    private final Deque<PendingItem> pendingItems = new ArrayDeque<>();
+    private long connectionBaseOffset; // 현재 소켓으로 보낸 첫 바이트의 오프셋 (audio_end_ms 기준점)
+    private long ackedOffset;          // 여기까지는 전사가 끝나 다시 보낼 필요가 없다
+
+    // 전송 완료를 기다리는 append 메시지 수 (소켓이 바뀌어도 이어진다)
+    private final AtomicInteger outboundCount = new AtomicInteger();
+    private final AtomicBoolean closing = new AtomicBoolean(false);
+    private final AtomicBoolean evicted = new AtomicBoolean(false);
+    private volatile Upstream upstream;
+
+    private final AtomicInteger reconnects = new AtomicInteger();
+    private final AtomicLong reconnectMillis = new AtomicLong();
+    private volatile long upstreamLostAtMillis;
+
+    private RealtimeRelayMetrics.SessionMeters meters;
+
+    SessionContext(WebSocketSession clientSession, Long lectureId, String language, int startFromSec,
+                   double paddingSeconds, double speedMultiplier, CharBufferPool bufferPool,
+                   int coalesceThresholdBytes, RealtimeProperties.Audio audio,
+                   RealtimeProperties.Reconnect reconnect, RealtimeProperties.Gate gate,
+                   RealtimeRelayMetrics metrics) {
+        this.clientSession = clientSession;
+        this.lectureId = lectureId;
+        this.language = language;
+        this.baseSeconds = startFromSec;
+        this.lastTranscriptEndSec = startFromSec;
+        this.spokenSeconds = startFromSec;
+        this.paddingSeconds = paddingSeconds;
+        this.speedMultiplier = speedMultiplier;
+        this.bufferPool = bufferPool;
+        this.metrics = metrics;
+        this.coalescer = new AudioCoalescer(bufferPool, coalesceThresholdBytes, this::offerOutbound);
+        this.pendingAudio = new AudioBacklog(audio.getBacklogMaxBytes(), audio.getBacklogDropPolicy());
+        this.replay = new AudioReplayRing(reconnect.isEnabled() ? reconnect.getReplayMaxBytes() : 0);
+        this.silenceGate = gate.isEnabled() ? new SilenceGate(gate) : null;
+        this.maxInFlightMessages = Math.max(1, audio.getMaxInFlightMessages());
+        this.pauseBytes = (int) (audio.getBacklogMaxBytes() * audio.getFlowPauseRatio());
+        this.resumeBytes = (int) (audio.getBacklogMaxBytes() * audio.getFlowResumeRatio());
+        this.meters = metrics.sessionMeters(clientSession.getId(), lectureId, this);
+    }
+
+    int getElapsedSeconds() {
+        int active = 0;
+        if (speechStartMillis > 0) {
+            active = (int) ((System.currentTimeMillis() - speechStartMillis) / 1000);
+        }
+        return spokenSeconds + active;
+    }
+
+    void setOpenAiWebSocket(WebSocket ws) {
+        synchronized (audioLock) {
+            connectionBaseOffset = replay.endOffset();
+            upstream = new Upstream(ws);
+        }
+    }
+
+    int backlogBytes() {
+        return pendingAudio.size();
+    }
+
+    double reconnectCount() {
+        return reconnects.get();
+    }
+
+    double reconnectMillis() {
+        return reconnectMillis.get();
+    }
+
+    boolean isClosing() {
+        return closing.get();
+    }
+
+    /**
+     * 현재 업스트림 소켓이 끊겼음을 알린다. 이후 오디오는 재연결될 때까지 백로그에 쌓인다.
+     *
+     * @return 재연결이 필요하면 true (이미 처리된 소켓이거나 세션이 닫히는 중이면 false)
+     */
+    boolean upstreamLost(WebSocket ws) {
+        Upstream up = upstream;
+        if (up == null || up.ws != ws || closing.get()) return false;
+        synchronized (audioLock) {
+            if (!up.live) return false;
+            up.live = false;
+            // 보내던 메시지는 버리고 replay 링에서 다시 만든다
+            coalescer.discard();
+            pendingItems.clear();
+        }
+        discardOutbound(up);
+        upstreamLostAtMillis = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * 새 소켓으로 교체하고, 전사가 끝나지 않은 구간을 백로그보다 먼저 다시 보낸다.
+     */
+    void upstreamRestored(WebSocket ws) {
+        long from;
+        long replayed;
+        synchronized (audioLock) {
+            from = Math.max(ackedOffset, replay.startOffset());
+            if (from > ackedOffset) {
+                log.warn("[RealtimeWS] replay ring overrun lectureId={} lost={}B", lectureId, from - ackedOffset);
+            }
+            connectionBaseOffset = from;
+            upstream = new Upstream(ws);
+            int chunk = AudioAppendEncoder.maxPcmBytes(bufferPool.bufferChars());
+            long offset = from;
+            ByteBuffer slice;
+            while ((slice = replay.slice(offset, chunk)) != null) {
+                offset += slice.remaining();
+                coalescer.write(slice);
+            }
+            replayed = offset - from;
+        }
+        long took = System.currentTimeMillis() - upstreamLostAtMillis;
+        reconnects.incrementAndGet();
+        reconnectMillis.addAndGet(took);
+        metrics.reconnected(took);
+        log.info("[RealtimeWS] OpenAI reconnected lectureId={} took={}ms replayed={}B backlog={}B",
+                lectureId, took, replayed, pendingAudio.size());
+        flushPending();
+    }
+
+    /**
+     * input_audio_buffer.speech_stopped: 이 발화가 끝난 위치를 기록해 둔다.
+     *
+     * @param audioEndMs 현재 소켓으로 보낸 오디오 기준 발화 끝 시각(ms), 모르면 음수
+     */
+    void speechStopped(String itemId, long audioEndMs) {
+        synchronized (audioLock) {
+            long end = audioEndMs >= 0
+                    ? connectionBaseOffset + audioEndMs * RealtimeTranscriptionWebSocketHandler.PCM_BYTES_PER_MS
+                    : replay.endOffset();
+            pendingItems.add(new PendingItem(itemId, end));
+        }
+    }
+
+    /**
+     * 전사가 끝난(완료/실패) 발화까지를 재전송 대상에서 뺀다. 앞선 발화가 모두 끝나야 위치가 전진한다.
+     */
+    void transcriptionDone(String itemId) {
+        synchronized (audioLock) {
+            for (PendingItem item : pendingItems) {
+                if (!item.done && (itemId == null || itemId.equals(item.itemId))) {
+                    item.done = true;
+                    break;
+                }
+            }
+            while (!pendingItems.isEmpty() && pendingItems.peek().done) {
+                ackedOffset = Math.max(ackedOffset, pendingItems.poll().endOffset);
+            }
+        }
+    }
+
+    /**
+     * 수신 PCM을 열려 있는 append 메시지 버퍼에 바로 인코딩한다.
+     * 업스트림이 아직 없거나 전송이 밀려 있으면 백로그에 쌓는다. 호출이 끝나면 pcm은 다시 써도 된다.
+     */
+    void enqueueAudio(ByteBuffer pcm) {
+        if (closing.get()) return;
+        synchronized (audioLock) {
+            if (silenceGate == null) {
+                routeAudioLocked(pcm);
+            } else if (silenceGate.admit(pcm)) {
+                // 말소리가 다시 시작되면 보관해 둔 직전 무음부터 보낸다
+                int chunk = AudioAppendEncoder.maxPcmBytes(bufferPool.bufferChars());
+                ByteBuffer preRoll;
+                while ((preRoll = silenceGate.pollPreRoll(chunk)) != null) {
+                    routeAudioLocked(preRoll);
+                }
+                routeAudioLocked(pcm);
+            } else {
+                metrics.silenceDropped(pcm.remaining());
+                return;
+            }
+        }
+        updateFlowControl();
+        drain();
+    }
+
+    private void routeAudioLocked(ByteBuffer pcm) {
+        if (pendingAudio.isEmpty() && canSendUpstream()) {
+            sendPcmLocked(pcm);
+        } else {
+            int dropped = pendingAudio.write(pcm);
+            if (dropped > 0) metrics.backlogDropped(dropped);
+            drainBacklogLocked(false);
+        }
+    }
+
+    double silenceDroppedRatio() {
+        if (silenceGate == null) return 0;
+        synchronized (audioLock) {
+            return silenceGate.droppedRatio();
+        }
+    }
+
+    /**
+     * 모아 둔 오디오를 기다리지 않고 바로 보낸다 (speech_started 등).
+     */
+    void flushAudio() {
+        if (coalescer.flush()) {
+            drain();
+        }
+    }
+
+    void flushAudioIfOlderThan(long nowMillis, long maxDelayMillis) {
+        if (coalescer.flushIfOlderThan(nowMillis, maxDelayMillis)) {
+            drain();
+        }
+    }
+
+    /**
+     * 업스트림이 준비되면 백로그를 비우며 전송을 시작한다.
+     */
+    void flushPending() {
+        resumeBacklog();
+        drain();
+    }
+
+    void sendToOpenAi(String payload) {
+        offerOutbound(CharBuffer.wrap(payload));
+        drain();
+    }
+
+    private boolean isUpstreamReady() {
+        Upstream up = upstream;
+        return up != null && up.live;
+    }
+
+    private boolean canSendUpstream() {
+        return isUpstreamReady() && outboundCount.get() < maxInFlightMessages;
+    }
+
+    private void sendPcmLocked(ByteBuffer pcm) {
+        replay.write(pcm);
+        coalescer.write(pcm);
+    }
+
+    private void offerOutbound(CharBuffer message) {
+        Upstream up = upstream;
+        if (up == null) {
+            bufferPool.release(message);
+            return;
+        }
+        outboundCount.incrementAndGet();
+        up.outbound.add(message);
+        if (!up.live) {
+            // 끊긴 소켓에 들어간 메시지는 replay 링에서 다시 보낸다
+            discardOutbound(up);
+        }
+    }
+
+    private void discardOutbound(Upstream up) {
+        CharBuffer message;
+        while ((message = up.outbound.poll()) != null) {
+            bufferPool.release(message);
+            outboundCount.decrementAndGet();
+        }
+    }
+
+    private void resumeBacklog() {
+        if (pendingAudio.isEmpty()) return;
+        synchronized (audioLock) {
+            drainBacklogLocked(false);
+        }
+        updateFlowControl();
+    }
+
+    /**
+     * 백로그를 오래된 순서대로 coalescer에 넘긴다. force가 아니면 전송 여유가 있는 만큼만 넘긴다.
+     */
+    private void drainBacklogLocked(boolean force) {
+        int chunk = AudioAppendEncoder.maxPcmBytes(bufferPool.bufferChars());
+        while (force || canSendUpstream()) {
+            ByteBuffer slice = pendingAudio.peek(chunk);
+            if (slice == null) return;
+            int n = slice.remaining();
+            sendPcmLocked(slice);
+            pendingAudio.skip(n);
+        }
+    }
+
+    /**
+     * 백로그가 pauseBytes 이상 차면 클라이언트에 전송을 늦추라고 알리고, resumeBytes 이하로 내려가면 재개를 알린다.
+     */
+    private void updateFlowControl() {
+        int size = pendingAudio.size();
+        if (size >= pauseBytes && flowPaused.compareAndSet(false, true)) {
+            log.info("[RealtimeWS] flow paused lectureId={} backlog={}B", lectureId, size);
+            sendToClient(FLOW_PAUSED);
+        } else if (size <= resumeBytes && flowPaused.compareAndSet(true, false)) {
+            log.info("[RealtimeWS] flow resumed lectureId={} backlog={}B", lectureId, size);
+            sendToClient(FLOW_RESUMED);
+        }
+    }
+
+    /**
+     * 클라이언트로 보낸다. clientSession은 전송 버퍼/시간 한도가 있는 ConcurrentWebSocketSessionDecorator이며,
+     * 한도를 넘긴(너무 뒤처진) 세션은 닫고 evict로 집계한다.
+     *
+     * @return 전송했거나 전송 대기열에 넣었으면 true
+     */
+    boolean sendToClient(TextMessage message) {
+        if (!clientSession.isOpen()) return false;
+        try {
+            clientSession.sendMessage(message);
+            return true;
+        } catch (SessionLimitExceededException e) {
+            if (evicted.compareAndSet(false, true)) {
+                metrics.clientEvicted();
+                log.warn("[RealtimeWS] slow client evicted lectureId={} reason={}", lectureId, e.getMessage());
+                try { clientSession.close(e.getStatus()); } catch (Exception ignored) {}
+            }
+        } catch (Exception e) {
+            log.debug("[RealtimeWS] client send failed lectureId={} err={}", lectureId, e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * java.net.http.WebSocket은 이전 sendText가 끝나기 전에 다시 보내면 실패하므로,
+     * 큐에서 하나씩 꺼내 앞선 전송이 완료된 뒤에 다음 메시지를 보낸다.
+     * 전송이 끝난 버퍼는 풀로 반납한다. 전송 상태는 소켓마다 따로 두어, 끊긴 소켓의 완료 콜백이
+     * 새 소켓의 전송 순서를 건드리지 않게 한다.
+     */
+    private void drain() {
+        drain(upstream);
+    }
+
+    private void drain(Upstream up) {
+        if (up == null) return;
+        while (up.sending.compareAndSet(false, true)) {
+            if (!up.live) {
+                up.sending.set(false);
+                discardOutbound(up);
+                return;
+            }
+            CharBuffer next = up.outbound.poll();
+            if (next == null) {
+                up.sending.set(false);
+                if (up.outbound.isEmpty()) {
+                    if (closing.get()) sendCloseOnce(up);
+                    return;
+                }
+                continue;
+            }
+            CompletableFuture<WebSocket> sent;
+            try {
+                sent = up.ws.sendText(next, true);
+            } catch (Exception e) {
+                sent = CompletableFuture.failedFuture(e);
+            }
+            // 이미 끝난 전송은 이 루프에서 이어서 보내고, 진행 중이면 완료 콜백에서 이어간다
+            boolean done = sent.isDone();
+            sent.whenComplete((ws, err) -> {
+                onSent(up, next, err);
+                if (!done) drain(up);
+            });
+            if (!done) return;
+        }
+    }
+
+    private void onSent(Upstream up, CharBuffer message, Throwable err) {
+        bufferPool.release(message);
+        outboundCount.decrementAndGet();
+        up.sending.set(false);
+        if (err != null) {
+            log.debug("[RealtimeWS] OpenAI send failed lectureId={} err={}", lectureId, err.getMessage());
+        }
+        resumeBacklog();
+    }
+
+    /**
+     * 남은 오디오(백로그 포함)를 마저 보낸 뒤 업스트림을 닫는다.
+     * 아직 연결 전이거나 재연결 중이면 보낼 곳이 없으므로 바로 닫는다.
+     */
+    void close() {
+        if (!closing.compareAndSet(false, true)) return;
+        if (meters != null) {
+            meters.remove();
+            meters = null;
+        }
+        if (silenceGate != null) {
+            synchronized (audioLock) {
+                log.info("[RealtimeWS] silence gate lectureId={} dropped={}/{} frames ({}%) {}B",
+                        lectureId, silenceGate.droppedFrames(), silenceGate.frames(),
+                        Math.round(silenceGate.droppedRatio() * 1000) / 10.0, silenceGate.droppedBytes());
+            }
+        }
+        if (reconnects.get() > 0) {
+            log.info("[RealtimeWS] upstream reconnects lectureId={} count={} total={}ms",
+                    lectureId, reconnects.get(), reconnectMillis.get());
+        }
+        Upstream up = upstream;
+        if (up == null || !up.live) {
+            synchronized (audioLock) {
+                pendingAudio.clear();
+                coalescer.discard();
+            }
+            if (up != null) sendCloseOnce(up);
+            return;
+        }
+        synchronized (audioLock) {
+            drainBacklogLocked(true);
+            coalescer.flush();
+        }
+        drain(up);
+    }
+
+    private void sendCloseOnce(Upstream up) {
+        if (!up.closeSent.compareAndSet(false, true)) return;
+        try { up.ws.sendClose(WebSocket.NORMAL_CLOSURE, "client closed"); } catch (Exception ignored) {}
+    }
+
+    int endActiveSegment() {
+        if (speechStartMillis <= 0) return 0;
+        long now = System.currentTimeMillis();
+        double deltaSeconds = ((now - speechStartMillis) / 1000.0) * speedMultiplier;
+        // 약간의 완충(+paddingSeconds) 후 올림하여 반올림 효과
+        int delta = (int) Math.ceil(deltaSeconds + paddingSeconds);
+        spokenSeconds += delta;
+        speechStartMillis = -1;
+        return delta;
+    }
+
+    /**
+     * OpenAI 소켓 하나의 전송 상태. 재연결하면 새로 만든다.
+     */
+    private static final class Upstream {
+        final WebSocket ws;
+        // 인코딩이 끝난 append 메시지. 하나씩 순서대로 전송된다
+        final Queue<CharBuffer> outbound = new ConcurrentLinkedQueue<>();
+        final AtomicBoolean sending = new AtomicBoolean(false);
+        final AtomicBoolean closeSent = new AtomicBoolean(false);
+        volatile boolean live = true;
+
+        Upstream(WebSocket ws) {
+            this.ws = ws;
+        }
+    }
+
+    private static final class PendingItem {
+        final String itemId;
+        final long endOffset;
+        boolean done;
+
+        PendingItem(String itemId, long endOffset) {
+            this.itemId = itemId;
+            this.endOffset = endOffset;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * 수신 PCM16(LE) 프레임의 에너지(RMS)와 영교차율로 무음을 골라내, 길게 이어지는 무음은 업스트림으로 보내지 않는다.
+ *
+ * - 말소리로 판단한 프레임 뒤로 hangover 동안은 무음도 그대로 보낸다 (OpenAI server VAD가 발화 끝을 감지하도록).
+ * - 걸러낸 무음 중 마지막 preRoll 분량은 보관했다가, 다시 말소리가 나오면 그 앞에 붙여 보낸다 (발화 시작 보존).
+ * 세션의 audioLock 안에서만 쓰인다.
+ */
+final class SilenceGate {
+
+    private final double energyThreshold;
+    private final double zeroCrossingThreshold;
+    private final long hangoverBytes;
+    private final AudioReplayRing preRoll;
+
+    private long silentBytes;     // 마지막 말소리 이후 이어진 무음 바이트
+    private long preRollSentTo;   // preRoll에서 이미 내보낸 위치
+    private long frames;
+    private long droppedFrames;
+    private long droppedBytes;
+
+    SilenceGate(RealtimeProperties.Gate gate) {
+        this.energyThreshold = gate.getEnergyThreshold();
+        this.zeroCrossingThreshold = gate.getZeroCrossingThreshold();
+        this.hangoverBytes = gate.getHangoverMs() * RealtimeTranscriptionWebSocketHandler.PCM_BYTES_PER_MS;
+        this.preRoll = new AudioReplayRing((int) (gate.getPreRollMs() * RealtimeTranscriptionWebSocketHandler.PCM_BYTES_PER_MS));
+        this.silentBytes = hangoverBytes; // 첫 말소리 전까지는 걸러낸다
+    }
+
+    /**
+     * 프레임을 보낼지 판단한다. pcm의 position은 바꾸지 않는다.
+     * false면 프레임은 pre-roll에 보관되며, true면 먼저 {@link #pollPreRoll(int)}로 보관분을 꺼내 보내야 한다.
+     */
+    boolean admit(ByteBuffer pcm) {
+        frames++;
+        if (isSpeech(pcm)) {
+            silentBytes = 0;
+            return true;
+        }
+        if (silentBytes < hangoverBytes) {
+            silentBytes += pcm.remaining();
+            return true;
+        }
+        preRoll.write(pcm);
+        droppedFrames++;
+        droppedBytes += pcm.remaining();
+        return false;
+    }
+
+    /**
+     * 아직 보내지 않은 pre-roll을 오래된 순서로 최대 max 바이트씩 꺼낸다. 없으면 null.
+     * 꺼낸 오디오는 보낸 것으로 보아 드롭 통계에서 뺀다.
+     */
+    ByteBuffer pollPreRoll(int max) {
+        long from = Math.max(preRollSentTo, preRoll.startOffset());
+        ByteBuffer slice = preRoll.slice(from, max);
+        if (slice == null) {
+            preRollSentTo = preRoll.endOffset();
+            return null;
+        }
+        preRollSentTo = from + slice.remaining();
+        droppedBytes -= slice.remaining();
+        return slice;
+    }
+
+    long frames() {
+        return frames;
+    }
+
+    long droppedFrames() {
+        return droppedFrames;
+    }
+
+    long droppedBytes() {
+        return droppedBytes;
+    }
+
+    double droppedRatio() {
+        return frames == 0 ? 0 : (double) droppedFrames / frames;
+    }
+
+    /**
+     * RMS가 기준 이상이면 말소리. 에너지가 조금 낮아도 영교차율이 높으면(ㅅ/ㅎ 같은 무성 자음) 말소리로 본다.
+     */
+    private boolean isSpeech(ByteBuffer pcm) {
+        ByteBuffer le = pcm.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        int end = le.limit() - 1;
+        int samples = 0;
+        int crossings = 0;
+        double sumSquares = 0;
+        short prev = 0;
+        for (int i = le.position(); i < end; i += 2) {
+            short s = le.getShort(i);
+            sumSquares += (double) s * s;
+            if (samples > 0 && (s ^ prev) < 0) crossings++;
+            prev = s;
+            samples++;
+        }
+        if (samples == 0) return false;
+        double rms = Math.sqrt(sumSquares / samples);
+        if (rms >= energyThreshold) return true;
+        double zcr = (double) crossings / samples;
+        return rms >= energyThreshold / 4 && zcr >= zeroCrossingThreshold;
+    }
+}
@@ -0,0 +1,80 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import com.capstone.livenote.domain.transcript.service.TranscriptService;
+import com.capstone.livenote.global.concurrent.KeyedSerialExecutor;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Realtime 중계에서 나온 최종 전사를 OpenAI 리스너 스레드 밖에서 저장한다.
+ *
+ * saveFromStt는 DB insert, STOMP 브로드캐스트, AI 서버 호출까지 동기로 하므로
+ * 리스너 스레드에서 부르면 그동안 다음 업스트림 이벤트를 읽지 못한다.
+ * 강의별로 순서를 지키며(섹션 배정이 순서에 의존) 강의끼리는 병렬로 처리한다.
+ */
+@Component
+@Slf4j
+public class TranscriptPersistencePipeline {
+
+    private final TranscriptService transcriptService;
+    private final RealtimeProperties properties;
+    private final ExecutorService workers;
+    private final KeyedSerialExecutor<Long> lanes;
+
+    public TranscriptPersistencePipeline(TranscriptService transcriptService,
+                                         RealtimeProperties properties,
+                                         MeterRegistry meterRegistry) {
+        this.transcriptService = transcriptService;
+        this.properties = properties;
+        AtomicInteger seq = new AtomicInteger();
+        this.workers = Executors.newFixedThreadPool(properties.getPersist().getThreads(), r -> {
+            Thread t = new Thread(r, "transcript-persist-" + seq.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        this.lanes = new KeyedSerialExecutor<>(workers);
+        Gauge.builder("realtime.transcript.persist.pending", lanes, KeyedSerialExecutor::pendingTasks)
+                .description("저장 대기 중인 최종 전사 수")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 최종 전사 저장을 강의별 순서 큐에 넣고 바로 반환한다.
+     */
+    public void submit(Long lectureId, int startSec, int endSec, String text) {
+        long queuedAt = System.currentTimeMillis();
+        lanes.execute(lectureId, () -> {
+            try {
+                // TranscriptService를 통해 저장 -> SectionAggregationService.onNewTranscript() 자동 호출
+                transcriptService.saveFromStt(lectureId, startSec, endSec, text);
+                log.info("[RealtimeWS] ✅ Transcript saved to DB via TranscriptService: lectureId={} startSec={} endSec={} waited={}ms text={}",
+                        lectureId, startSec, endSec, System.currentTimeMillis() - queuedAt,
+                        text.length() > 50 ? text.substring(0, 50) + "..." : text);
+            } catch (Exception e) {
+                log.error("[RealtimeWS] transcript save failed lectureId={} startSec={} err={}",
+                        lectureId, startSec, e.getMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * 종료 시 대기 중인 전사를 가능한 한 저장하고 내려간다.
+     */
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(properties.getPersist().getShutdownTimeoutSeconds(), TimeUnit.SECONDS)) {
+            log.warn("[RealtimeWS] transcript pipeline shutdown timed out, pending={}", lanes.pendingTasks());
+            workers.shutdownNow();
+        }
+    }
+}
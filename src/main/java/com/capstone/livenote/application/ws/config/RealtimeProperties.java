@@ -0,0 +1,259 @@
+package com.capstone.livenote.application.ws.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * /ws/transcription (OpenAI Realtime 중계) 관련 설정
+ */
+@Getter
+@Setter
+@Component
+@ConfigurationProperties(prefix = "app.realtime")
+public class RealtimeProperties {
+
+    private final Upstream upstream = new Upstream();
+    private final Audio audio = new Audio();
+    private final Persist persist = new Persist();
+    private final Reconnect reconnect = new Reconnect();
+    private final Gate gate = new Gate();
+    private final Partials partials = new Partials();
+    private final Client client = new Client();
+    private final Admission admission = new Admission();
+    private final Archive archive = new Archive();
+
+    @Getter
+    @Setter
+    public static class Upstream {
+        /**
+         * OpenAI Realtime WebSocket 주소 (부하 테스트 시 가짜 서버로 바꿀 수 있다)
+         */
+        private String uri = "wss://api.openai.com/v1/realtime?model=gpt-4o-realtime-preview-2024-10-01";
+
+        /**
+         * session.update까지 마친 상태로 미리 열어 둘 OpenAI 소켓 수 (0이면 사전 연결 안 함)
+         */
+        private int poolSize = 2;
+
+        /**
+         * 풀에서 대기 중인 소켓의 최대 유휴 시간(초). 지나면 닫고 새로 연결
+         */
+        private int maxIdleSeconds = 300;
+
+        /**
+         * OpenAI 연결(TLS + WebSocket 핸드셰이크) 타임아웃(초)
+         */
+        private int connectTimeoutSeconds = 5;
+    }
+
+    @Getter
+    @Setter
+    public static class Audio {
+        /**
+         * input_audio_buffer.append 메시지 버퍼 크기(문자 수). 이보다 큰 프레임은 여러 메시지로 나눠 보낸다
+         */
+        private int messageChars = 16384;
+
+        /**
+         * 노드 전체에서 재사용할 메시지 버퍼 최대 개수
+         */
+        private int bufferPoolSize = 256;
+
+        /**
+         * 프레임을 모아 한 번에 보낼 오디오 길이(ms). 첫 프레임 후 이 시간이 지나면 덜 찼어도 보낸다 (0이면 프레임마다 전송)
+         */
+        private long coalesceMs = 100;
+
+        /**
+         * 모아 보낼 최대 바이트 수 (0이면 coalesceMs로만 결정)
+         */
+        private int coalesceMaxBytes = 0;
+
+        /**
+         * 업스트림으로 보내지 못한 PCM을 쌓아 둘 세션당 최대 바이트 (기본 10초 분량)
+         */
+        private int backlogMaxBytes = 480_000;
+
+        /**
+         * 백로그가 가득 찼을 때 처리 방식
+         */
+        private BacklogDropPolicy backlogDropPolicy = BacklogDropPolicy.DROP_OLDEST;
+
+        /**
+         * 전송 완료를 기다리는 append 메시지가 이 수를 넘으면 새 오디오는 백로그로 보낸다
+         */
+        private int maxInFlightMessages = 32;
+
+        /**
+         * 백로그가 이 비율 이상 차면 클라이언트에 {"type":"flow","paused":true}를 보낸다
+         */
+        private double flowPauseRatio = 0.75;
+
+        /**
+         * 백로그가 이 비율 이하로 비면 {"type":"flow","paused":false}를 보낸다
+         */
+        private double flowResumeRatio = 0.25;
+    }
+
+    @Getter
+    @Setter
+    public static class Persist {
+        /**
+         * 최종 전사 저장(saveFromStt) 워커 스레드 수. 같은 강의의 전사는 항상 순서대로 하나씩 저장된다
+         */
+        private int threads = 4;
+
+        /**
+         * 종료 시 대기 중인 전사 저장을 기다리는 최대 시간(초)
+         */
+        private int shutdownTimeoutSeconds = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Reconnect {
+        /**
+         * OpenAI 소켓이 끊기면 브라우저 세션은 유지한 채 업스트림만 다시 연결한다
+         */
+        private boolean enabled = true;
+
+        /**
+         * 첫 재연결 시도 전 대기 시간(ms). 실패할 때마다 두 배로 늘어난다
+         */
+        private long initialBackoffMs = 250;
+
+        /**
+         * 재연결 대기 시간 상한(ms)
+         */
+        private long maxBackoffMs = 8_000;
+
+        /**
+         * 연속 실패가 이 횟수에 도달하면 클라이언트에 오류를 보내고 세션을 닫는다
+         */
+        private int maxAttempts = 8;
+
+        /**
+         * 재연결 후 다시 보낼 수 있도록 보관할 최근 PCM 바이트 (기본 20초 분량, 0이면 재전송 안 함)
+         */
+        private int replayMaxBytes = 960_000;
+    }
+
+    @Getter
+    @Setter
+    public static class Gate {
+        /**
+         * 긴 무음 구간을 서버에서 걸러 OpenAI로 보내지 않는다 (기본 꺼짐)
+         */
+        private boolean enabled = false;
+
+        /**
+         * 이 RMS(PCM16 진폭) 이상이면 말소리로 본다
+         */
+        private double energyThreshold = 400;
+
+        /**
+         * RMS가 기준의 1/4 이상이고 영교차율(샘플당)이 이 값 이상이면 무성음으로 보고 보낸다
+         */
+        private double zeroCrossingThreshold = 0.3;
+
+        /**
+         * 말소리 뒤로 무음을 계속 보내는 시간(ms). OpenAI VAD silence_duration_ms(500)보다 길어야 발화 끝이 감지된다
+         */
+        private long hangoverMs = 1_000;
+
+        /**
+         * 걸러낸 무음 중 말소리 앞에 붙여 보낼 길이(ms). prefix_padding_ms(300)에 맞춘다
+         */
+        private long preRollMs = 300;
+    }
+
+    @Getter
+    @Setter
+    public static class Partials {
+        /**
+         * 세션당 초당 최대 부분 전사 전송 수. 그 사이 들어온 delta는 모아서 한 번에 보낸다 (0이면 제한 없음)
+         */
+        private int maxPerSecond = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Client {
+        /**
+         * 브라우저로 메시지 하나를 보내는 데 허용하는 최대 시간(ms). 넘기면 세션을 닫는다
+         */
+        private int sendTimeLimitMs = 5_000;
+
+        /**
+         * 브라우저로 아직 보내지 못한 메시지를 쌓아 둘 최대 바이트. 넘기면 세션을 닫는다
+         */
+        private int bufferSizeLimitBytes = 256 * 1024;
+    }
+
+    @Getter
+    @Setter
+    public static class Admission {
+        /**
+         * 노드당 동시에 중계할 최대 세션 수 (0이면 제한 없음)
+         */
+        private int maxSessions = 200;
+
+        /**
+         * 자리가 날 때까지 기다리게 할 최대 세션 수. 넘으면 바로 거절한다
+         */
+        private int maxQueued = 20;
+
+        /**
+         * 대기열에서 기다리는 최대 시간(ms). 그 안에 자리가 나지 않으면 거절한다
+         */
+        private long queueTimeoutMs = 5_000;
+
+        /**
+         * 거절할 때 클라이언트에 알려 줄 재시도 대기 시간(초)
+         */
+        private int retryAfterSeconds = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Archive {
+        /**
+         * 중계한 PCM을 AudioStorage에 남겨 나중에 다시 전사할 수 있게 한다
+         */
+        private boolean enabled = false;
+
+        /**
+         * 보관 파일을 둘 디렉터리 (비우면 AudioStorage 디렉터리 아래 realtime-pcm)
+         */
+        private String dir = "";
+
+        /**
+         * 세션당 쓰기 대기 링 버퍼 크기. 저장이 밀려 가득 차면 새 프레임을 버리고 집계한다 (기본 약 40초 분량)
+         */
+        private int ringBytes = 2 * 1024 * 1024;
+
+        /**
+         * 저장 단위(초). 이만큼 모이면 한 번에 순차 기록한다 (세션이 끝나면 남은 분량도 기록)
+         */
+        private int blockSeconds = 10;
+
+        /**
+         * 기록 스레드가 링 버퍼를 확인하는 주기(ms)
+         */
+        private long flushIntervalMs = 200;
+
+        /**
+         * 종료 시 남은 오디오를 기록하며 기다리는 최대 시간(초)
+         */
+        private int shutdownTimeoutSeconds = 10;
+    }
+
+    public enum BacklogDropPolicy {
+        /** 가장 오래된 오디오부터 버린다 */
+        DROP_OLDEST,
+        /** 새로 들어온 프레임을 버린다 */
+        REJECT
+    }
+}
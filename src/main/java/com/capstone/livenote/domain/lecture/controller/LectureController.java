@@ -1,6 +1,7 @@
 package com.capstone.livenote.domain.lecture.controller;
 
 import com.capstone.livenote.application.ai.client.RagClient;
+import com.capstone.livenote.application.audio.dto.ChunkUploadResponseDto;
 import com.capstone.livenote.application.audio.service.AudioIngestService;
 import com.capstone.livenote.domain.lecture.dto.CreateLectureRequestDto;
 import com.capstone.livenote.domain.lecture.dto.LectureResponseDto;
@@ -122,15 +123,14 @@ public class LectureController {
     @Operation(summary = "AI 서버로 전송할 오디오 청크를 업로드")
     @PostMapping(value="/{lectureId}/audio/chunk",
             consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
-    public ApiResponse<Void> uploadChunk(
+    public ApiResponse<ChunkUploadResponseDto> uploadChunk(
             @PathVariable Long lectureId,
             @RequestPart("file") MultipartFile file,
             @RequestParam int chunkSeq,
             @RequestParam int startSec,
             @RequestParam int endSec
     ) throws IOException {
-        audio.uploadChunk(lectureId, chunkSeq, startSec, endSec, file);
-        return ApiResponse.ok();
+        return ApiResponse.ok(audio.uploadChunk(lectureId, chunkSeq, startSec, endSec, file));
     }
 
     // 강의 종료
@@ -1,5 +1,6 @@
 package com.capstone.livenote.domain.lecture.service;
 
+import com.capstone.livenote.application.audio.service.ChunkTranscriptionPipeline;
 import com.capstone.livenote.domain.bookmark.dto.BookmarkResponseDto;
 import com.capstone.livenote.domain.bookmark.entity.Bookmark;
 import com.capstone.livenote.domain.bookmark.repository.BookmarkRepository;
@@ -16,6 +17,8 @@ import com.capstone.livenote.domain.summary.dto.SummaryResponseDto;
 import com.capstone.livenote.domain.summary.repository.SummaryRepository;
 import com.capstone.livenote.domain.transcript.dto.TranscriptResponseDto;
 import com.capstone.livenote.domain.transcript.repository.TranscriptRepository;
+import com.capstone.livenote.domain.transcript.service.LectureTimelineCache;
+import com.capstone.livenote.domain.transcript.service.TranscriptWriteBehind;
 import com.capstone.livenote.domain.user.entity.User;
 import jakarta.persistence.EntityNotFoundException;
 import org.springframework.transaction.annotation.Transactional;
@@ -38,6 +41,9 @@ public class LectureService {
     private final ResourceRepository resourceRepository;
     private final QnaRepository qnaRepository;
     private final BookmarkRepository bookmarkRepository;
+    private final TranscriptWriteBehind transcriptWriteBehind;
+    private final LectureTimelineCache lectureTimelines;
+    private final ChunkTranscriptionPipeline chunkPipeline;
 
     @Transactional
     public Lecture create(Long userId, CreateLectureRequestDto req){
@@ -84,6 +90,8 @@ public class LectureService {
     public void delete(Long id){
         log.info("🗑️ [DB DELETE] Deleting lecture: lectureId={}", id);
         lectureRepo.deleteById(id);
+        lectureTimelines.evict(id);
+        chunkPipeline.forget(id);
         log.info("✅ [DB DELETE] Lecture deleted: lectureId={}", id);
     }
 //    @Transactional
@@ -111,6 +119,8 @@ public class LectureService {
         lecture.setStatus(Lecture.Status.COMPLETED);
         lecture.setEndAt(java.time.LocalDateTime.now());
         lectureRepo.save(lecture);
+        lectureTimelines.evict(id);
+        chunkPipeline.forget(id);
         log.info("✅ [DB WRITE] Lecture ended: id={} status=COMPLETED", id);
         return lecture;
     }
@@ -131,6 +141,7 @@ public class LectureService {
         Lecture lecture = lectureRepo.findById(lectureId)
                 .orElseThrow(() -> new EntityNotFoundException("lecture"));
         
+        transcriptWriteBehind.awaitFlushed();
         var transcripts = transcriptRepository.findByLectureIdOrderByStartSecAsc(lectureId)
                 .stream()
                 .map(TranscriptResponseDto::from)
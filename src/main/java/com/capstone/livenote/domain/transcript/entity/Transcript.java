@@ -5,7 +5,13 @@ import jakarta.persistence.*;
 import lombok.*;
 
 @Entity
-@Table(name = "transcripts")
+// 강의별 마지막 endSec/섹션 조회(재개/타임라인 초기화)용. section_index까지 넣어 초기화 쿼리가 인덱스만 읽는다
+@Table(
+        name = "transcripts",
+        indexes = {
+                @Index(name = "idx_transcripts_lecture_end_section", columnList = "lecture_id, end_sec, section_index")
+        }
+)
 @Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
 public class Transcript {
     @Id
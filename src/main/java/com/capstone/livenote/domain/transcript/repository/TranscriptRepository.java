@@ -34,6 +34,17 @@ public interface TranscriptRepository extends JpaRepository<Transcript, Long>
     @Query("SELECT MAX(t.endSec) FROM Transcript t WHERE t.lectureId = :lectureId")
     Integer findMaxEndSecByLectureId(@Param("lectureId") Long lectureId);
 
+    // 강의 타임라인 초기화용: 마지막 endSec, 마지막 섹션, 전사 수를 한 번에 (idx_transcripts_lecture_end_section만 읽는다)
+    @Query("SELECT MAX(t.endSec) AS lastEndSec, MAX(t.sectionIndex) AS lastSectionIndex, COUNT(t) AS transcriptCount "
+            + "FROM Transcript t WHERE t.lectureId = :lectureId")
+    TimelineSeed findTimelineSeedByLectureId(@Param("lectureId") Long lectureId);
+
+    interface TimelineSeed {
+        Integer getLastEndSec();
+        Integer getLastSectionIndex();
+        Long getTranscriptCount();
+    }
+
 
     List<Transcript> findByLectureIdAndSectionIndexOrderByStartSecAsc(Long lectureId, Integer sectionIndex);
 }
@@ -0,0 +1,137 @@
+package com.capstone.livenote.domain.transcript.service;
+
+import com.capstone.livenote.domain.transcript.repository.TranscriptRepository.TimelineSeed;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.function.Supplier;
+
+/**
+ * 강의 하나의 전사 타임라인 (마지막 endSec, 현재 섹션, 전사 수, 재시작 감지용 오프셋).
+ *
+ * DB에서 한 번 초기화한 뒤로는 저장할 때마다 메모리에서 갱신하므로
+ * 핸드셰이크/재개 시 transcripts 테이블을 다시 훑지 않는다.
+ * 실시간 핸들러와 저장 스레드가 함께 쓰므로 모든 메서드는 synchronized (잠금은 강의 단위라 다른 강의끼리는 막지 않는다).
+ * DB 초기화도 이 객체의 잠금 안에서 한 번만 하므로, 같은 강의를 동시에 처음 찾는 스레드들은 쿼리를 한 번만 보낸다.
+ */
+@Slf4j
+public final class LectureTimeline {
+
+    // 섹션 기준점(섹션 첫 전사의 startSec)으로부터 이 이상 지나면 새 섹션
+    static final int SECTION_SECONDS = 30;
+
+    private final Long lectureId;
+
+    private int lastEndSec;
+    private long transcriptCount;
+
+    // 현재 섹션. 이 노드에서 아직 전사를 배정하지 않았으면 sectionOpen=false (다음 전사가 새 섹션을 연다)
+    private int sectionIndex;
+    private int sectionStartSec;
+    private boolean sectionOpen;
+
+    // 재시작 감지용: 클라이언트가 보낸 마지막 raw startSec과 거기에 더하는 오프셋
+    private Integer lastRawStartSec;
+    private int baseOffset;
+
+    // 배치는 끝났지만 아직 저장(recordSaved) 전일 수 있는 전사까지 포함한 마지막 endSec
+    private int placedEndSec;
+
+    private volatile boolean seeded;
+    private volatile long lastUsedMillis;
+
+    LectureTimeline(Long lectureId) {
+        this.lectureId = lectureId;
+        this.sectionIndex = -1;
+    }
+
+    /**
+     * 아직 초기화하지 않았으면 seeds로 초기화한다. 실패하면 다음 호출에서 다시 시도한다.
+     */
+    void seedIfNeeded(Supplier<TimelineSeed> seeds) {
+        if (seeded) {
+            return;
+        }
+        synchronized (this) {
+            if (seeded) {
+                return;
+            }
+            TimelineSeed seed = seeds.get();
+            if (seed != null && seed.getTranscriptCount() != null && seed.getTranscriptCount() > 0) {
+                lastEndSec = seed.getLastEndSec() == null ? 0 : seed.getLastEndSec();
+                sectionIndex = seed.getLastSectionIndex() == null ? -1 : seed.getLastSectionIndex();
+                transcriptCount = seed.getTranscriptCount();
+            }
+            seeded = true;
+        }
+    }
+
+    void touch(long nowMillis) {
+        lastUsedMillis = nowMillis;
+    }
+
+    long lastUsedMillis() {
+        return lastUsedMillis;
+    }
+
+    /**
+     * 저장된 마지막 endSec (전사가 없으면 0)
+     */
+    public synchronized int lastEndSec() {
+        return lastEndSec;
+    }
+
+    public synchronized long transcriptCount() {
+        return transcriptCount;
+    }
+
+    /**
+     * 클라이언트 기준 startSec/endSec을 강의 타임라인에 배치한다.
+     *
+     * 오디오 재시작 시 클라이언트 시간이 0부터 리셋되는 경우가 있으므로, 마지막 endSec을 오프셋으로 더해
+     * 시간/섹션이 겹치지 않게 한다. 정상 진행 중(연속 청크)에는 오프셋을 유지한다.
+     * 앞 전사가 다른 스레드에서 아직 저장 중이어도 겹치지 않도록 오프셋은 배치된 마지막 endSec 기준.
+     */
+    synchronized Placement place(int rawStartSec, int rawEndSec) {
+        if (lastRawStartSec == null) {
+            // 첫 청크: 기존 전사가 있으면 이어붙이기 판단
+            if (transcriptCount > 0 && rawStartSec < lastEndSec) {
+                baseOffset = lastEndSec;
+                log.info("🔄 [TranscriptService] Detected resume: lectureId={} baseOffset={}", lectureId, baseOffset);
+            } else {
+                baseOffset = 0;
+            }
+        } else if (rawStartSec < lastRawStartSec && (transcriptCount > 0 || placedEndSec > 0)) {
+            // raw start가 이전보다 작아지면 재시작으로 판단
+            baseOffset = Math.max(lastEndSec, placedEndSec);
+            log.info("🔄 [TranscriptService] Detected restart mid-session: lectureId={} baseOffset={}", lectureId, baseOffset);
+        }
+        lastRawStartSec = rawStartSec;
+
+        int startSec = rawStartSec + baseOffset;
+        int endSec = rawEndSec + baseOffset;
+
+        // 동적 섹션 배정: 섹션 기준점으로부터 30초 이상이면 새 섹션 (재개 직후 첫 전사도 새 섹션)
+        if (sectionIndex < 0) {
+            sectionIndex = 0;
+            sectionStartSec = startSec;
+        } else if (!sectionOpen || startSec - sectionStartSec >= SECTION_SECONDS) {
+            sectionIndex++;
+            sectionStartSec = startSec;
+        }
+        sectionOpen = true;
+        placedEndSec = Math.max(placedEndSec, endSec);
+
+        return new Placement(startSec, endSec, sectionIndex, sectionStartSec);
+    }
+
+    /**
+     * 전사가 저장됐다.
+     */
+    synchronized void recordSaved(int endSec) {
+        transcriptCount++;
+        lastEndSec = Math.max(lastEndSec, endSec);
+    }
+
+    record Placement(int startSec, int endSec, int sectionIndex, int sectionStartSec) {
+    }
+}
@@ -0,0 +1,68 @@
+package com.capstone.livenote.domain.transcript.service;
+
+import com.capstone.livenote.domain.transcript.repository.TranscriptRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 강의별 LectureTimeline 보관소.
+ * 처음 찾는 강의만 인덱스 쿼리 한 번으로 초기화하고(동시에 찾아도 한 번), 이후로는 메모리 값을 쓴다.
+ * (전사는 이 노드의 TranscriptService.saveFromStt로만 저장된다는 전제)
+ * 강의가 끝나면 {@link #evict}로 빼고, 끝내지 않고 떠난 강의는 timeline-idle-minutes 동안 안 쓰면 뺀다
+ * (다시 찾으면 DB에서 다시 초기화한다).
+ */
+@Component
+@RequiredArgsConstructor
+public class LectureTimelineCache {
+
+    private final TranscriptRepository transcriptRepository;
+
+    // 오래 안 쓴 타임라인을 훑는 간격
+    private static final long SWEEP_INTERVAL_MILLIS = TimeUnit.MINUTES.toMillis(1);
+
+    @Value("${app.transcript.timeline-idle-minutes:60}")
+    private long idleMinutes;
+
+    private final Map<Long, LectureTimeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicLong nextSweepMillis = new AtomicLong();
+
+    public LectureTimeline get(Long lectureId) {
+        long now = System.currentTimeMillis();
+        evictIdle(now);
+        // 맵에는 빈 타임라인만 넣고(맵 잠금은 짧게), DB 초기화는 강의별 타임라인 잠금 안에서 한 번만
+        LectureTimeline timeline = timelines.computeIfAbsent(lectureId, LectureTimeline::new);
+        timeline.touch(now);
+        timeline.seedIfNeeded(() -> transcriptRepository.findTimelineSeedByLectureId(lectureId));
+        return timeline;
+    }
+
+    /**
+     * 강의가 끝났을 때 타임라인을 뺀다.
+     */
+    public void evict(Long lectureId) {
+        timelines.remove(lectureId);
+    }
+
+    int size() {
+        return timelines.size();
+    }
+
+    // get을 부르는 스레드 하나가 SWEEP_INTERVAL_MILLIS마다 한 번 훑는다 (0 이하면 끔)
+    private void evictIdle(long now) {
+        if (idleMinutes <= 0) {
+            return;
+        }
+        long next = nextSweepMillis.get();
+        if (now < next || !nextSweepMillis.compareAndSet(next, now + SWEEP_INTERVAL_MILLIS)) {
+            return;
+        }
+        long cutoff = now - TimeUnit.MINUTES.toMillis(idleMinutes);
+        timelines.values().removeIf(timeline -> timeline.lastUsedMillis() < cutoff);
+    }
+}
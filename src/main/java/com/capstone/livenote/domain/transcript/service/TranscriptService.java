@@ -12,9 +12,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.context.annotation.Lazy;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 // STT 저장, 섹션/요약 트리거만
 @Service
@@ -26,35 +24,26 @@ public class TranscriptService {
     private final StreamGateway streamGateway; // 실시간 전송
     private final SectionAggregationService sectionAggregationService;
 
-    // 재시작 감지용: 강의별 raw startSec 오프셋
-    private final Map<Long, Integer> baseOffsets = new HashMap<>();
-    private final Map<Long, Integer> lastRawStarts = new HashMap<>();
-    
-    // 동적 섹션 관리: 강의별 현재 섹션 정보 (sectionIndex, sectionStartSec)
-    private final Map<Long, SectionInfo> currentSections = new HashMap<>();
-    
-    private static class SectionInfo {
-        int index;
-        int startSec;
-        int lastEndSec;
-        
-        SectionInfo(int index, int startSec, int lastEndSec) {
-            this.index = index;
-            this.startSec = startSec;
-            this.lastEndSec = lastEndSec;
-        }
-    }
+    // 강의별 마지막 endSec/현재 섹션/재시작 오프셋 (실시간 핸드셰이크와 공유)
+    private final LectureTimelineCache timelines;
+
+    // 켜져 있으면 insert를 모아서 한 번에 (app.transcript.write-behind)
+    private final TranscriptWriteBehind writeBehind;
 
     // 순환 참조 고리 끊기
     public TranscriptService(TranscriptRepository transcriptRepository,
-                             @Lazy StreamGateway streamGateway, SectionAggregationService sectionAggregationService) {
+                             @Lazy StreamGateway streamGateway, SectionAggregationService sectionAggregationService,
+                             LectureTimelineCache timelines, TranscriptWriteBehind writeBehind) {
         this.transcriptRepository = transcriptRepository;
         this.streamGateway = streamGateway;
         this.sectionAggregationService = sectionAggregationService;
+        this.timelines = timelines;
+        this.writeBehind = writeBehind;
     }
 
     @Transactional(readOnly = true)
     public List<Transcript> findSince(Long lectureId, Integer sinceSec) {
+        writeBehind.awaitFlushed();
         log.info("📂 [DB READ] Fetching transcripts: lectureId={} sinceSec={}", lectureId, sinceSec);
         List<Transcript> result;
         if (sinceSec == null) {
@@ -76,49 +65,39 @@ public class TranscriptService {
      */
     @Transactional
     public TranscriptResponseDto saveFromStt(Long lectureId, int startSec, int endSec, String text) {
-        // 1) 강의별 오프셋 계산 (이전 기록이 있는데 클라이언트 startSec이 리셋된 경우 이어붙이기)
-        int offset = resolveOffset(lectureId, startSec);
-        int adjustedStart = startSec + offset;
-        int adjustedEnd = endSec + offset;
-
-        // 2) 동적 섹션 배정: 현재 전사의 startSec이 섹션 기준점(첫 전사의 startSec)으로부터 30초 이상이면 새 섹션
-        SectionInfo section = currentSections.get(lectureId);
-        if (section == null) {
-            // 첫 전사: Section 0으로 시작, startSec을 기준점으로 설정
-            section = new SectionInfo(0, adjustedStart, adjustedEnd);
-            currentSections.put(lectureId, section);
+        // 1) 강의 타임라인에 배치: 재시작 오프셋 보정 + 동적 섹션 배정 (섹션 기준점으로부터 30초 이상이면 새 섹션)
+        LectureTimeline timeline = timelines.get(lectureId);
+        LectureTimeline.Placement placement = timeline.place(startSec, endSec);
+        int adjustedStart = placement.startSec();
+        int adjustedEnd = placement.endSec();
+        int sectionIndex = placement.sectionIndex();
+
+        log.info("[TranscriptService] Saving transcript: lectureId={} startSec={} endSec={} sectionIndex={} (section baseline: {}s)",
+                lectureId, adjustedStart, adjustedEnd, sectionIndex, placement.sectionStartSec());
+
+        // 2) Transcript 저장 (write-behind면 큐에 넣고 바로 진행, id는 아직 없음)
+        TranscriptResponseDto dto;
+        if (writeBehind.isEnabled()) {
+            writeBehind.enqueue(lectureId, sectionIndex, adjustedStart, adjustedEnd, text);
+            dto = new TranscriptResponseDto(null, lectureId, sectionIndex, adjustedStart, adjustedEnd, text);
         } else {
-            // 현재 전사의 startSec이 섹션 기준점(section.startSec)으로부터 30초 이상이면 새 섹션 시작
-            if (adjustedStart - section.startSec >= 30) {
-                // 새 섹션 시작: 현재 전사의 startSec이 새 섹션의 기준점이 됨
-                section = new SectionInfo(section.index + 1, adjustedStart, adjustedEnd);
-                currentSections.put(lectureId, section);
-            } else {
-                // 같은 섹션 내에서 lastEndSec만 갱신
-                section.lastEndSec = adjustedEnd;
-            }
+            Transcript t = transcriptRepository.save(
+                    Transcript.builder()
+                            .lectureId(lectureId)
+                            .sectionIndex(sectionIndex)
+                            .startSec(adjustedStart)
+                            .endSec(adjustedEnd)
+                            .text(text)
+                            .build()
+            );
+            dto = TranscriptResponseDto.from(t);
         }
-        int sectionIndex = section.index;
-
-        log.info("[TranscriptService] Saving transcript: lectureId={} startSec={} endSec={} sectionIndex={} (section baseline: {}s, range: {}~{}s)",
-                lectureId, adjustedStart, adjustedEnd, sectionIndex, section.startSec, section.startSec, section.lastEndSec);
-
-        // 3) Transcript 엔터티 저장
-        Transcript t = transcriptRepository.save(
-                Transcript.builder()
-                        .lectureId(lectureId)
-                        .sectionIndex(sectionIndex)
-                        .startSec(adjustedStart)
-                        .endSec(adjustedEnd)
-                        .text(text)
-                        .build()
-        );
-
-        // 4) 저장된 전사를 모든 클라이언트에게 실시간 브로드캐스트 (WebSocket)
-        TranscriptResponseDto dto = TranscriptResponseDto.from(t);
+        timeline.recordSaved(adjustedEnd);
+
+        // 3) 저장된 전사를 모든 클라이언트에게 실시간 브로드캐스트 (WebSocket)
         streamGateway.sendTranscript(lectureId, dto, true);
 
-        //  5) 섹션 집계 서비스로 텍스트 전달 (15초/30초 트리거)
+        //  4) 섹션 집계 서비스로 텍스트 전달 (15초/30초 트리거)
         try {
             sectionAggregationService.onNewTranscript(
                     lectureId,
@@ -134,49 +113,10 @@ public class TranscriptService {
         return dto;
     }
 
-    /**
-     * 오디오 재시작 시 클라이언트 startSec/endSec이 0부터 리셋되는 경우가 있으므로,
-     * DB에 저장된 마지막 endSec를 기준으로 offset을 더해 시간/섹션이 겹치지 않도록 한다.
-     * 단, 정상 진행 중(연속 청크)에는 offset=0을 유지한다.
-     */
-    private int resolveOffset(Long lectureId, int rawStartSec) {
-        Integer lastRaw = lastRawStarts.get(lectureId);
-        Integer base = baseOffsets.get(lectureId);
-
-        if (lastRaw == null) {
-            // 첫 청크: 기존 DB 데이터가 있으면 이어붙이기 판단
-            Integer maxEndSec = transcriptRepository.findMaxEndSecByLectureId(lectureId);
-            if (maxEndSec != null && rawStartSec < maxEndSec) {
-                base = maxEndSec;
-                baseOffsets.put(lectureId, base);
-                log.info("🔄 [TranscriptService] Detected resume: lectureId={} baseOffset={}", lectureId, base);
-            } else {
-                base = 0;
-                baseOffsets.put(lectureId, 0);
-            }
-        } else {
-            // 연속 청크인지 확인: raw start가 이전보다 작아지면 재시작으로 판단
-            if (rawStartSec < lastRaw) {
-                Integer maxEndSec = transcriptRepository.findMaxEndSecByLectureId(lectureId);
-                if (maxEndSec != null) {
-                    base = maxEndSec;
-                    baseOffsets.put(lectureId, base);
-                    log.info("🔄 [TranscriptService] Detected restart mid-session: lectureId={} baseOffset={}", lectureId, base);
-                }
-            } else if (base == null) {
-                baseOffsets.put(lectureId, 0);
-                base = 0;
-            }
-        }
-
-        lastRawStarts.put(lectureId, rawStartSec);
-        return base != null ? base : 0;
-    }
-
-
     // 특정 섹션의 텍스트를 모두 합쳐서 반환 (요약 생성용)
     @Transactional(readOnly = true)
     public String getCombinedText(Long lectureId, Integer sectionIndex) {
+        writeBehind.awaitFlushed();
         // 섹션 인덱스로 조회 (repository 메서드 추가 필요)
         List<Transcript> transcripts = transcriptRepository.findByLectureIdAndSectionIndexOrderByStartSecAsc(lectureId, sectionIndex);
 
@@ -0,0 +1,347 @@
+package com.capstone.livenote.domain.transcript.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 전사 write-behind 저장 (app.transcript.write-behind.enabled).
+ *
+ * Transcript는 IDENTITY 키라 Hibernate가 insert를 묶지 못해 전사 하나마다 DB 왕복이 한 번 생긴다.
+ * 켜면 saveFromStt는 행을 이 큐에 넣고 바로 브로드캐스트하며, 쓰기 스레드가 flush-interval-ms마다
+ * (또는 max-batch-rows가 차면) 여러 강의의 행을 multi-row INSERT 한 번으로 넣는다.
+ *
+ * - 넣은 순서대로 쓰므로 강의별 startSec 순서도 유지된다.
+ * - 전사를 읽기 전에 {@link #awaitFlushed()}로 그때까지 넣은 행이 들어가길 기다린다.
+ * - 일괄 INSERT가 실패하면 한 행씩 다시 넣는다. DB 연결 문제 같은 일시적 오류면 남은 행은 그대로 두고
+ *   다음 주기에 다시 시도하고, 제약 위반처럼 다시 해도 안 되는 행은 rejected-file에 JSON 줄로 옮기고 넘어간다
+ *   (한 행 때문에 노드의 전사 저장이 멈추지 않도록).
+ * - 종료 시 남은 행은 spill-file에 JSON 줄로 남기고 다음 기동 때 먼저 넣는다. 쓰기 스레드가 제때 끝나지 않아도
+ *   남기므로, 그 스레드가 쓰던 행은 다음 기동 때 한 번 더 들어갈 수 있다.
+ * - 브로드캐스트되는 전사의 id는 아직 없으므로 null이다.
+ */
+@Component
+@Slf4j
+public class TranscriptWriteBehind {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO transcripts (lecture_id, section_index, start_sec, end_sec, text) VALUES ";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final DistributionSummary batchRows;
+    private final Counter writeFailures;
+    private final Counter rejectedRows;
+
+    @Value("${app.transcript.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.transcript.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMillis;
+
+    @Value("${app.transcript.write-behind.max-batch-rows:100}")
+    private int maxBatchRows;
+
+    @Value("${app.transcript.write-behind.read-wait-ms:5000}")
+    private long readWaitMillis;
+
+    @Value("${app.transcript.write-behind.spill-file:${app.storage.audio-dir:uploads/audio}/transcript-spill.jsonl}")
+    private String spillFile;
+
+    @Value("${app.transcript.write-behind.rejected-file:${app.storage.audio-dir:uploads/audio}/transcript-rejected.jsonl}")
+    private String rejectedFile;
+
+    @Value("${app.transcript.write-behind.shutdown-timeout-seconds:10}")
+    private int shutdownTimeoutSeconds;
+
+    // 아래는 모두 this로 보호. 큐에서 꺼내는 건 쓰기 스레드(종료 후에는 shutdown)만 한다
+    private final ArrayDeque<Row> queue = new ArrayDeque<>();
+    private long enqueued;      // 지금까지 넣은 행 수
+    private long written;       // 지금까지 DB에 넣은 행 수 (넣은 순서대로 쓰므로 enqueued와 비교하면 된다)
+    private long spillReplayMark;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    public TranscriptWriteBehind(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.batchRows = DistributionSummary.builder("transcript.write.batch.rows")
+                .description("INSERT 한 번에 넣은 전사 행 수")
+                .register(meterRegistry);
+        this.writeFailures = Counter.builder("transcript.write.failed")
+                .description("실패해서 다시 시도한 전사 일괄 INSERT 수")
+                .register(meterRegistry);
+        this.rejectedRows = Counter.builder("transcript.write.rejected")
+                .description("DB가 받지 않아 rejected-file로 옮긴 전사 행 수")
+                .register(meterRegistry);
+        Gauge.builder("transcript.write.pending", this, TranscriptWriteBehind::pending)
+                .description("DB에 아직 넣지 않은 전사 행 수")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        replaySpill();
+        running = true;
+        writer = new Thread(this::writeLoop, "transcript-write-behind");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        if (writer == null) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(writer);
+        writer.join(TimeUnit.SECONDS.toMillis(shutdownTimeoutSeconds));
+        if (writer.isAlive()) {
+            // DB 호출에 묶여 있어도 남은 행은 잃지 않게 남긴다 (쓰던 행은 다음 기동 때 중복될 수 있다)
+            log.warn("[TranscriptWriteBehind] writer did not stop within {}s, spilling queue", shutdownTimeoutSeconds);
+        } else {
+            writeAll(); // 마지막으로 한 번 더
+        }
+        spillRemaining();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void enqueue(Long lectureId, int sectionIndex, int startSec, int endSec, String text) {
+        boolean full;
+        synchronized (this) {
+            queue.add(new Row(lectureId, sectionIndex, startSec, endSec, text));
+            enqueued++;
+            full = queue.size() >= maxBatchRows;
+        }
+        if (full) {
+            LockSupport.unpark(writer);
+        }
+    }
+
+    /**
+     * 지금까지 넣은 행이 모두 DB에 들어갈 때까지 기다린다 (전사 조회 전에).
+     *
+     * @return read-wait-ms 안에 들어갔으면 true (꺼져 있으면 항상 true)
+     */
+    public boolean awaitFlushed() {
+        if (!enabled) {
+            return true;
+        }
+        long mark;
+        synchronized (this) {
+            mark = enqueued;
+            if (written >= mark) return true;
+        }
+        LockSupport.unpark(writer);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(readWaitMillis);
+        synchronized (this) {
+            try {
+                while (written < mark) {
+                    long leftMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                    if (leftMillis <= 0) {
+                        log.warn("[TranscriptWriteBehind] read proceeded before flush, pending={}", queue.size());
+                        return false;
+                    }
+                    wait(leftMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized int pending() {
+        return queue.size();
+    }
+
+    private void writeLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(flushIntervalMillis));
+            writeAll();
+        }
+    }
+
+    /**
+     * 큐가 빌 때까지 max-batch-rows씩 넣는다. 일괄 INSERT가 실패하면 한 행씩 넣고,
+     * 일시적 오류로 멈추면 남은 행은 그대로 두고 반환한다.
+     */
+    private void writeAll() {
+        while (true) {
+            List<Row> batch = new ArrayList<>();
+            synchronized (this) {
+                Iterator<Row> it = queue.iterator();
+                while (it.hasNext() && batch.size() < Math.max(1, maxBatchRows)) {
+                    batch.add(it.next());
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                insert(batch);
+            } catch (Exception e) {
+                writeFailures.increment();
+                log.warn("[TranscriptWriteBehind] batch insert failed rows={} err={}", batch.size(), e.getMessage());
+                if (!writeOneByOne(batch)) {
+                    return;
+                }
+                continue;
+            }
+            batchRows.record(batch.size());
+            removeWritten(batch.size());
+        }
+    }
+
+    /**
+     * @return 모든 행을 넣었거나 옮겼으면 true, 일시적 오류로 멈췄으면 false
+     */
+    private boolean writeOneByOne(List<Row> batch) {
+        for (Row row : batch) {
+            try {
+                insert(List.of(row));
+            } catch (Exception e) {
+                if (!isPermanent(e)) {
+                    return false;
+                }
+                reject(row, e);
+            }
+            removeWritten(1);
+        }
+        return true;
+    }
+
+    // 같은 행을 다시 넣어도 실패할 오류 (제약 위반, 너무 긴 값 등). 연결/자원 문제는 다시 시도한다
+    private static boolean isPermanent(Exception e) {
+        return e instanceof NonTransientDataAccessException
+                && !(e instanceof NonTransientDataAccessResourceException);
+    }
+
+    private void reject(Row row, Exception cause) {
+        rejectedRows.increment();
+        log.error("[TranscriptWriteBehind] transcript rejected by DB, moved to {} lecture={} startSec={} err={}",
+                rejectedFile, row.lectureId(), row.startSec(), cause.getMessage());
+        Path path = Paths.get(rejectedFile);
+        try {
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Files.writeString(path, objectMapper.writeValueAsString(row) + "\n", StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.error("[TranscriptWriteBehind] could not keep rejected transcript err={}", e.getMessage());
+        }
+    }
+
+    private synchronized void removeWritten(int rows) {
+        for (int i = 0; i < rows; i++) {
+            queue.poll();
+        }
+        written += rows;
+        if (spillReplayMark > 0 && written >= spillReplayMark) {
+            spillReplayMark = 0;
+            deleteSpill();
+        }
+        notifyAll();
+    }
+
+    private void insert(List<Row> batch) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX);
+        Object[] args = new Object[batch.size() * 5];
+        int i = 0;
+        for (Row row : batch) {
+            sql.append(i == 0 ? "(?, ?, ?, ?, ?)" : ", (?, ?, ?, ?, ?)");
+            args[i++] = row.lectureId();
+            args[i++] = row.sectionIndex();
+            args[i++] = row.startSec();
+            args[i++] = row.endSec();
+            args[i++] = row.text();
+        }
+        jdbcTemplate.update(sql.toString(), args);
+    }
+
+    /**
+     * 지난 종료 때 남긴 행을 큐 앞에 넣는다. 파일은 그 행들이 모두 들어간 뒤 지운다.
+     */
+    private void replaySpill() throws IOException {
+        Path path = Paths.get(spillFile);
+        if (!Files.exists(path)) {
+            return;
+        }
+        List<String> lines = Files.readAllLines(path, StandardCharsets.UTF_8);
+        synchronized (this) {
+            for (String line : lines) {
+                if (line.isBlank()) continue;
+                queue.add(objectMapper.readValue(line, Row.class));
+                enqueued++;
+            }
+            spillReplayMark = enqueued;
+        }
+        log.info("[TranscriptWriteBehind] replaying {} spilled transcripts from {}", enqueued, path);
+        if (enqueued == 0) {
+            deleteSpill();
+        }
+    }
+
+    private synchronized void spillRemaining() {
+        spillReplayMark = 0; // 늦게 끝난 쓰기 스레드가 새로 남긴 파일을 지우지 않도록
+        if (queue.isEmpty()) {
+            return;
+        }
+        Path path = Paths.get(spillFile);
+        try {
+            List<String> lines = new ArrayList<>(queue.size());
+            for (Row row : queue) {
+                lines.add(objectMapper.writeValueAsString(row));
+            }
+            Files.createDirectories(path.toAbsolutePath().getParent());
+            Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.warn("[TranscriptWriteBehind] spilled {} unwritten transcripts to {}", lines.size(), path);
+        } catch (IOException e) {
+            log.error("[TranscriptWriteBehind] spill failed, {} transcripts lost err={}", queue.size(), e.getMessage(), e);
+        }
+    }
+
+    private void deleteSpill() {
+        try {
+            Files.deleteIfExists(Paths.get(spillFile));
+        } catch (IOException e) {
+            log.warn("[TranscriptWriteBehind] could not delete spill file err={}", e.getMessage());
+        }
+    }
+
+    record Row(Long lectureId, int sectionIndex, int startSec, int endSec, String text) {
+    }
+}
@@ -0,0 +1,119 @@
+package com.capstone.livenote.global.concurrent;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 같은 key의 작업은 제출 순서대로 하나씩, 다른 key의 작업은 공유 executor에서 병렬로 실행한다.
+ *
+ * key마다 스레드를 두지 않고 대기 중인 작업이 있는 key만 executor에 올라가므로,
+ * 강의/세션 수가 늘어도 스레드 수는 executor 크기로 고정된다.
+ */
+@Slf4j
+public class KeyedSerialExecutor<K> {
+
+    // 한 key가 스레드를 오래 붙잡지 않도록, 이만큼 실행하면 executor 뒤로 다시 줄을 선다
+    private static final int MAX_BATCH = 32;
+
+    private final Executor executor;
+    private final ConcurrentHashMap<K, Lane> lanes = new ConcurrentHashMap<>();
+
+    public KeyedSerialExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @throws RejectedExecutionException executor가 받지 않으면 (task는 대기열에서 빼고 던진다)
+     */
+    public void execute(K key, Runnable task) {
+        boolean[] start = new boolean[1];
+        Lane lane = lanes.compute(key, (k, l) -> {
+            if (l == null) l = new Lane(k);
+            l.tasks.add(task);
+            if (!l.scheduled) {
+                l.scheduled = true;
+                start[0] = true;
+            }
+            return l;
+        });
+        if (start[0]) {
+            try {
+                executor.execute(lane);
+            } catch (RejectedExecutionException e) {
+                // lane이 scheduled로 남으면 이 key의 이후 작업이 영영 실행되지 않는다
+                lanes.computeIfPresent(key, (k, l) -> {
+                    l.tasks.remove(task);
+                    l.scheduled = false;
+                    return l.tasks.isEmpty() ? null : l;
+                });
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * 실행 대기 중인 작업 수 (모든 key 합계)
+     */
+    public int pendingTasks() {
+        int sum = 0;
+        for (Lane lane : lanes.values()) {
+            sum += lane.size();
+        }
+        return sum;
+    }
+
+    private final class Lane implements Runnable {
+        private final K key;
+        private final Queue<Runnable> tasks = new ArrayDeque<>(); // lanes.compute 안에서만 접근
+        private boolean scheduled;
+
+        Lane(K key) {
+            this.key = key;
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                for (int i = 0; i < MAX_BATCH; i++) {
+                    Runnable next = poll();
+                    if (next == null) return;
+                    try {
+                        next.run();
+                    } catch (Throwable t) {
+                        log.error("[KeyedSerialExecutor] task failed key={} err={}", key, t.getMessage(), t);
+                    }
+                }
+                try {
+                    executor.execute(this);
+                    return;
+                } catch (RejectedExecutionException e) {
+                    // executor가 종료 중이면 남은 작업은 이 스레드에서 마저 처리한다
+                }
+            }
+        }
+
+        // 비었으면 lane을 맵에서 제거한다 (다음 execute가 새 lane을 만든다)
+        private Runnable poll() {
+            Object[] out = new Object[1];
+            lanes.computeIfPresent(key, (k, l) -> {
+                out[0] = l.tasks.poll();
+                return out[0] == null ? null : l;
+            });
+            return (Runnable) out[0];
+        }
+
+        private int size() {
+            int[] size = new int[1];
+            lanes.computeIfPresent(key, (k, l) -> {
+                size[0] = l.tasks.size();
+                return l;
+            });
+            return size[0];
+        }
+    }
+}
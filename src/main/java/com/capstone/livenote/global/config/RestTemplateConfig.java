@@ -1,19 +1,135 @@
 package com.capstone.livenote.global.config;
 
-import java.time.Duration;
-import org.springframework.boot.web.client.RestTemplateBuilder;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.classic.ExecChainHandler;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.concurrent.Cancellable;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenAI STT(Whisper) 호출용 RestTemplate.
+ *
+ * api.openai.com 연결을 keep-alive 풀에서 재사용하고, 라우트당 연결 수가 곧 동시 STT 요청 상한이 된다
+ * (넘는 요청은 pool-acquire-timeout까지 연결을 기다린다).
+ * 연결/읽기 타임아웃과 별개로 요청 전체(업로드 + 응답 헤더까지)에 deadline을 건다.
+ */
 @Configuration
 public class RestTemplateConfig {
 
-    @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplateBuilder()
-                .connectTimeout(Duration.ofSeconds(30))
-                .readTimeout(Duration.ofSeconds(60))
+    @Value("${app.openai.stt.http.max-per-route:16}")
+    private int maxPerRoute;
+
+    @Value("${app.openai.stt.http.max-total:32}")
+    private int maxTotal;
+
+    @Value("${app.openai.stt.http.connect-timeout-ms:5000}")
+    private long connectTimeoutMs;
+
+    @Value("${app.openai.stt.http.read-timeout-ms:60000}")
+    private long readTimeoutMs;
+
+    @Value("${app.openai.stt.http.deadline-ms:120000}")
+    private long deadlineMs;
+
+    @Value("${app.openai.stt.http.pool-acquire-timeout-ms:30000}")
+    private long poolAcquireTimeoutMs;
+
+    @Value("${app.openai.stt.http.keep-alive-seconds:60}")
+    private long keepAliveSeconds;
+
+    // 요청 deadline이 지나면 진행 중인 요청을 끊는 타이머
+    private final ScheduledExecutorService deadlineTimer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "stt-http-deadline");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PreDestroy
+    void shutdown() {
+        deadlineTimer.shutdownNow();
+    }
+
+    @Bean(destroyMethod = "close")
+    public PoolingHttpClientConnectionManager sttConnectionManager(MeterRegistry meterRegistry) {
+        PoolingHttpClientConnectionManager manager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnPerRoute(maxPerRoute)
+                .setMaxConnTotal(maxTotal)
+                .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.STRICT)
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.ofMilliseconds(connectTimeoutMs))
+                        .setSocketTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .setTimeToLive(TimeValue.ofMinutes(10))
+                        .setValidateAfterInactivity(TimeValue.ofSeconds(10))
+                        .build())
+                .build();
+        Gauge.builder("stt.http.pool.leased", manager, m -> m.getTotalStats().getLeased())
+                .description("사용 중인 STT HTTP 연결 수")
+                .register(meterRegistry);
+        Gauge.builder("stt.http.pool.available", manager, m -> m.getTotalStats().getAvailable())
+                .description("keep-alive로 대기 중인 STT HTTP 연결 수")
+                .register(meterRegistry);
+        Gauge.builder("stt.http.pool.pending", manager, m -> m.getTotalStats().getPending())
+                .description("연결이 나기를 기다리는 STT 요청 수")
+                .register(meterRegistry);
+        return manager;
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient sttHttpClient(PoolingHttpClientConnectionManager sttConnectionManager) {
+        return HttpClients.custom()
+                .setConnectionManager(sttConnectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.ofMilliseconds(poolAcquireTimeoutMs))
+                        .setResponseTimeout(Timeout.ofMilliseconds(readTimeoutMs))
+                        .build())
+                .setKeepAliveStrategy((response, context) -> TimeValue.ofSeconds(keepAliveSeconds))
+                .evictIdleConnections(TimeValue.ofSeconds(keepAliveSeconds))
+                .evictExpiredConnections()
+                .addExecInterceptorFirst("deadline", deadline())
                 .build();
     }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient sttHttpClient) {
+        return new RestTemplate(new HttpComponentsClientHttpRequestFactory(sttHttpClient));
+    }
+
+    /**
+     * 요청마다 deadline 타이머를 걸고, 응답 헤더를 받기 전에 울리면 연결을 끊어 요청을 실패시킨다.
+     */
+    private ExecChainHandler deadline() {
+        return (request, scope, chain) -> {
+            ScheduledFuture<?> abort = deadlineTimer.schedule(() -> {
+                if (scope.originalRequest instanceof Cancellable cancellable) {
+                    cancellable.cancel();
+                } else {
+                    scope.execRuntime.discardEndpoint();
+                }
+            }, deadlineMs, TimeUnit.MILLISECONDS);
+            try {
+                return chain.proceed(request, scope);
+            } finally {
+                abort.cancel(false);
+            }
+        };
+    }
 }
@@ -0,0 +1,84 @@
+package com.capstone.livenote.application.audio.service;
+
+import com.capstone.livenote.application.audio.dto.ChunkUploadResponseDto;
+import com.capstone.livenote.application.audio.storage.AudioStorage;
+import com.capstone.livenote.domain.lecture.entity.Lecture;
+import com.capstone.livenote.domain.lecture.repository.LectureRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AudioIngestServiceTest {
+
+    private final AudioStorage storage = mock(AudioStorage.class);
+    private final ChunkTranscriptionPipeline pipeline = mock(ChunkTranscriptionPipeline.class);
+    private final LectureRepository lectureRepository = mock(LectureRepository.class);
+    private final SttResultCache resultCache = new SttResultCache(100);
+    private final AudioIngestService service =
+            new AudioIngestService(storage, pipeline, lectureRepository, resultCache);
+
+    private final MockMultipartFile file = new MockMultipartFile("file", "0.webm", "audio/webm", new byte[]{1, 2, 3});
+
+    AudioIngestServiceTest() {
+        when(lectureRepository.findById(7L)).thenReturn(Optional.of(
+                Lecture.builder().id(7L).userId(1L).title("t").sttLanguage("ko").build()));
+    }
+
+    @Test
+    void retriedChunkIsNotStoredOrTranscribedAgain() throws IOException {
+        ChunkUploadResponseDto first = service.uploadChunk(7L, 0, 0, 5, file);
+        ChunkUploadResponseDto retry = service.uploadChunk(7L, 0, 0, 5, file);
+
+        assertThat(first.isDuplicate()).isFalse();
+        assertThat(retry.isDuplicate()).isTrue();
+        assertThat(retry.getStatus()).isEqualTo("processing");
+        verify(storage, times(1)).save(anyLong(), anyInt(), anyInt(), any(InputStream.class));
+        verify(pipeline, times(1)).submit(anyLong(), anyInt(), anyInt(), anyInt(), any(), anyString(), anyString());
+
+        resultCache.completed(7L, 0, "안녕하세요");
+        ChunkUploadResponseDto afterDone = service.uploadChunk(7L, 0, 0, 5, file);
+        assertThat(afterDone.getStatus()).isEqualTo("done");
+        assertThat(afterDone.getText()).isEqualTo("안녕하세요");
+    }
+
+    @Test
+    void retryOfChunkThatFailedTranscriptionIsProcessedAgain() throws IOException {
+        service.uploadChunk(7L, 2, 10, 15, file);
+        resultCache.release(7L, 2); // 파이프라인이 STT/저장 실패 시 하는 것
+
+        ChunkUploadResponseDto retry = service.uploadChunk(7L, 2, 10, 15, file);
+
+        assertThat(retry.isDuplicate()).isFalse();
+        assertThat(retry.getStatus()).isEqualTo("accepted");
+        verify(storage, times(2)).save(eq(7L), eq(2), anyInt(), any(InputStream.class));
+        verify(pipeline, times(2)).submit(eq(7L), eq(2), anyInt(), anyInt(), any(), anyString(), anyString());
+    }
+
+    @Test
+    void failedUploadCanBeRetried() throws IOException {
+        when(storage.save(eq(7L), eq(1), anyInt(), any(InputStream.class)))
+                .thenThrow(new IOException("disk full"))
+                .thenReturn("ok");
+
+        assertThatThrownBy(() -> service.uploadChunk(7L, 1, 5, 10, file)).isInstanceOf(IOException.class);
+        ChunkUploadResponseDto retry = service.uploadChunk(7L, 1, 5, 10, file);
+
+        assertThat(retry.isDuplicate()).isFalse();
+        verify(pipeline, times(1)).submit(eq(7L), eq(1), anyInt(), anyInt(), any(), anyString(), anyString());
+    }
+}
@@ -0,0 +1,224 @@
+package com.capstone.livenote.application.audio.service;
+
+import com.capstone.livenote.application.openai.service.OpenAiSttService;
+import com.capstone.livenote.application.ws.StreamGateway;
+import com.capstone.livenote.domain.transcript.service.TranscriptService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ChunkTranscriptionPipelineTest {
+
+    private static final Resource AUDIO = new ByteArrayResource(new byte[]{1});
+
+    private final OpenAiSttService sttService = mock(OpenAiSttService.class);
+    private final TranscriptService transcriptService = mock(TranscriptService.class);
+    private final SttResultCache resultCache = new SttResultCache(100);
+    private final StreamGateway streamGateway = mock(StreamGateway.class);
+    private final ChunkTranscriptionPipeline pipeline =
+            new ChunkTranscriptionPipeline(sttService, transcriptService, resultCache, streamGateway);
+
+    private final List<String> saved = new CopyOnWriteArrayList<>();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+
+    ChunkTranscriptionPipelineTest() {
+        ReflectionTestUtils.setField(pipeline, "sttThreads", 8);
+        ReflectionTestUtils.setField(pipeline, "maxInFlightPerLecture", 3);
+        ReflectionTestUtils.setField(pipeline, "gapTimeoutMs", 200L);
+        ReflectionTestUtils.setField(pipeline, "sttAttempts", 2);
+        ReflectionTestUtils.setField(pipeline, "sttRetryBackoffMs", 10L);
+        ReflectionTestUtils.setField(pipeline, "shutdownTimeoutSeconds", 1);
+        pipeline.init();
+
+        doAnswer(inv -> {
+            saved.add(inv.getArgument(3));
+            return null;
+        }).when(transcriptService).saveFromStt(anyLong(), anyInt(), anyInt(), anyString());
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        pipeline.shutdown();
+    }
+
+    @Test
+    void transcribesInParallelButSavesInChunkOrder() throws Exception {
+        // 앞 순번일수록 오래 걸리게 해서 결과가 역순으로 끝나도록
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString())).thenAnswer(inv -> {
+            String filename = inv.getArgument(2);
+            int seq = Integer.parseInt(filename.substring(filename.indexOf('_') + 1, filename.indexOf('.')));
+            maxConcurrent.accumulateAndGet(concurrent.incrementAndGet(), Math::max);
+            Thread.sleep(20L * (6 - seq));
+            concurrent.decrementAndGet();
+            return "t" + seq;
+        });
+
+        for (int seq = 0; seq < 6; seq++) {
+            pipeline.submit(1L, seq, seq * 5, seq * 5 + 5, AUDIO, "ko");
+        }
+
+        awaitSaved(6);
+        assertThat(saved).containsExactly("t0", "t1", "t2", "t3", "t4", "t5");
+        assertThat(maxConcurrent.get()).isBetween(2, 3);
+    }
+
+    @Test
+    void failedChunkAndMissingChunkAreSkipped() throws Exception {
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString())).thenAnswer(inv -> {
+            String filename = inv.getArgument(2);
+            if (filename.endsWith("_1.webm")) throw new RuntimeException("STT 처리 실패");
+            return filename;
+        });
+
+        pipeline.submit(1L, 0, 0, 5, AUDIO, "ko");
+        pipeline.submit(1L, 1, 5, 10, AUDIO, "ko");
+        pipeline.submit(1L, 3, 15, 20, AUDIO, "ko"); // 2번은 업로드되지 않음
+
+        awaitSaved(2);
+        assertThat(saved).containsExactly("1_0.webm", "1_3.webm");
+
+        // 끝내 실패한 청크는 강의 error 채널로 알리고, 접수 기록을 지워 재전송을 받을 수 있게 한다
+        verify(streamGateway, timeout(5_000)).sendError(eq(1L), contains("청크 1"));
+        verify(sttService, times(2)).transcribe(anyLong(), any(Resource.class), eq("1_1.webm"), anyString());
+        assertThat(resultCache.claim(1L, 1)).isNull();
+    }
+
+    @Test
+    void transientSttErrorIsRetried() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString())).thenAnswer(inv -> {
+            if (calls.incrementAndGet() == 1) throw new RuntimeException("503");
+            return inv.getArgument(2);
+        });
+
+        pipeline.submit(1L, 0, 0, 5, AUDIO, "ko");
+
+        awaitSaved(1);
+        assertThat(saved).containsExactly("1_0.webm");
+        verify(streamGateway, never()).sendError(anyLong(), anyString());
+    }
+
+    @Test
+    void chunkThatFailedSttIsProcessedWhenUploadedAgain() throws Exception {
+        ReflectionTestUtils.setField(pipeline, "gapTimeoutMs", 60_000L);
+        AtomicBoolean whisperDown = new AtomicBoolean(true);
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString())).thenAnswer(inv -> {
+            String filename = inv.getArgument(2);
+            if (filename.endsWith("_1.webm") && whisperDown.get()) throw new RuntimeException("STT 처리 실패");
+            return filename;
+        });
+
+        pipeline.submit(1L, 0, 0, 5, AUDIO, "ko");
+        pipeline.submit(1L, 1, 5, 10, AUDIO, "ko");
+        pipeline.submit(1L, 2, 10, 15, AUDIO, "ko");
+        verify(streamGateway, timeout(5_000)).sendError(eq(1L), contains("청크 1"));
+        awaitSaved(1);
+        assertThat(saved).containsExactly("1_0.webm"); // 2번은 1번 자리를 기다린다
+
+        whisperDown.set(false);
+        assertThat(resultCache.claim(1L, 1)).isNull(); // 업로드 API가 하는 것처럼 다시 접수
+        pipeline.submit(1L, 1, 5, 10, AUDIO, "ko");
+
+        awaitSaved(3);
+        assertThat(saved).containsExactly("1_0.webm", "1_1.webm", "1_2.webm");
+    }
+
+    @Test
+    void chunkArrivingAfterItsSlotWasPassedIsDroppedNotCommitted() throws Exception {
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString()))
+                .thenAnswer(inv -> inv.getArgument(2));
+
+        pipeline.submit(1L, 0, 0, 5, AUDIO, "ko");
+        pipeline.submit(1L, 1, 5, 10, AUDIO, "ko");
+        pipeline.submit(1L, 3, 15, 20, AUDIO, "ko"); // 2번은 gap-timeout 뒤에 도착
+        awaitSaved(3);
+
+        pipeline.submit(1L, 2, 10, 15, AUDIO, "ko");
+        pipeline.submit(1L, 4, 20, 25, AUDIO, "ko");
+        awaitSaved(4);
+
+        // 늦은 2번을 끼워 넣으면 타임라인이 재시작으로 보고 이후 전사를 밀어 버린다
+        assertThat(saved).containsExactly("1_0.webm", "1_1.webm", "1_3.webm", "1_4.webm");
+        verify(transcriptService, never()).saveFromStt(eq(1L), eq(10), eq(15), anyString());
+        verify(streamGateway, timeout(5_000)).sendError(eq(1L), contains("청크 2"));
+        assertThat(resultCache.claim(1L, 2)).isNull();
+    }
+
+    @Test
+    void earlierChunkArrivingBeforeFirstSaveIsNotDropped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString())).thenAnswer(inv -> {
+            String filename = inv.getArgument(2);
+            if (filename.endsWith("_1.webm")) release.await(5, TimeUnit.SECONDS);
+            return filename;
+        });
+
+        pipeline.submit(1L, 1, 5, 10, AUDIO, "ko");
+        pipeline.submit(1L, 0, 0, 5, AUDIO, "ko");
+        release.countDown();
+
+        awaitSaved(2);
+        assertThat(saved).containsExactly("1_0.webm", "1_1.webm");
+    }
+
+    @Test
+    void lectureWhoseSeqsStartAtOneDoesNotWaitForChunkZero() throws Exception {
+        ReflectionTestUtils.setField(pipeline, "gapTimeoutMs", 60_000L);
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString()))
+                .thenAnswer(inv -> inv.getArgument(2));
+
+        pipeline.submit(1L, 1, 5, 10, AUDIO, "ko");
+        awaitSaved(1);
+        pipeline.submit(1L, 2, 10, 15, AUDIO, "ko");
+
+        awaitSaved(2);
+        assertThat(saved).containsExactly("1_1.webm", "1_2.webm");
+    }
+
+    @Test
+    void sameContentIsTranscribedOnceAndRecordedForRetries() throws Exception {
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString())).thenReturn("같은 내용");
+        resultCache.claim(1L, 0);
+
+        pipeline.submit(1L, 0, 0, 5, AUDIO, "ko", "hash-a");
+        awaitSaved(1);
+        pipeline.submit(1L, 1, 5, 10, AUDIO, "ko", "hash-a");
+        awaitSaved(2);
+
+        assertThat(saved).containsExactly("같은 내용", "같은 내용");
+        verify(sttService, times(1)).transcribe(anyLong(), any(Resource.class), anyString(), anyString());
+        assertThat(resultCache.claim(1L, 0).get(5, TimeUnit.SECONDS)).isEqualTo("같은 내용");
+    }
+
+    private void awaitSaved(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (saved.size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.capstone.livenote.application.audio.service;
+
+import com.capstone.livenote.application.audio.storage.AudioStorage;
+import com.capstone.livenote.application.openai.service.OpenAiSttService;
+import com.capstone.livenote.application.openai.service.SttCircuitBreaker;
+import com.capstone.livenote.domain.transcript.service.TranscriptService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DeferredTranscriptionQueueTest {
+
+    @TempDir
+    Path dir;
+
+    private final AudioStorage storage = mock(AudioStorage.class);
+    private final OpenAiSttService sttService = mock(OpenAiSttService.class);
+    private final TranscriptService transcriptService = mock(TranscriptService.class);
+    private final SttCircuitBreaker breaker = new SttCircuitBreaker(new SimpleMeterRegistry());
+
+    private DeferredTranscriptionQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 1);
+        ReflectionTestUtils.setField(breaker, "openMillis", 60_000L);
+        when(storage.root()).thenReturn(dir);
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString()))
+                .thenAnswer(inv -> "text-" + inv.getArgument(2, String.class));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (queue != null) queue.shutdown();
+    }
+
+    @Test
+    void waitsWhileBreakerIsOpenThenCommitsInOrder() throws Exception {
+        breaker.onFailure(); // 열림
+        queue = open();
+        List<String> committed = new CopyOnWriteArrayList<>();
+        queue.enqueue(7L, 0, 0, 5, "ko", new byte[]{1}, committed::add);
+        queue.enqueue(7L, 1, 5, 10, "ko", new byte[]{2}, committed::add);
+
+        assertThat(queue.hasPending(7L)).isTrue();
+        Thread.sleep(100);
+        verify(sttService, never()).transcribe(anyLong(), any(Resource.class), anyString(), anyString());
+
+        breaker.onSuccess(); // 복구
+        verify(transcriptService, timeout(5_000)).saveFromStt(7L, 5, 10, "text-7_1.webm");
+        InOrder order = inOrder(transcriptService);
+        order.verify(transcriptService).saveFromStt(7L, 0, 5, "text-7_0.webm");
+        order.verify(transcriptService).saveFromStt(7L, 5, 10, "text-7_1.webm");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (committed.size() < 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(committed).containsExactly("text-7_0.webm", "text-7_1.webm");
+        assertThat(queue.hasPending(7L)).isFalse();
+        // 전사가 저장된 항목의 오디오는 지운다
+        assertThat(spoolAudio()).isEmpty();
+    }
+
+    @Test
+    void pendingEntriesSurviveRestart() throws Exception {
+        breaker.onFailure();
+        queue = open();
+        queue.enqueue(7L, 0, 0, 5, "ko", new byte[]{1}, null);
+        queue.enqueue(8L, 3, 15, 20, "en", new byte[]{2}, null);
+        queue.enqueue(7L, 1, 5, 10, "ko", new byte[]{3}, null);
+        queue.shutdown();
+
+        queue = open();
+        assertThat(queue.size()).isEqualTo(3);
+        assertThat(queue.hasPending(8L)).isTrue();
+
+        breaker.onSuccess();
+        verify(transcriptService, timeout(5_000)).saveFromStt(7L, 5, 10, "text-7_1.webm");
+        InOrder order = inOrder(transcriptService);
+        order.verify(transcriptService).saveFromStt(7L, 0, 5, "text-7_0.webm");
+        order.verify(transcriptService).saveFromStt(8L, 15, 20, "text-8_3.webm");
+        order.verify(transcriptService).saveFromStt(7L, 5, 10, "text-7_1.webm");
+        queue.shutdown();
+
+        // 다 처리한 뒤 다시 열면 남은 항목이 없다
+        queue = open();
+        assertThat(queue.size()).isZero();
+        assertThat(spoolAudio()).isEmpty();
+    }
+
+    @Test
+    void idsAreNotReusedAfterJournalIsEmptiedAndReopened() throws Exception {
+        queue = open();
+        queue.enqueue(7L, 0, 0, 5, "ko", new byte[]{1}, null);
+        queue.enqueue(7L, 1, 5, 10, "ko", new byte[]{2}, null);
+        verify(transcriptService, timeout(5_000)).saveFromStt(7L, 5, 10, "text-7_1.webm");
+        await(() -> queue.size() == 0);
+        queue.shutdown();
+
+        breaker.onFailure(); // 다음 항목은 남아 있게
+        queue = open();
+        queue.enqueue(7L, 2, 10, 15, "ko", new byte[]{3}, null);
+
+        assertThat(spoolAudio()).containsExactly(dir.resolve(DeferredTranscriptionQueue.SPOOL_DIR).resolve("3.webm"));
+    }
+
+    @Test
+    void audioOfGivenUpEntryIsKeptAsFailedFile() throws Exception {
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("whisper down"));
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 100);
+        queue = open();
+        queue.enqueue(7L, 4, 20, 25, "ko", new byte[]{1}, null);
+
+        await(() -> queue.size() == 0);
+
+        assertThat(spoolAudio()).isEmpty();
+        assertThat(dir.resolve(DeferredTranscriptionQueue.SPOOL_DIR).resolve("failed-7_4_1.webm")).exists();
+        verify(transcriptService, never()).saveFromStt(anyLong(), anyInt(), anyInt(), anyString());
+    }
+
+    @Test
+    void failingEntryDoesNotHoldBackOtherLectures() throws Exception {
+        when(sttService.transcribe(anyLong(), any(Resource.class), anyString(), anyString()))
+                .thenAnswer(inv -> {
+                    String filename = inv.getArgument(2, String.class);
+                    if (filename.startsWith("7_")) throw new IllegalStateException("bad chunk");
+                    return "text-" + filename;
+                });
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 100);
+        queue = open();
+        ReflectionTestUtils.setField(queue, "retryMillis", 60_000L);
+        queue.enqueue(7L, 0, 0, 5, "ko", new byte[]{1}, null);
+        queue.enqueue(7L, 1, 5, 10, "ko", new byte[]{2}, null);
+        queue.enqueue(8L, 0, 0, 5, "ko", new byte[]{3}, null);
+
+        // 7번 강의 앞 항목이 retry-ms 동안 쉬는 사이 8번 강의는 처리되고, 7번의 다음 항목은 순서를 지켜 기다린다
+        verify(transcriptService, timeout(5_000)).saveFromStt(8L, 0, 5, "text-8_0.webm");
+        assertThat(queue.hasPending(8L)).isFalse();
+        assertThat(queue.size()).isEqualTo(2);
+        verify(sttService, never()).transcribe(anyLong(), any(Resource.class), eq("7_1.webm"), anyString());
+    }
+
+    // 아직 큐에 있는 항목의 오디오 ({id}.webm)
+    private List<Path> spoolAudio() throws IOException {
+        try (Stream<Path> files = Files.list(dir.resolve(DeferredTranscriptionQueue.SPOOL_DIR))) {
+            return files.filter(p -> p.getFileName().toString().matches("\\d+\\.webm")).toList();
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    private DeferredTranscriptionQueue open() throws IOException {
+        DeferredTranscriptionQueue q = new DeferredTranscriptionQueue(
+                storage, sttService, transcriptService, breaker, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(q, "drainPerSecond", 1_000.0);
+        ReflectionTestUtils.setField(q, "retryMillis", 20L);
+        ReflectionTestUtils.setField(q, "maxAttempts", 5);
+        q.init();
+        return q;
+    }
+}
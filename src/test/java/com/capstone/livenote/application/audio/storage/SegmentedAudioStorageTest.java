@@ -0,0 +1,100 @@
+package com.capstone.livenote.application.audio.storage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SegmentedAudioStorageTest {
+
+    @TempDir
+    Path dir;
+
+    private SegmentedAudioStorage storage;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (storage != null) storage.shutdown();
+    }
+
+    @Test
+    void appendsChunksAndReadsThemBackFromMappedSegments() throws IOException {
+        storage = open(1);
+        storage.save(7L, 0, 0, stream(chunk(0, 300_000)));
+        storage.save(7L, 1, 5, stream(chunk(1, 900_000)));
+        storage.save(7L, 2, 10, stream(chunk(2, 1_000)));   // 첫 세그먼트가 1MB를 넘었으므로 새 세그먼트로
+
+        assertThat(read(storage.load(7L, 1))).isEqualTo(chunk(1, 900_000));
+        assertThat(storage.load(7L, 2).getFilename()).isEqualTo("7_2.webm");
+        assertThat(Files.exists(dir.resolve("7").resolve("seg-000001.log"))).isTrue();
+        assertThat(storage.loadRange(7L, 5, 11)).extracting(Resource::contentLength)
+                .containsExactly(900_000L, 1_000L);
+    }
+
+    @Test
+    void reopenRecoversIndexAndDropsUnindexedTail() throws Exception {
+        storage = open(64);
+        storage.save(7L, 0, 0, stream(chunk(0, 1_000)));
+        storage.save(7L, 1, 5, stream(chunk(1, 2_000)));
+        storage.shutdown();
+
+        // 색인에 남기 전에 죽은 쓰기처럼 세그먼트 끝에 쓰레기를 붙인다
+        Path segment = dir.resolve("7").resolve("seg-000000.log");
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.wrap(new byte[500]));
+        }
+
+        storage = open(64);
+        assertThat(read(storage.load(7L, 1))).isEqualTo(chunk(1, 2_000));
+        assertThat(Files.size(segment)).isEqualTo(3_000);
+
+        storage.save(7L, 2, 10, stream(chunk(2, 10)));
+        assertThat(read(storage.load(7L, 2))).isEqualTo(chunk(2, 10));
+    }
+
+    @Test
+    void missingChunkIsReported() throws IOException {
+        storage = open(64);
+        assertThatThrownBy(() -> storage.load(9L, 0)).isInstanceOf(FileNotFoundException.class);
+        assertThat(storage.loadRange(9L, 0, 100)).isEmpty();
+    }
+
+    private SegmentedAudioStorage open(long segmentMb) throws IOException {
+        SegmentedAudioStorage s = new SegmentedAudioStorage();
+        ReflectionTestUtils.setField(s, "audioDir", dir.toString());
+        ReflectionTestUtils.setField(s, "segmentMb", segmentMb);
+        ReflectionTestUtils.setField(s, "groupSyncMillis", 1L);
+        ReflectionTestUtils.setField(s, "idleCloseSeconds", 300L);
+        s.init();
+        return s;
+    }
+
+    private static byte[] chunk(int seed, int size) {
+        byte[] bytes = new byte[size];
+        Arrays.fill(bytes, (byte) (seed + 1));
+        bytes[0] = (byte) seed;
+        return bytes;
+    }
+
+    private static ByteArrayInputStream stream(byte[] bytes) {
+        return new ByteArrayInputStream(bytes);
+    }
+
+    private static byte[] read(Resource resource) throws IOException {
+        return resource.getInputStream().readAllBytes();
+    }
+}
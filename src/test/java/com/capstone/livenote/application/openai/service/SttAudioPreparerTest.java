@@ -0,0 +1,93 @@
+package com.capstone.livenote.application.openai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class SttAudioPreparerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SttAudioPreparer preparer = new SttAudioPreparer(registry);
+
+    SttAudioPreparerTest() {
+        ReflectionTestUtils.setField(preparer, "targetSampleRate", 16_000);
+        ReflectionTestUtils.setField(preparer, "silenceThreshold", 300.0);
+        ReflectionTestUtils.setField(preparer, "paddingMs", 200);
+    }
+
+    @Test
+    void trimsSilenceAndDownsamplesTo16kWav() {
+        // 24kHz: 무음 1초 + 440Hz 1초 + 무음 1초
+        byte[] pcm = pcm(24_000, 1.0, 1.0, 1.0, 440);
+
+        SttAudioPreparer.Prepared prepared = preparer.prepare(pcm, 24_000);
+
+        ByteBuffer wav = ByteBuffer.wrap(prepared.wav()).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(new String(prepared.wav(), 0, 4)).isEqualTo("RIFF");
+        assertThat(new String(prepared.wav(), 8, 4)).isEqualTo("WAVE");
+        assertThat(wav.getInt(24)).isEqualTo(16_000);
+        int dataBytes = wav.getInt(40);
+        assertThat(dataBytes + SttAudioPreparer.WAV_HEADER_BYTES).isEqualTo(prepared.wav().length);
+        // 말소리 1초 + 앞뒤 padding 0.2초씩 (프레임 경계만큼 오차)
+        assertThat(dataBytes / 2 / 16_000.0).isCloseTo(1.4, within(0.05));
+        assertThat(prepared.wav().length).isLessThan(pcm.length / 4);
+        assertThat(registry.get("stt.upload.saved").summary().totalAmount())
+                .isEqualTo(pcm.length - prepared.wav().length);
+    }
+
+    @Test
+    void resamplingKeepsInBandToneAmplitude() {
+        short[] in = new short[24_000];
+        for (int i = 0; i < in.length; i++) in[i] = (short) (8_000 * Math.sin(2 * Math.PI * 440 * i / 24_000));
+
+        short[] out = SttAudioPreparer.resample(in, 0, in.length, 24_000, 16_000);
+
+        assertThat(out).hasSize(16_000);
+        int peak = 0;
+        for (int i = 100; i < out.length - 100; i++) peak = Math.max(peak, Math.abs(out[i]));
+        assertThat(peak).isBetween(7_600, 8_400);
+    }
+
+    @Test
+    void silentAudioIsNotUploaded() {
+        SttAudioPreparer.Prepared prepared = preparer.prepare(new byte[48_000], 24_000);
+
+        assertThat(prepared.silent()).isTrue();
+        assertThat(prepared.wav()).isEmpty();
+    }
+
+    @Test
+    void readsPcmFromMonoWavAndIgnoresOtherFormats() {
+        byte[] pcm = pcm(24_000, 0.1, 0.2, 0.1, 440);
+        short[] samples = new short[pcm.length / 2];
+        ByteBuffer.wrap(pcm).order(ByteOrder.LITTLE_ENDIAN).asShortBuffer().get(samples);
+        byte[] wav = SttAudioPreparer.toWav(samples, 24_000);
+
+        SttAudioPreparer.PcmWav read = SttAudioPreparer.readWav(wav);
+
+        assertThat(read.sampleRate()).isEqualTo(24_000);
+        assertThat(read.pcm()).isEqualTo(pcm);
+        // webm(EBML) 헤더나 잘린 WAV는 건드리지 않는다
+        assertThat(SttAudioPreparer.readWav(new byte[]{0x1A, 0x45, (byte) 0xDF, (byte) 0xA3, 0, 0, 0, 0, 0, 0, 0, 0})).isNull();
+        assertThat(SttAudioPreparer.readWav(Arrays.copyOf(wav, 20))).isNull();
+    }
+
+    private static byte[] pcm(int rate, double leadSec, double toneSec, double tailSec, int hz) {
+        int lead = (int) (rate * leadSec);
+        int tone = (int) (rate * toneSec);
+        int total = lead + tone + (int) (rate * tailSec);
+        ByteBuffer buf = ByteBuffer.allocate(total * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < total; i++) {
+            boolean voiced = i >= lead && i < lead + tone;
+            buf.putShort(voiced ? (short) (8_000 * Math.sin(2 * Math.PI * hz * i / rate)) : 0);
+        }
+        return buf.array();
+    }
+}
@@ -0,0 +1,50 @@
+package com.capstone.livenote.application.openai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SttCircuitBreakerTest {
+
+    private final SttCircuitBreaker breaker = new SttCircuitBreaker(new SimpleMeterRegistry());
+
+    SttCircuitBreakerTest() {
+        ReflectionTestUtils.setField(breaker, "failureThreshold", 2);
+        ReflectionTestUtils.setField(breaker, "openMillis", 50L);
+    }
+
+    @Test
+    void probeThatNeverReportsBackIsReplacedAfterOpenMs() throws Exception {
+        breaker.onFailure();
+        breaker.onFailure();
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        Thread.sleep(80);
+        assertThat(breaker.tryAcquire()).isTrue();  // 시험 요청, 결과를 알리지 않음
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        Thread.sleep(80);
+        assertThat(breaker.tryAcquire()).isTrue();  // 새 시험 요청
+        breaker.onSuccess();
+        assertThat(breaker.state()).isEqualTo(SttCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void clientErrorsDoNotOpenTheCircuit() {
+        RuntimeException badAudio = new RuntimeException("STT 처리 실패",
+                new HttpClientErrorException(HttpStatus.BAD_REQUEST));
+        breaker.onFailure(badAudio);
+        breaker.onFailure(badAudio);
+        breaker.onFailure(badAudio);
+        assertThat(breaker.state()).isEqualTo(SttCircuitBreaker.State.CLOSED);
+
+        breaker.onFailure(new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS));
+        breaker.onFailure(new RuntimeException(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)));
+        assertThat(breaker.state()).isEqualTo(SttCircuitBreaker.State.OPEN);
+    }
+}
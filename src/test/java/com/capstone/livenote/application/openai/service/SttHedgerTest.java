@@ -0,0 +1,147 @@
+package com.capstone.livenote.application.openai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SttHedgerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SttHedger hedger = new SttHedger(registry, 50, 4);
+
+    SttHedgerTest() {
+        ReflectionTestUtils.setField(hedger, "enabled", true);
+        ReflectionTestUtils.setField(hedger, "percentile", 0.5);
+        ReflectionTestUtils.setField(hedger, "minSamples", 3);
+        ReflectionTestUtils.setField(hedger, "minDelayMs", 20L);
+        ReflectionTestUtils.setField(hedger, "budgetRatio", 0.0); // 강의당 hedge 1번만
+    }
+
+    @AfterEach
+    void tearDown() {
+        hedger.shutdown();
+    }
+
+    @Test
+    void slowRequestIsHedgedAndFirstResponseWins() {
+        warmUp();
+
+        long started = System.currentTimeMillis();
+        String text = hedger.call(1L, slowFirstAttempt(2_000));
+
+        assertThat(text).isEqualTo("attempt-2");
+        assertThat(System.currentTimeMillis() - started).isLessThan(1_000);
+        assertThat(registry.get("stt.hedge.fired").counter().count()).isEqualTo(1);
+        assertThat(registry.get("stt.hedge.won").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void lectureWithoutBudgetWaitsForPrimary() {
+        warmUp();
+        hedger.call(1L, slowFirstAttempt(100)); // 예산 사용
+
+        String text = hedger.call(1L, slowFirstAttempt(100));
+
+        assertThat(text).isEqualTo("attempt-1");
+        assertThat(registry.get("stt.hedge.fired").counter().count()).isEqualTo(1);
+        assertThat(registry.get("stt.hedge.skipped").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failureIsPropagatedWhenNoAttemptSucceeds() {
+        warmUp();
+
+        Supplier<String> failing = () -> {
+            throw new RuntimeException("STT 처리 실패");
+        };
+
+        assertThatThrownBy(() -> hedger.call(1L, failing))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("STT 처리 실패");
+    }
+
+    @Test
+    void disabledRunsOnCallerThread() {
+        ReflectionTestUtils.setField(hedger, "enabled", false);
+        Thread caller = Thread.currentThread();
+
+        assertThat(hedger.call(1L, () -> Thread.currentThread() == caller)).isTrue();
+    }
+
+    @Test
+    void callThatCannotBeHedgedRunsOnCallerThread() {
+        Thread caller = Thread.currentThread();
+
+        // 표본이 없을 때
+        assertThat(hedger.call(1L, () -> Thread.currentThread() == caller)).isTrue();
+
+        warmUp();
+        hedger.call(1L, slowFirstAttempt(100)); // 예산 사용
+        // 예산이 없을 때
+        assertThat(hedger.call(1L, () -> Thread.currentThread() == caller)).isTrue();
+    }
+
+    @Test
+    void busyRequestThreadsFallBackToCallerThread() throws Exception {
+        SttHedger small = new SttHedger(registry, 50, 1);
+        ReflectionTestUtils.setField(small, "enabled", true);
+        ReflectionTestUtils.setField(small, "percentile", 0.5);
+        ReflectionTestUtils.setField(small, "minSamples", 3);
+        ReflectionTestUtils.setField(small, "minDelayMs", 5_000L);
+        ReflectionTestUtils.setField(small, "budgetRatio", 1.0);
+        try {
+            for (int i = 0; i < 3; i++) small.call(9L, () -> "fast");
+            CountDownLatch started = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<String> busy = CompletableFuture.supplyAsync(() -> small.call(1L, () -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "busy";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue(); // 하나뿐인 요청 스레드를 차지
+
+            Thread caller = Thread.currentThread();
+            assertThat(small.call(2L, () -> Thread.currentThread() == caller)).isTrue();
+
+            release.countDown();
+            assertThat(busy.get(5, TimeUnit.SECONDS)).isEqualTo("busy");
+        } finally {
+            small.shutdown();
+        }
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 3; i++) {
+            hedger.call(9L, () -> "fast");
+        }
+    }
+
+    private static Supplier<String> slowFirstAttempt(long sleepMs) {
+        AtomicInteger attempts = new AtomicInteger();
+        return () -> {
+            int attempt = attempts.incrementAndGet();
+            if (attempt == 1) {
+                try {
+                    Thread.sleep(sleepMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "attempt-" + attempt;
+        };
+    }
+}
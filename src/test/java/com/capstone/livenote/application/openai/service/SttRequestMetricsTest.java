@@ -0,0 +1,50 @@
+package com.capstone.livenote.application.openai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SttRequestMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final SttRequestMetrics metrics = new SttRequestMetrics(registry);
+
+    @Test
+    void recordsUploadServerAndResponseSize() throws Exception {
+        SttRequestMetrics.Exchange exchange = metrics.begin();
+        Resource tracked = exchange.track(new ByteArrayResource(new byte[1_000]) {
+            @Override
+            public String getFilename() {
+                return "7_0.webm";
+            }
+        });
+
+        assertThat(tracked.contentLength()).isEqualTo(1_000);
+        assertThat(tracked.getFilename()).isEqualTo("7_0.webm");
+        try (InputStream in = tracked.getInputStream()) {
+            in.readAllBytes();
+        }
+        exchange.responded(System.nanoTime(), 42);
+        exchange.finish(true);
+
+        assertThat(registry.get("stt.request.upload").timer().count()).isEqualTo(1);
+        assertThat(registry.get("stt.request.server").timer().count()).isEqualTo(1);
+        assertThat(registry.get("stt.response.size").summary().totalAmount()).isEqualTo(42);
+        assertThat(registry.get("stt.request").tag("outcome", "success").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failureBeforeUploadOnlyRecordsOutcome() {
+        SttRequestMetrics.Exchange exchange = metrics.begin();
+        exchange.track(new ByteArrayResource(new byte[10]));
+        exchange.finish(false);
+
+        assertThat(registry.get("stt.request.upload").timer().count()).isZero();
+        assertThat(registry.get("stt.request").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+}
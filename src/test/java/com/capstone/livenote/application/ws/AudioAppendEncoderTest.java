@@ -0,0 +1,74 @@
+package com.capstone.livenote.application.ws;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioAppendEncoderTest {
+
+    private static final String PREFIX = "{\"type\":\"input_audio_buffer.append\",\"audio\":\"";
+
+    @Test
+    void encodesSameAsJdkBase64() {
+        for (int size = 1; size <= 20; size++) {
+            byte[] pcm = randomBytes(size);
+            CharBuffer dst = CharBuffer.allocate(256);
+
+            int consumed = AudioAppendEncoder.encode(ByteBuffer.wrap(pcm), dst);
+
+            assertThat(consumed).isEqualTo(size);
+            assertThat(dst.toString())
+                    .isEqualTo(PREFIX + Base64.getEncoder().encodeToString(pcm) + "\"}");
+        }
+    }
+
+    @Test
+    void splitsLargeFrameIntoIndependentMessages() {
+        byte[] pcm = randomBytes(10_001);
+        ByteBuffer src = ByteBuffer.wrap(pcm);
+        CharBuffer dst = CharBuffer.allocate(1024);
+        int maxBytes = AudioAppendEncoder.maxPcmBytes(1024);
+        assertThat(maxBytes % 6).isZero();
+
+        StringBuilder decoded = new StringBuilder();
+        int messages = 0;
+        while (src.hasRemaining()) {
+            AudioAppendEncoder.encode(src, dst);
+            String json = dst.toString();
+            String b64 = json.substring(PREFIX.length(), json.length() - 2);
+            decoded.append(new String(Base64.getDecoder().decode(b64), StandardCharsets.ISO_8859_1));
+            messages++;
+        }
+
+        assertThat(messages).isEqualTo((pcm.length + maxBytes - 1) / maxBytes);
+        assertThat(decoded.toString())
+                .isEqualTo(new String(pcm, StandardCharsets.ISO_8859_1));
+    }
+
+    @Test
+    void readsFromPositionOfDirectBuffer() {
+        byte[] pcm = randomBytes(64);
+        ByteBuffer direct = ByteBuffer.allocateDirect(80);
+        direct.position(16);
+        direct.put(pcm);
+        direct.flip().position(16);
+
+        CharBuffer dst = CharBuffer.allocate(256);
+        AudioAppendEncoder.encode(direct, dst);
+
+        assertThat(direct.hasRemaining()).isFalse();
+        assertThat(dst.toString()).contains(Base64.getEncoder().encodeToString(pcm));
+    }
+
+    private static byte[] randomBytes(int size) {
+        byte[] bytes = new byte[size];
+        new Random(size).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,74 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties.BacklogDropPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioBacklogTest {
+
+    @Test
+    void keepsOrderAcrossWrapAround() {
+        AudioBacklog backlog = new AudioBacklog(8, BacklogDropPolicy.DROP_OLDEST);
+
+        backlog.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6}));
+        assertThat(readAll(backlog, 4)).containsExactly(1, 2, 3, 4);
+
+        backlog.write(ByteBuffer.wrap(new byte[]{7, 8, 9, 10, 11, 12}));
+        assertThat(backlog.size()).isEqualTo(8);
+        assertThat(readAll(backlog, 8)).containsExactly(5, 6, 7, 8, 9, 10, 11, 12);
+        assertThat(backlog.droppedBytes()).isZero();
+    }
+
+    @Test
+    void dropOldestEvictsHeadWhenFull() {
+        AudioBacklog backlog = new AudioBacklog(8, BacklogDropPolicy.DROP_OLDEST);
+
+        backlog.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6}));
+        int dropped = backlog.write(ByteBuffer.wrap(new byte[]{7, 8, 9, 10}));
+
+        assertThat(dropped).isEqualTo(2);
+        assertThat(backlog.droppedBytes()).isEqualTo(2);
+        assertThat(readAll(backlog, 8)).containsExactly(3, 4, 5, 6, 7, 8, 9, 10);
+    }
+
+    @Test
+    void rejectDropsIncomingFrame() {
+        AudioBacklog backlog = new AudioBacklog(8, BacklogDropPolicy.REJECT);
+
+        backlog.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6}));
+        ByteBuffer frame = ByteBuffer.wrap(new byte[]{7, 8, 9, 10});
+        int dropped = backlog.write(frame);
+
+        assertThat(dropped).isEqualTo(4);
+        assertThat(frame.hasRemaining()).isFalse();
+        assertThat(readAll(backlog, 8)).containsExactly(1, 2, 3, 4, 5, 6);
+    }
+
+    @Test
+    void oversizedFrameKeepsTail() {
+        AudioBacklog backlog = new AudioBacklog(4, BacklogDropPolicy.DROP_OLDEST);
+
+        backlog.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}));
+
+        assertThat(readAll(backlog, 4)).containsExactly(5, 6, 7, 8);
+    }
+
+    private static byte[] readAll(AudioBacklog backlog, int max) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int remaining = max;
+        ByteBuffer slice;
+        while (remaining > 0 && (slice = backlog.peek(remaining)) != null) {
+            int n = slice.remaining();
+            byte[] bytes = new byte[n];
+            slice.get(bytes);
+            out.writeBytes(bytes);
+            backlog.skip(n);
+            remaining -= n;
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,67 @@
+package com.capstone.livenote.application.ws;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AudioReplayRingTest {
+
+    @Test
+    void readsFromAbsoluteOffsetAcrossWrapAround() {
+        AudioReplayRing ring = new AudioReplayRing(8);
+
+        ring.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6}));
+        ring.write(ByteBuffer.wrap(new byte[]{7, 8, 9, 10}));
+
+        assertThat(ring.startOffset()).isEqualTo(2);
+        assertThat(ring.endOffset()).isEqualTo(10);
+        assertThat(readFrom(ring, 2)).containsExactly(3, 4, 5, 6, 7, 8, 9, 10);
+        assertThat(readFrom(ring, 7)).containsExactly(8, 9, 10);
+    }
+
+    @Test
+    void overwrittenOffsetIsNotReadable() {
+        AudioReplayRing ring = new AudioReplayRing(4);
+
+        ring.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}));
+
+        assertThat(ring.slice(5, 4)).isNull();
+        assertThat(readFrom(ring, 6)).containsExactly(7, 8, 9, 10);
+    }
+
+    @Test
+    void writeDoesNotConsumeSource() {
+        AudioReplayRing ring = new AudioReplayRing(8);
+        ByteBuffer frame = ByteBuffer.wrap(new byte[]{1, 2, 3});
+
+        ring.write(frame);
+
+        assertThat(frame.remaining()).isEqualTo(3);
+    }
+
+    @Test
+    void zeroCapacityOnlyTracksOffset() {
+        AudioReplayRing ring = new AudioReplayRing(0);
+
+        ring.write(ByteBuffer.wrap(new byte[]{1, 2, 3, 4}));
+
+        assertThat(ring.endOffset()).isEqualTo(4);
+        assertThat(ring.startOffset()).isEqualTo(4);
+        assertThat(ring.slice(0, 4)).isNull();
+    }
+
+    private static byte[] readFrom(AudioReplayRing ring, long offset) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ByteBuffer slice;
+        while ((slice = ring.slice(offset, 3)) != null) {
+            byte[] bytes = new byte[slice.remaining()];
+            slice.get(bytes);
+            out.writeBytes(bytes);
+            offset += bytes.length;
+        }
+        return out.toByteArray();
+    }
+}
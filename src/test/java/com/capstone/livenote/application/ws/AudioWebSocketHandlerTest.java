@@ -0,0 +1,191 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.audio.service.DeferredTranscriptionQueue;
+import com.capstone.livenote.application.openai.service.OpenAiSttService;
+import com.capstone.livenote.application.openai.service.SttCircuitBreaker;
+import com.capstone.livenote.domain.lecture.entity.Lecture;
+import com.capstone.livenote.domain.lecture.repository.LectureRepository;
+import com.capstone.livenote.domain.transcript.service.TranscriptService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AudioWebSocketHandlerTest {
+
+    private final OpenAiSttService sttService = mock(OpenAiSttService.class);
+    private final TranscriptService transcriptService = mock(TranscriptService.class);
+    private final LectureRepository lectureRepository = mock(LectureRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DeferredTranscriptionQueue deferredQueue = mock(DeferredTranscriptionQueue.class);
+    private final SttCircuitBreaker sttBreaker = new SttCircuitBreaker(new SimpleMeterRegistry());
+    private final AudioWebSocketHandler handler = new AudioWebSocketHandler(
+            sttService, transcriptService, lectureRepository, objectMapper, deferredQueue, sttBreaker);
+
+    private final WebSocketSession session = mock(WebSocketSession.class);
+    private final List<JsonNode> sent = new CopyOnWriteArrayList<>();
+
+    AudioWebSocketHandlerTest() throws Exception {
+        ReflectionTestUtils.setField(handler, "workerThreads", 2);
+        ReflectionTestUtils.setField(handler, "workerQueueCapacity", 16);
+        ReflectionTestUtils.setField(handler, "maxPendingChunks", 8);
+        ReflectionTestUtils.setField(handler, "sendTimeLimitMs", 5_000);
+        ReflectionTestUtils.setField(handler, "sendBufferLimitBytes", 64 * 1024);
+        ReflectionTestUtils.setField(handler, "shutdownTimeoutSeconds", 1);
+        handler.init();
+
+        when(session.getId()).thenReturn("s1");
+        when(session.isOpen()).thenReturn(true);
+        doAnswer(inv -> {
+            sent.add(objectMapper.readTree(((TextMessage) inv.getArgument(0)).getPayload()));
+            return null;
+        }).when(session).sendMessage(any());
+        when(lectureRepository.findById(7L)).thenReturn(Optional.of(
+                Lecture.builder().id(7L).userId(1L).title("t").sttLanguage("ko").build()));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        handler.shutdown();
+    }
+
+    @Test
+    void acksOnReceiptAndReportsDoneInChunkOrder() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(sttService.transcribe(anyLong(), any(byte[].class), anyString(), anyString())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS); // STT가 끝나기 전에 ack가 나가는지 확인
+            return "text";
+        });
+
+        handler.handleMessage(session, new TextMessage("{\"type\":\"init\",\"lectureId\":7}"));
+        for (int i = 0; i < 3; i++) {
+            handler.handleMessage(session, new BinaryMessage(new byte[]{1, 2, 3}));
+        }
+
+        assertThat(sent).extracting(n -> n.get("type").asText())
+                .containsExactly("init_ack", "chunk_ack", "chunk_ack", "chunk_ack");
+
+        release.countDown();
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sent.size() < 7 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(sent.subList(4, sent.size())).extracting(n -> n.get("type").asText() + n.get("chunkSeq").asInt())
+                .containsExactly("chunk_done0", "chunk_done1", "chunk_done2");
+        verify(lectureRepository, times(1)).findById(7L);
+    }
+
+    @Test
+    void rejectedChunkDoesNotUseUpAChunkSeq() throws Exception {
+        ReflectionTestUtils.setField(handler, "maxPendingChunks", 1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(sttService.transcribe(anyLong(), any(byte[].class), anyString(), anyString())).thenAnswer(inv -> {
+            release.await(5, TimeUnit.SECONDS);
+            return "text";
+        });
+
+        handler.handleMessage(session, new TextMessage("{\"type\":\"init\",\"lectureId\":7}"));
+        handler.handleMessage(session, new BinaryMessage(new byte[]{1}));
+        handler.handleMessage(session, new BinaryMessage(new byte[]{2})); // 대기 한도 초과
+        ReflectionTestUtils.setField(handler, "maxPendingChunks", 8);
+        handler.handleMessage(session, new BinaryMessage(new byte[]{3}));
+        release.countDown();
+
+        verify(transcriptService, timeout(5_000)).saveFromStt(7L, 5, 10, "text");
+        assertThat(sent).filteredOn(n -> n.get("type").asText().equals("error"))
+                .singleElement()
+                .satisfies(n -> assertThat(n.has("chunkSeq")).isFalse());
+        assertThat(sent).filteredOn(n -> n.get("type").asText().equals("chunk_ack"))
+                .extracting(n -> n.get("chunkSeq").asInt())
+                .containsExactly(0, 1);
+    }
+
+    @Test
+    void fullWorkerQueueRejectsChunkInsteadOfRunningSttOnContainerThread() throws Exception {
+        handler.shutdown();
+        ReflectionTestUtils.setField(handler, "workerThreads", 1);
+        ReflectionTestUtils.setField(handler, "workerQueueCapacity", 1);
+        handler.init();
+        CountDownLatch release = new CountDownLatch(1);
+        List<String> sttThreads = new CopyOnWriteArrayList<>();
+        when(sttService.transcribe(anyLong(), any(byte[].class), anyString(), anyString())).thenAnswer(inv -> {
+            sttThreads.add(Thread.currentThread().getName());
+            release.await(5, TimeUnit.SECONDS);
+            return "text";
+        });
+        WebSocketSession second = session("s2");
+        WebSocketSession third = session("s3");
+
+        for (WebSocketSession s : List.of(session, second, third)) {
+            handler.handleMessage(s, new TextMessage("{\"type\":\"init\",\"lectureId\":7}"));
+        }
+        handler.handleMessage(session, new BinaryMessage(new byte[]{1}));  // 작업 스레드에서 STT 중
+        verify(sttService, timeout(5_000)).transcribe(anyLong(), any(byte[].class), anyString(), anyString());
+        handler.handleMessage(second, new BinaryMessage(new byte[]{2})); // 작업 큐에서 대기
+        handler.handleMessage(third, new BinaryMessage(new byte[]{3}));  // 큐가 차서 거절
+        release.countDown();
+
+        verify(transcriptService, timeout(5_000).times(2)).saveFromStt(anyLong(), anyInt(), anyInt(), anyString());
+        assertThat(sttThreads).allMatch(name -> name.startsWith("audio-chunk-"));
+        assertThat(sent).filteredOn(n -> n.get("type").asText().equals("error"))
+                .singleElement()
+                .satisfies(n -> assertThat(n.has("chunkSeq")).isFalse());
+    }
+
+    @Test
+    void failedSttChunkIsDeferredInsteadOfDropped() throws Exception {
+        ReflectionTestUtils.setField(sttBreaker, "failureThreshold", 5);
+        when(sttService.transcribe(anyLong(), any(byte[].class), anyString(), anyString()))
+                .thenThrow(new IllegalStateException("whisper 503"));
+
+        handler.handleMessage(session, new TextMessage("{\"type\":\"init\",\"lectureId\":7}"));
+        handler.handleMessage(session, new BinaryMessage(new byte[]{1, 2, 3}));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (sent.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(sent).extracting(n -> n.get("type").asText())
+                .containsExactly("init_ack", "chunk_ack", "chunk_deferred");
+        verify(deferredQueue).enqueue(eq(7L), eq(0), eq(0), eq(5), eq("ko"), any(byte[].class), any());
+        verify(transcriptService, never()).saveFromStt(anyLong(), anyInt(), anyInt(), anyString());
+    }
+
+    private WebSocketSession session(String id) throws Exception {
+        WebSocketSession s = mock(WebSocketSession.class);
+        when(s.getId()).thenReturn(id);
+        when(s.isOpen()).thenReturn(true);
+        doAnswer(inv -> {
+            sent.add(objectMapper.readTree(((TextMessage) inv.getArgument(0)).getPayload()));
+            return null;
+        }).when(s).sendMessage(any());
+        return s;
+    }
+}
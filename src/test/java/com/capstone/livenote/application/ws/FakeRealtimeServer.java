@@ -0,0 +1,140 @@
+package com.capstone.livenote.application.ws;
+
+import io.netty.handler.codec.http.websocketx.TextWebSocketFrame;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.WebsocketServerSpec;
+import reactor.netty.http.websocket.WebsocketInbound;
+import reactor.netty.http.websocket.WebsocketOutbound;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 부하 테스트용 가짜 OpenAI Realtime 서버 (OpenAI 쿼터를 쓰지 않는다).
+ *
+ * - session.update에는 session.updated로 답한다.
+ * - input_audio_buffer.append로 받은 오디오가 utteranceBytes만큼 쌓일 때마다 발화 하나로 보고
+ *   speech_started / speech_stopped를 보낸 뒤, latencyMs 후에 transcript가 "utterance-N"인
+ *   conversation.item.input_audio_transcription.completed를 보낸다 (N은 연결별 0부터).
+ */
+final class FakeRealtimeServer implements AutoCloseable {
+
+    static final String PATH = "/v1/realtime";
+
+    private final long latencyMs;
+    private final long utteranceBytes;
+    private final DisposableServer server;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicLong appendMessages = new AtomicLong();
+    private final AtomicLong audioBytes = new AtomicLong();
+
+    FakeRealtimeServer(long latencyMs, long utteranceBytes) {
+        this.latencyMs = latencyMs;
+        this.utteranceBytes = utteranceBytes;
+        this.server = HttpServer.create()
+                .host("127.0.0.1")
+                .port(0)
+                .route(routes -> routes.ws(PATH, this::handle,
+                        WebsocketServerSpec.builder().maxFramePayloadLength(1 << 20).build()))
+                .bindNow();
+    }
+
+    URI uri() {
+        return URI.create("ws://127.0.0.1:" + server.port() + PATH + "?model=fake");
+    }
+
+    int connections() {
+        return connections.get();
+    }
+
+    long appendMessages() {
+        return appendMessages.get();
+    }
+
+    long audioBytes() {
+        return audioBytes.get();
+    }
+
+    @Override
+    public void close() {
+        server.disposeNow();
+    }
+
+    private Mono<Void> handle(WebsocketInbound in, WebsocketOutbound out) {
+        connections.incrementAndGet();
+        Connection connection = new Connection();
+        Mono<Void> inbound = in.aggregateFrames(1 << 20)
+                .receiveFrames()
+                .ofType(TextWebSocketFrame.class)
+                .doOnNext(frame -> connection.onText(frame.text()))
+                .then()
+                .doFinally(signal -> connection.close());
+        Mono<Void> outbound = out.sendString(connection.events.asFlux()).then();
+        return Mono.when(inbound, outbound);
+    }
+
+    private final class Connection {
+        private final Sinks.Many<String> events = Sinks.many().unicast().onBackpressureBuffer();
+        private long received;      // 이 연결에서 받은 오디오 바이트
+        private long nextBoundary = utteranceBytes;
+        private int utterance;
+
+        void onText(String text) {
+            if (text.contains("\"input_audio_buffer.append\"")) {
+                int start = text.indexOf("\"audio\":\"");
+                if (start < 0) return;
+                start += 9;
+                int end = text.indexOf('"', start);
+                int bytes = decodedLength(text, start, end);
+                appendMessages.incrementAndGet();
+                audioBytes.addAndGet(bytes);
+                onAudio(bytes);
+            } else if (text.contains("\"session.update\"")) {
+                emit("{\"type\":\"session.updated\",\"event_id\":\"event_fake\",\"session\":{}}");
+            }
+        }
+
+        private synchronized void onAudio(int bytes) {
+            received += bytes;
+            while (received >= nextBoundary) {
+                int n = utterance++;
+                long endMs = nextBoundary / RealtimeTranscriptionWebSocketHandler.PCM_BYTES_PER_MS;
+                String item = "item_fake_" + n;
+                emit("{\"type\":\"input_audio_buffer.speech_started\",\"item_id\":\"" + item + "\"}");
+                emit("{\"type\":\"input_audio_buffer.speech_stopped\",\"audio_end_ms\":" + endMs
+                        + ",\"item_id\":\"" + item + "\"}");
+                String completed = "{\"type\":\"conversation.item.input_audio_transcription.completed\",\"item_id\":\""
+                        + item + "\",\"content_index\":0,\"transcript\":\"utterance-" + n + "\"}";
+                if (latencyMs <= 0) {
+                    emit(completed);
+                } else {
+                    Mono.delay(Duration.ofMillis(latencyMs)).subscribe(x -> emit(completed));
+                }
+                nextBoundary += utteranceBytes;
+            }
+        }
+
+        // 여러 스레드(수신/지연 타이머)에서 보내므로 직렬화한다
+        private synchronized void emit(String event) {
+            events.tryEmitNext(event);
+        }
+
+        private synchronized void close() {
+            events.tryEmitComplete();
+        }
+    }
+
+    private static int decodedLength(String text, int start, int end) {
+        int chars = end - start;
+        int padding = 0;
+        if (chars > 0 && text.charAt(end - 1) == '=') padding++;
+        if (chars > 1 && text.charAt(end - 2) == '=') padding++;
+        return chars / 4 * 3 - padding;
+    }
+}
@@ -0,0 +1,28 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.WebSocket;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class OpenAiRealtimeConnectorTest {
+
+    @Test
+    void acquireAfterShutdownFailsInsteadOfThrowing() {
+        OpenAiRealtimeConnector connector = new OpenAiRealtimeConnector(new RealtimeProperties());
+        connector.init();
+        connector.shutdown();
+
+        CompletableFuture<WebSocket> future = connector.acquire(mock(WebSocket.Listener.class));
+
+        assertThat(future).isCompletedExceptionally();
+        future.exceptionally(err -> {
+            assertThat(err).hasMessageContaining("shutting down");
+            return null;
+        });
+    }
+}
@@ -0,0 +1,165 @@
+package com.capstone.livenote.application.ws;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OpenAiRealtimeEventsTest {
+
+    // 실제 세션 로그의 이벤트 종류 + 예전 분기의 경계 사례
+    private static final List<String> EVENTS = List.of(
+            "{\"type\":\"session.created\",\"event_id\":\"e0\",\"session\":{\"id\":\"s1\"}}",
+            "{\"type\":\"session.updated\",\"event_id\":\"e1\",\"session\":{}}",
+            "{\"type\":\"input_audio_buffer.speech_started\",\"audio_start_ms\":100,\"item_id\":\"item_1\"}",
+            "{\"type\":\"input_audio_buffer.speech_stopped\",\"audio_end_ms\":2300,\"item_id\":\"item_1\"}",
+            "{\"type\":\"input_audio_buffer.committed\",\"previous_item_id\":null,\"item_id\":\"item_1\"}",
+            "{\"type\":\"conversation.item.created\",\"item\":{\"id\":\"item_1\",\"content\":[{\"type\":\"input_audio\"}]}}",
+            "{\"type\":\"conversation.item.input_audio_transcription.delta\",\"item_id\":\"item_1\",\"delta\":\"안녕\"}",
+            "{\"type\":\"conversation.item.input_audio_transcription.completed\",\"item_id\":\"item_1\",\"transcript\":\"안녕하세요\"}",
+            "{\"type\":\"conversation.item.input_audio_transcription.completed\",\"item_id\":\"item_2\",\"transcript\":\"\"}",
+            "{\"type\":\"conversation.item.input_audio_transcription.failed\",\"item_id\":\"item_3\",\"error\":{\"message\":\"bad audio\"}}",
+            "{\"type\":\"conversation.item.input_audio_transcription.failed\",\"item_id\":\"item_4\"}",
+            "{\"type\":\"error\",\"error\":{\"type\":\"invalid_request_error\",\"message\":\"boom\"}}",
+            "{\"type\":\"ERROR\"}",
+            "{\"error\":\"plain string\",\"type\":\"input_audio_buffer.speech_stopped\",\"item_id\":\"item_5\"}",
+            "{\"type\":\"response.audio_transcript.delta\",\"delta\":\"he\"}",
+            "{\"type\":\"response.output_text.delta\",\"text\":\"llo\"}",
+            "{\"type\":\"response.output_text.delta\",\"content\":[\"a\",{\"x\":1},\"b\"]}",
+            "{\"type\":\"response.audio_transcript.done\",\"transcript\":\"hello\"}",
+            "{\"type\":\"response.output_text.done\"}",
+            "{\"type\":\"response.done\",\"response\":{\"status\":\"completed\"}}",
+            "{\"type\":\"rate_limits.updated\",\"rate_limits\":[]}",
+            "{\"type\":\"response.content_part.added\",\"content\":\"direct\"}",
+            "{\"type\":\"response.content_part.added\",\"content\":[\"not\",\"text\"]}",
+            "{\"content\":\"no type\"}",
+            "{\"type\":\"response.audio_transcript.delta\",\"delta\":\"x\",\"error\":null}"
+    );
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void routesRecordedEventsExactlyLikeTheOldIfElseChain() throws Exception {
+        List<String> actual = new ArrayList<>();
+        RealtimeEventDispatcher<List<String>> dispatcher =
+                OpenAiRealtimeEvents.dispatcher(objectMapper.getFactory(), new Recorder());
+
+        List<String> expected = new ArrayList<>();
+        for (String event : EVENTS) {
+            dispatcher.dispatch(actual, event);
+            baseline(expected, objectMapper.readTree(event));
+        }
+
+        assertThat(actual).containsExactlyElementsOf(expected);
+        // 예전에는 보내지 않던 transcription.delta가 부분 전사로 나가지 않는다
+        assertThat(actual).doesNotContain("delta:안녕");
+    }
+
+    /**
+     * 예전 handleOpenAiText의 분기를 그대로 옮긴 것 (전송 대신 호출 기록만 남긴다)
+     */
+    private static void baseline(List<String> out, JsonNode root) {
+        String type = root.path("type").asText("");
+        if (type.equalsIgnoreCase("error") || root.has("error")) {
+            String errMsg = root.path("error").path("message").asText(type.isEmpty() ? "openai error" : type);
+            if (type.equals("conversation.item.input_audio_transcription.failed")) {
+                out.add("itemDone:" + root.path("item_id").asText(null));
+            }
+            out.add("error:" + errMsg);
+            return;
+        }
+        if (type.equals("input_audio_buffer.speech_started")) {
+            out.add("started");
+            return;
+        }
+        if (type.equals("input_audio_buffer.speech_stopped")) {
+            out.add("stopped:" + root.path("item_id").asText(null) + ":" + root.path("audio_end_ms").asLong(-1));
+            return;
+        }
+        if (type.equals("conversation.item.input_audio_transcription.completed")) {
+            out.add("completed:" + root.path("item_id").asText(null) + ":" + root.path("transcript").asText(""));
+            return;
+        }
+        if (type.equals("conversation.item.input_audio_transcription.failed")) {
+            out.add("failed:" + root.path("item_id").asText(null));
+            return;
+        }
+        if (type.contains("output_text.delta") || type.contains("audio_transcript.delta")) {
+            out.add("delta:" + extractDelta(root));
+            return;
+        }
+        if (type.contains("output_text.done") || type.contains("audio_transcript.done") || type.contains("response.done")) {
+            out.add("done");
+            return;
+        }
+        if (root.has("content")) {
+            String content = root.path("content").asText("");
+            if (!content.isEmpty()) {
+                out.add("content:" + content);
+            }
+        }
+    }
+
+    private static String extractDelta(JsonNode root) {
+        if (root.has("delta") && root.get("delta").isTextual()) return root.get("delta").asText("");
+        if (root.has("text") && root.get("text").isTextual()) return root.get("text").asText("");
+        if (root.has("content") && root.get("content").isArray()) {
+            StringBuilder sb = new StringBuilder();
+            root.get("content").forEach(n -> {
+                if (n.isTextual()) sb.append(n.asText());
+            });
+            return sb.toString();
+        }
+        return "";
+    }
+
+    private static final class Recorder implements OpenAiRealtimeEvents.Handler<List<String>> {
+
+        @Override
+        public void onError(List<String> out, RealtimeEvent event) {
+            if (OpenAiRealtimeEvents.TRANSCRIPTION_FAILED.equals(event.type)) {
+                out.add("itemDone:" + event.itemId);
+            }
+            out.add("error:" + event.errorMessageOrType());
+        }
+
+        @Override
+        public void onTranscriptionFailed(List<String> out, RealtimeEvent event) {
+            out.add("failed:" + event.itemId);
+        }
+
+        @Override
+        public void onSpeechStarted(List<String> out, RealtimeEvent event) {
+            out.add("started");
+        }
+
+        @Override
+        public void onSpeechStopped(List<String> out, RealtimeEvent event) {
+            out.add("stopped:" + event.itemId + ":" + event.audioEndMs);
+        }
+
+        @Override
+        public void onTranscriptionCompleted(List<String> out, RealtimeEvent event) {
+            out.add("completed:" + event.itemId + ":" + (event.transcript == null ? "" : event.transcript));
+        }
+
+        @Override
+        public void onTranscriptDelta(List<String> out, RealtimeEvent event) {
+            out.add("delta:" + event.deltaText());
+        }
+
+        @Override
+        public void onTranscriptDone(List<String> out, RealtimeEvent event) {
+            out.add("done");
+        }
+
+        @Override
+        public void onContent(List<String> out, RealtimeEvent event) {
+            out.add("content:" + event.content);
+        }
+    }
+}
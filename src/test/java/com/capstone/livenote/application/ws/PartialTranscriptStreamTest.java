@@ -0,0 +1,76 @@
+package com.capstone.livenote.application.ws;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class PartialTranscriptStreamTest {
+
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final List<String> sent = new ArrayList<>();
+
+    @Test
+    void deltaModeSendsOnlyAppendedTextWithOffset() {
+        PartialTranscriptStream stream = new PartialTranscriptStream(true, 0, scheduler, this::record);
+
+        stream.append("오늘은 ");
+        stream.append("해시 테이블");
+
+        assertThat(sent).containsExactly("1@0:오늘은 ", "2@4:해시 테이블");
+    }
+
+    @Test
+    void throttledDeltasAreCoalescedIntoOneMessage() {
+        PartialTranscriptStream stream = new PartialTranscriptStream(true, 1, scheduler, this::record);
+
+        stream.append("a");
+        stream.append("b");
+        stream.append("c");
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler, times(1)).schedule(flush.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        flush.getValue().run();
+
+        assertThat(sent).containsExactly("1@0:a", "2@1:bc");
+    }
+
+    @Test
+    void accumulatedModeKeepsSendingWholeSentence() {
+        PartialTranscriptStream stream = new PartialTranscriptStream(false, 0, scheduler, this::record);
+
+        stream.append("a");
+        stream.append("b");
+
+        assertThat(sent).containsExactly("1@0:a", "2@0:ab");
+    }
+
+    @Test
+    void takeFinalDropsPendingPartialAndResetsOffset() {
+        PartialTranscriptStream stream = new PartialTranscriptStream(true, 1, scheduler, this::record);
+
+        stream.append("a");
+        stream.append("b");
+        assertThat(stream.takeFinal()).isEqualTo("ab");
+
+        ArgumentCaptor<Runnable> flush = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(flush.capture(), anyLong(), eq(TimeUnit.MILLISECONDS));
+        flush.getValue().run();
+
+        assertThat(sent).containsExactly("1@0:a");
+    }
+
+    private void record(String text, int offset, long seq) {
+        sent.add(seq + "@" + offset + ":" + text);
+    }
+}
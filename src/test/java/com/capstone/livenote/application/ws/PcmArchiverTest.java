@@ -0,0 +1,86 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.audio.storage.AudioStorage;
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class PcmArchiverTest {
+
+    private static final int ONE_SEC = 48_000;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void ringDropsFrameThatDoesNotFitAndWrapsAround() {
+        PcmArchiveRing ring = new PcmArchiveRing(8);
+        ByteBuffer frame = ByteBuffer.wrap(new byte[]{1, 2, 3, 4, 5, 6});
+
+        assertThat(ring.offer(frame)).isTrue();
+        assertThat(frame.remaining()).isEqualTo(6);
+        assertThat(ring.offer(ByteBuffer.wrap(new byte[]{7, 8, 9}))).isFalse();
+        assertThat(ring.droppedBytes()).isEqualTo(3);
+
+        byte[] out = new byte[8];
+        assertThat(ring.poll(out, 0, 4)).isEqualTo(4);
+        assertThat(ring.offer(ByteBuffer.wrap(new byte[]{7, 8, 9, 10}))).isTrue();
+        assertThat(ring.poll(out, 0, 8)).isEqualTo(6);
+        assertThat(out).startsWith(5, 6, 7, 8, 9, 10);
+        assertThat(ring.available()).isZero();
+    }
+
+    @Test
+    void writesEachSessionToItsOwnPcmFile() throws Exception {
+        AudioStorage storage = mock(AudioStorage.class);
+        when(storage.root()).thenReturn(dir);
+        RealtimeProperties properties = new RealtimeProperties();
+        properties.getArchive().setEnabled(true);
+        properties.getArchive().setRingBytes(4 * ONE_SEC);
+        properties.getArchive().setBlockSeconds(1);
+        properties.getArchive().setFlushIntervalMs(5);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PcmArchiver archiver = new PcmArchiver(storage, properties, new RealtimeRelayMetrics(registry));
+
+        // 같은 강의를 같은 시각부터 이어 받은 두 세션
+        PcmArchiver.Recording first = archiver.open(7L, 30, "s1");
+        PcmArchiver.Recording second = archiver.open(7L, 30, "s2");
+        for (int i = 0; i < 25; i++) {
+            first.offer(ByteBuffer.wrap(new byte[ONE_SEC / 10])); // 100ms 프레임 2.5초
+        }
+        second.offer(ByteBuffer.wrap(new byte[ONE_SEC / 10]));
+        first.finish();
+        second.finish();
+        archiver.shutdown();
+
+        Path archiveDir = dir.resolve(PcmArchiver.ARCHIVE_DIR);
+        assertThat(Files.size(archiveDir.resolve("7_30_s1.pcm"))).isEqualTo(5 * ONE_SEC / 2);
+        assertThat(Files.size(archiveDir.resolve("7_30_s2.pcm"))).isEqualTo(ONE_SEC / 10);
+        assertThat(registry.get("realtime.audio.archive.written").counter().count()).isEqualTo(5 * ONE_SEC / 2 + ONE_SEC / 10);
+        assertThat(archiver.pendingBytes()).isZero();
+        verify(storage, never()).save(anyLong(), anyInt(), anyInt(), any(InputStream.class));
+    }
+
+    @Test
+    void disabledArchiverRecordsNothing() {
+        PcmArchiver archiver = new PcmArchiver(mock(AudioStorage.class), new RealtimeProperties(),
+                new RealtimeRelayMetrics(new SimpleMeterRegistry()));
+
+        assertThat(archiver.open(7L, 0, "s1")).isNull();
+    }
+}
@@ -0,0 +1,80 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.RealtimeEvent.Field;
+import com.fasterxml.jackson.core.JsonFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RealtimeEventDispatcherTest {
+
+    private final List<String> calls = new ArrayList<>();
+    private final List<RealtimeEvent> events = new ArrayList<>();
+
+    private final RealtimeEventDispatcher<String> dispatcher = RealtimeEventDispatcher.<String>builder(new JsonFactory())
+            .on("input_audio_buffer.speech_stopped", EnumSet.of(Field.ITEM_ID, Field.AUDIO_END_MS), record("stopped"))
+            .on("conversation.item.input_audio_transcription.completed", EnumSet.of(Field.TRANSCRIPT), record("completed"))
+            .onContaining("audio_transcript.delta", EnumSet.of(Field.DELTA, Field.TEXT, Field.CONTENT), record("delta"))
+            .otherwise(EnumSet.of(Field.ERROR, Field.CONTENT), record("other"))
+            .build();
+
+    @Test
+    void readsOnlyRequestedFieldsEvenWhenTypeIsNotFirst() throws Exception {
+        dispatcher.dispatch("ctx", "{\"event_id\":\"e1\",\"item_id\":\"item_1\",\"delta\":\"x\","
+                + "\"type\":\"input_audio_buffer.speech_stopped\",\"audio_end_ms\":1500,\"transcript\":\"ignored\"}");
+
+        assertThat(calls).containsExactly("stopped");
+        RealtimeEvent event = events.get(0);
+        assertThat(event.itemId).isEqualTo("item_1");
+        assertThat(event.audioEndMs).isEqualTo(1500);
+        assertThat(event.transcript).isNull();
+    }
+
+    @Test
+    void stopsParsingOnceRequestedFieldsAreRead() throws Exception {
+        // transcript 뒤의 깨진 본문은 읽지 않는다
+        dispatcher.dispatch("ctx", "{\"type\":\"conversation.item.input_audio_transcription.completed\","
+                + "\"transcript\":\"안녕하세요\",\"usage\":{broken");
+
+        assertThat(calls).containsExactly("completed");
+        assertThat(events.get(0).transcript).isEqualTo("안녕하세요");
+    }
+
+    @Test
+    void routesBySubstringAndJoinsContentArray() throws Exception {
+        dispatcher.dispatch("ctx", "{\"type\":\"response.audio_transcript.delta\",\"content\":[\"a\",{\"x\":1},\"b\"]}");
+
+        assertThat(calls).containsExactly("delta");
+        assertThat(events.get(0).deltaText()).isEqualTo("ab");
+    }
+
+    @Test
+    void unknownTypeFallsBackWithErrorMessage() throws Exception {
+        dispatcher.dispatch("ctx", "{\"type\":\"session.weird\",\"error\":{\"code\":\"x\",\"message\":\"boom\"}}");
+        dispatcher.dispatch("ctx", "{\"content\":\"plain\"}");
+
+        assertThat(calls).containsExactly("other", "other");
+        assertThat(events.get(0).hasError).isTrue();
+        assertThat(events.get(0).errorMessageOrType()).isEqualTo("boom");
+        assertThat(events.get(1).type).isEmpty();
+        assertThat(events.get(1).content).isEqualTo("plain");
+    }
+
+    @Test
+    void nonObjectIsIgnored() throws Exception {
+        assertThat(dispatcher.dispatch("ctx", "[1,2]")).isNull();
+        assertThat(calls).isEmpty();
+    }
+
+    private BiConsumer<String, RealtimeEvent> record(String name) {
+        return (ctx, event) -> {
+            calls.add(name);
+            events.add(event);
+        };
+    }
+}
@@ -0,0 +1,240 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import com.capstone.livenote.domain.lecture.entity.Lecture;
+import com.capstone.livenote.domain.lecture.repository.LectureRepository;
+import com.capstone.livenote.domain.transcript.repository.TranscriptRepository;
+import com.capstone.livenote.domain.transcript.service.LectureTimelineCache;
+import com.capstone.livenote.domain.transcript.service.TranscriptService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * /ws/transcription 중계 부하 테스트. 가짜 Realtime 서버(FakeRealtimeServer)를 업스트림으로 쓰고,
+ * N개의 가상 브라우저 세션이 실시간 속도로 PCM을 보내며 최종 전사까지의 지연을 잰다.
+ *
+ * 기본 빌드에서는 제외되며 ./gradlew loadTest 로 실행한다.
+ *   -Pload.sessions=50 -Pload.seconds=30 -Pload.latencyMs=300 -Pload.utteranceMs=3000
+ *
+ * 지연: 가상 브라우저가 발화 하나 분량의 마지막 프레임을 보낸 시점 → 해당 최종 전사를 받은 시점.
+ * 가상 브라우저는 WebSocketSession 수준에서 핸들러를 직접 호출한다 (브라우저 쪽 소켓 I/O는 포함하지 않음).
+ */
+@Tag("load")
+class RealtimeRelayLoadTest {
+
+    private static final int FRAME_MS = 20;
+    private static final int FRAME_BYTES = FRAME_MS * RealtimeTranscriptionWebSocketHandler.PCM_BYTES_PER_MS;
+    private static final Pattern UTTERANCE = Pattern.compile("utterance-(\\d+)");
+
+    private final int sessions = Integer.getInteger("load.sessions", 20);
+    private final int seconds = Integer.getInteger("load.seconds", 20);
+    private final long latencyMs = Long.getLong("load.latencyMs", 300);
+    private final long utteranceMs = Long.getLong("load.utteranceMs", 3000);
+
+    @Test
+    void relaysConcurrentLectures() throws Exception {
+        long utteranceBytes = utteranceMs * RealtimeTranscriptionWebSocketHandler.PCM_BYTES_PER_MS;
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        int threadsBefore = threads.getThreadCount();
+        threads.resetPeakThreadCount();
+
+        try (FakeRealtimeServer upstream = new FakeRealtimeServer(latencyMs, utteranceBytes)) {
+            RealtimeProperties properties = new RealtimeProperties();
+            properties.getUpstream().setUri(upstream.uri().toString());
+            properties.getUpstream().setPoolSize(Math.max(1, sessions / 4));
+
+            SimpleMeterRegistry registry = new SimpleMeterRegistry();
+            RelayFixture fixture = new RelayFixture(properties, registry);
+
+            List<SimulatedBrowser> browsers = new ArrayList<>();
+            for (int i = 0; i < sessions; i++) {
+                browsers.add(new SimulatedBrowser("browser-" + i, 1000L + i, utteranceBytes));
+            }
+
+            ScheduledExecutorService senders = Executors.newScheduledThreadPool(4);
+            List<ScheduledFuture<?>> tasks = new ArrayList<>();
+            for (SimulatedBrowser browser : browsers) {
+                fixture.handler.afterConnectionEstablished(browser.session);
+                tasks.add(senders.scheduleAtFixedRate(() -> browser.sendFrame(fixture.handler),
+                        0, FRAME_MS, TimeUnit.MILLISECONDS));
+            }
+
+            long heapPeak = 0;
+            long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+            while (System.currentTimeMillis() < deadline) {
+                Thread.sleep(500);
+                heapPeak = Math.max(heapPeak, memory.getHeapMemoryUsage().getUsed());
+            }
+            tasks.forEach(t -> t.cancel(false));
+            senders.shutdown();
+            senders.awaitTermination(5, TimeUnit.SECONDS);
+            // 마지막 발화 전사를 기다린다
+            Thread.sleep(latencyMs + 1000);
+            int peakThreads = threads.getPeakThreadCount();
+
+            for (SimulatedBrowser browser : browsers) {
+                browser.open.set(false);
+                fixture.handler.afterConnectionClosed(browser.session, CloseStatus.NORMAL);
+            }
+
+            List<Long> latencies = new ArrayList<>();
+            long frames = 0;
+            for (SimulatedBrowser browser : browsers) {
+                latencies.addAll(browser.latencies);
+                frames += browser.framesSent.get();
+            }
+            Collections.sort(latencies);
+
+            System.out.printf("%n=== realtime relay load: sessions=%d duration=%ds fakeLatency=%dms utterance=%dms ===%n",
+                    sessions, seconds, latencyMs, utteranceMs);
+            System.out.printf("frames sent=%d, upstream append messages=%d (%.1f frames/message), upstream audio=%dKB%n",
+                    frames, upstream.appendMessages(), upstream.appendMessages() == 0 ? 0.0 : (double) frames / upstream.appendMessages(),
+                    upstream.audioBytes() / 1024);
+            System.out.printf("final transcripts=%d  e2e latency ms p50=%d p90=%d p99=%d max=%d%n",
+                    latencies.size(), percentile(latencies, 50), percentile(latencies, 90),
+                    percentile(latencies, 99), latencies.isEmpty() ? 0 : latencies.get(latencies.size() - 1));
+            System.out.printf("threads before=%d peak=%d, heap peak=%dMB, upstream connections=%d%n",
+                    threadsBefore, peakThreads, heapPeak / (1024 * 1024), upstream.connections());
+
+            fixture.close();
+            assertThat(latencies).isNotEmpty();
+        }
+    }
+
+    private static long percentile(List<Long> sorted, int p) {
+        if (sorted.isEmpty()) return 0;
+        int index = (int) Math.ceil(p / 100.0 * sorted.size()) - 1;
+        return sorted.get(Math.max(0, Math.min(index, sorted.size() - 1)));
+    }
+
+    /**
+     * 핸들러와 의존 객체를 스프링 컨텍스트 없이 조립한다 (DB/AI 서버는 mock).
+     */
+    private static final class RelayFixture {
+        final OpenAiRealtimeConnector connector;
+        final TranscriptPersistencePipeline pipeline;
+        final RealtimeTranscriptionWebSocketHandler handler;
+
+        RelayFixture(RealtimeProperties properties, SimpleMeterRegistry registry) {
+            LectureRepository lectureRepository = mock(LectureRepository.class);
+            when(lectureRepository.findById(anyLong())).thenAnswer(inv -> Optional.of(
+                    Lecture.builder().id(inv.getArgument(0)).userId(1L).title("load").sttLanguage("ko").build()));
+            TranscriptRepository transcriptRepository = mock(TranscriptRepository.class);
+            TranscriptService transcriptService = mock(TranscriptService.class);
+
+            connector = new OpenAiRealtimeConnector(properties);
+            connector.init();
+            pipeline = new TranscriptPersistencePipeline(transcriptService, properties, registry);
+            RealtimeRelayMetrics metrics = new RealtimeRelayMetrics(registry);
+            handler = new RealtimeTranscriptionWebSocketHandler(lectureRepository, new LectureTimelineCache(transcriptRepository), pipeline,
+                    new ObjectMapper(), connector, properties, metrics, new PcmArchiver(null, properties, metrics));
+            handler.init();
+        }
+
+        void close() throws InterruptedException {
+            handler.shutdown();
+            pipeline.shutdown();
+            connector.shutdown();
+        }
+    }
+
+    /**
+     * 마이크 대신 사인파(말소리로 판단되는 크기)를 20ms 프레임으로 보내는 가상 브라우저.
+     */
+    private static final class SimulatedBrowser {
+        final WebSocketSession session;
+        final AtomicBoolean open = new AtomicBoolean(true);
+        final AtomicLong framesSent = new AtomicLong();
+        final List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        private final Map<Integer, Long> boundarySentAt = new ConcurrentHashMap<>();
+        private final long utteranceBytes;
+        private final ByteBuffer frame;
+        private long bytesSent;
+
+        SimulatedBrowser(String id, long lectureId, long utteranceBytes) throws Exception {
+            this.utteranceBytes = utteranceBytes;
+            this.frame = sineFrame();
+            this.session = mock(WebSocketSession.class, withSettings().stubOnly());
+            when(session.getId()).thenReturn(id);
+            when(session.getUri()).thenReturn(URI.create("ws://localhost/ws/transcription?sessionId=" + lectureId));
+            when(session.isOpen()).thenAnswer(inv -> open.get());
+            doAnswer(inv -> {
+                onMessage(inv.getArgument(0));
+                return null;
+            }).when(session).sendMessage(any());
+        }
+
+        void sendFrame(RealtimeTranscriptionWebSocketHandler handler) {
+            if (!open.get()) return;
+            try {
+                handler.handleMessage(session, new BinaryMessage(frame.duplicate()));
+            } catch (Exception e) {
+                return;
+            }
+            framesSent.incrementAndGet();
+            long before = bytesSent;
+            bytesSent += FRAME_BYTES;
+            // 이 프레임으로 발화 경계를 넘었으면 그 시각을 기록
+            if (before / utteranceBytes != bytesSent / utteranceBytes) {
+                boundarySentAt.put((int) (bytesSent / utteranceBytes) - 1, System.nanoTime());
+            }
+        }
+
+        private void onMessage(WebSocketMessage<?> message) {
+            if (!(message instanceof TextMessage text)) return;
+            String payload = text.getPayload();
+            if (!payload.contains("\"isFinal\":true")) return;
+            Matcher m = UTTERANCE.matcher(payload);
+            if (!m.find()) return;
+            Long sentAt = boundarySentAt.remove(Integer.parseInt(m.group(1)));
+            if (sentAt != null) {
+                latencies.add(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - sentAt));
+            }
+        }
+
+        private static ByteBuffer sineFrame() {
+            ByteBuffer buf = ByteBuffer.allocate(FRAME_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < FRAME_BYTES / 2; i++) {
+                buf.putShort((short) (3000 * Math.sin(2 * Math.PI * 220 * i / 24_000.0)));
+            }
+            return buf.flip().asReadOnlyBuffer();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class RelayAdmissionTest {
+
+    private final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<String> events = new ArrayList<>();
+
+    RelayAdmissionTest() {
+        doReturn(mock(ScheduledFuture.class)).when(scheduler).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    @Test
+    void queuesBeyondCapacityAndHandsOverInOrder() {
+        RelayAdmission admission = admission(1, 2);
+
+        assertThat(admit(admission, "a")).isEqualTo(RelayAdmission.Outcome.ADMITTED);
+        assertThat(admit(admission, "b")).isEqualTo(RelayAdmission.Outcome.QUEUED);
+        assertThat(admit(admission, "c")).isEqualTo(RelayAdmission.Outcome.QUEUED);
+        assertThat(admit(admission, "d")).isEqualTo(RelayAdmission.Outcome.REJECTED);
+        assertThat(admission.position("c")).isEqualTo(2);
+
+        admission.release();
+
+        assertThat(events).containsExactly("start b");
+        assertThat(admission.active()).isEqualTo(1);
+        assertThat(admission.queued()).isEqualTo(1);
+        assertThat(registry.get("realtime.admission.rejected").tag("reason", "full").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void expiredWaiterIsRejectedAndReleasedSlotIsFreed() {
+        RelayAdmission admission = admission(1, 1);
+        admit(admission, "a");
+        admit(admission, "b");
+
+        ArgumentCaptor<Runnable> timeout = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(timeout.capture(), eq(500L), eq(TimeUnit.MILLISECONDS));
+        timeout.getValue().run();
+        admission.release();
+
+        assertThat(events).containsExactly("busy b");
+        assertThat(admission.active()).isZero();
+        assertThat(admission.queued()).isZero();
+        assertThat(registry.get("realtime.admission.rejected").tag("reason", "timeout").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelledWaiterNeverStarts() {
+        RelayAdmission admission = admission(1, 1);
+        admit(admission, "a");
+        admit(admission, "b");
+
+        assertThat(admission.cancel("b")).isTrue();
+        admission.release();
+
+        assertThat(events).isEmpty();
+        assertThat(admission.active()).isZero();
+    }
+
+    @Test
+    void zeroMaxSessionsMeansUnlimited() {
+        RelayAdmission admission = admission(0, 0);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(admit(admission, "s" + i)).isEqualTo(RelayAdmission.Outcome.ADMITTED);
+        }
+        assertThat(registry.get("realtime.admission.active").gauge().value()).isEqualTo(1000);
+    }
+
+    private RelayAdmission admission(int maxSessions, int maxQueued) {
+        RealtimeProperties.Admission props = new RealtimeProperties.Admission();
+        props.setMaxSessions(maxSessions);
+        props.setMaxQueued(maxQueued);
+        props.setQueueTimeoutMs(500);
+        RealtimeRelayMetrics metrics = new RealtimeRelayMetrics(registry);
+        RelayAdmission admission = new RelayAdmission(props, scheduler, Runnable::run, metrics);
+        metrics.admissionGauges(admission);
+        return admission;
+    }
+
+    private RelayAdmission.Outcome admit(RelayAdmission admission, String id) {
+        return admission.admit(id, () -> events.add("start " + id), () -> events.add("busy " + id));
+    }
+}
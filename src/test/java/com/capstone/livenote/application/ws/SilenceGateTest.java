@@ -0,0 +1,88 @@
+package com.capstone.livenote.application.ws;
+
+import com.capstone.livenote.application.ws.config.RealtimeProperties;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SilenceGateTest {
+
+    // 10ms 프레임
+    private static final int FRAME_SAMPLES = 240;
+
+    @Test
+    void dropsSilenceBeforeFirstSpeech() {
+        SilenceGate gate = new SilenceGate(gate(100, 20));
+
+        assertThat(gate.admit(frame(0))).isFalse();
+        assertThat(gate.admit(frame(50))).isFalse();
+        assertThat(gate.droppedFrames()).isEqualTo(2);
+    }
+
+    @Test
+    void keepsSendingSilenceDuringHangover() {
+        SilenceGate gate = new SilenceGate(gate(30, 20));
+
+        assertThat(gate.admit(frame(3000))).isTrue();
+        assertThat(gate.admit(frame(0))).isTrue();
+        assertThat(gate.admit(frame(0))).isTrue();
+        assertThat(gate.admit(frame(0))).isTrue();
+        assertThat(gate.admit(frame(0))).isFalse();
+        assertThat(gate.droppedRatio()).isEqualTo(0.2);
+    }
+
+    @Test
+    void flushesPreRollBeforeSpeechOnset() {
+        SilenceGate gate = new SilenceGate(gate(0, 20));
+
+        gate.admit(frame(1));
+        gate.admit(frame(2));
+        gate.admit(frame(3));
+        assertThat(gate.admit(frame(3000))).isTrue();
+
+        // 최근 20ms(프레임 2개)만 남는다
+        ByteBuffer first = gate.pollPreRoll(Integer.MAX_VALUE);
+        assertThat(first.order(ByteOrder.LITTLE_ENDIAN).getShort(0)).isEqualTo((short) 2);
+        int total = first.remaining();
+        ByteBuffer next;
+        while ((next = gate.pollPreRoll(Integer.MAX_VALUE)) != null) {
+            total += next.remaining();
+        }
+        assertThat(total).isEqualTo(FRAME_SAMPLES * 2 * 2);
+        assertThat(gate.pollPreRoll(Integer.MAX_VALUE)).isNull();
+        assertThat(gate.droppedBytes()).isEqualTo(FRAME_SAMPLES * 2);
+    }
+
+    @Test
+    void quietHighZeroCrossingFrameCountsAsSpeech() {
+        SilenceGate gate = new SilenceGate(gate(0, 0));
+        ByteBuffer hiss = ByteBuffer.allocate(FRAME_SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < FRAME_SAMPLES; i++) {
+            hiss.putShort((short) (i % 2 == 0 ? 150 : -150));
+        }
+        hiss.flip();
+
+        assertThat(gate.admit(hiss)).isTrue();
+        assertThat(hiss.remaining()).isEqualTo(FRAME_SAMPLES * 2);
+    }
+
+    private static RealtimeProperties.Gate gate(long hangoverMs, long preRollMs) {
+        RealtimeProperties.Gate gate = new RealtimeProperties.Gate();
+        gate.setEnergyThreshold(400);
+        gate.setZeroCrossingThreshold(0.3);
+        gate.setHangoverMs(hangoverMs);
+        gate.setPreRollMs(preRollMs);
+        return gate;
+    }
+
+    private static ByteBuffer frame(int amplitude) {
+        ByteBuffer buf = ByteBuffer.allocate(FRAME_SAMPLES * 2).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < FRAME_SAMPLES; i++) {
+            buf.putShort((short) amplitude);
+        }
+        return buf.flip();
+    }
+}
@@ -0,0 +1,159 @@
+package com.capstone.livenote.domain.transcript.service;
+
+import com.capstone.livenote.domain.transcript.repository.TranscriptRepository;
+import com.capstone.livenote.domain.transcript.repository.TranscriptRepository.TimelineSeed;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class LectureTimelineCacheTest {
+
+    private final TranscriptRepository repository = mock(TranscriptRepository.class);
+    private final LectureTimelineCache cache = new LectureTimelineCache(repository);
+
+    @Test
+    void seedsOnceAndTracksSavesInMemory() {
+        seed(1L, 120, 3, 10L);
+
+        LectureTimeline timeline = cache.get(1L);
+        timeline.recordSaved(130);
+
+        assertThat(cache.get(1L).lastEndSec()).isEqualTo(130);
+        assertThat(cache.get(1L).transcriptCount()).isEqualTo(11);
+        verify(repository, times(1)).findTimelineSeedByLectureId(1L);
+    }
+
+    @Test
+    void evictedLectureIsSeededAgainOnNextLookup() {
+        seed(1L, 120, 3, 10L);
+        cache.get(1L);
+
+        cache.evict(1L);
+        cache.get(1L);
+
+        verify(repository, times(2)).findTimelineSeedByLectureId(1L);
+    }
+
+    @Test
+    void idleTimelinesAreDroppedOnLookup() {
+        ReflectionTestUtils.setField(cache, "idleMinutes", 1L);
+        seed(1L, 120, 3, 10L);
+        seed(2L, null, null, 0L);
+        cache.get(1L).touch(System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(2));
+        ((AtomicLong) ReflectionTestUtils.getField(cache, "nextSweepMillis")).set(0); // 다음 get에서 바로 훑게
+
+        cache.get(2L);
+
+        assertThat(cache.size()).isEqualTo(1);
+        cache.get(1L);
+        verify(repository, times(2)).findTimelineSeedByLectureId(1L);
+    }
+
+    @Test
+    void resumedLectureContinuesAfterLastEndSecInNewSection() {
+        seed(1L, 120, 3, 10L);
+        LectureTimeline timeline = cache.get(1L);
+
+        LectureTimeline.Placement first = timeline.place(0, 5);
+        LectureTimeline.Placement second = timeline.place(5, 9);
+
+        assertThat(first.startSec()).isEqualTo(120);
+        assertThat(first.sectionIndex()).isEqualTo(4);
+        assertThat(second.startSec()).isEqualTo(125);
+        assertThat(second.sectionIndex()).isEqualTo(4);
+    }
+
+    @Test
+    void newLectureStartsAtSectionZeroAndRollsOverAfterThirtySeconds() {
+        seed(2L, null, null, 0L);
+        LectureTimeline timeline = cache.get(2L);
+
+        assertThat(timeline.place(0, 10).sectionIndex()).isZero();
+        timeline.recordSaved(10);
+        assertThat(timeline.place(29, 31).sectionIndex()).isZero();
+        timeline.recordSaved(31);
+        assertThat(timeline.place(30, 40).sectionIndex()).isEqualTo(1);
+    }
+
+    @Test
+    void clientClockResetMidSessionIsOffsetByLastEndSec() {
+        seed(3L, null, null, 0L);
+        LectureTimeline timeline = cache.get(3L);
+        timeline.place(10, 40);
+        timeline.recordSaved(40);
+
+        LectureTimeline.Placement restarted = timeline.place(0, 3);
+
+        assertThat(restarted.startSec()).isEqualTo(40);
+        assertThat(restarted.endSec()).isEqualTo(43);
+    }
+
+    @Test
+    void restartWhilePreviousSaveIsInFlightDoesNotOverlap() {
+        seed(4L, null, null, 0L);
+        LectureTimeline timeline = cache.get(4L);
+        timeline.place(10, 40); // 다른 스레드에서 아직 저장 중 (recordSaved 전)
+
+        LectureTimeline.Placement restarted = timeline.place(0, 3);
+
+        assertThat(restarted.startSec()).isEqualTo(40);
+    }
+
+    @Test
+    void concurrentFirstLookupsSeedOnce() throws Exception {
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        TimelineSeed seed = mock(TimelineSeed.class);
+        when(seed.getTranscriptCount()).thenReturn(0L);
+        when(repository.findTimelineSeedByLectureId(5L)).thenAnswer(inv -> {
+            querying.countDown();
+            assertThat(release.await(5, TimeUnit.SECONDS)).isTrue(); // 테스트가 풀어 줄 때까지 조회 중
+            return seed;
+        });
+        seed(6L, 60, 1, 5L);
+
+        ExecutorService pool = Executors.newFixedThreadPool(9);
+        try {
+            List<Future<LectureTimeline>> lookups = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                lookups.add(pool.submit(() -> cache.get(5L)));
+            }
+            assertThat(querying.await(5, TimeUnit.SECONDS)).isTrue();
+
+            // 강의 5의 초기화가 진행 중이어도 다른 강의는 막히지 않는다
+            assertThat(pool.submit(() -> cache.get(6L).lastEndSec()).get(5, TimeUnit.SECONDS)).isEqualTo(60);
+            assertThat(lookups).noneMatch(Future::isDone);
+
+            release.countDown();
+            for (Future<LectureTimeline> lookup : lookups) {
+                assertThat(lookup.get(5, TimeUnit.SECONDS)).isSameAs(lookups.get(0).get());
+            }
+        } finally {
+            release.countDown();
+            pool.shutdownNow();
+        }
+        verify(repository, times(1)).findTimelineSeedByLectureId(5L);
+    }
+
+    private void seed(Long lectureId, Integer lastEndSec, Integer lastSection, Long count) {
+        TimelineSeed seed = mock(TimelineSeed.class);
+        when(seed.getLastEndSec()).thenReturn(lastEndSec);
+        when(seed.getLastSectionIndex()).thenReturn(lastSection);
+        when(seed.getTranscriptCount()).thenReturn(count);
+        when(repository.findTimelineSeedByLectureId(lectureId)).thenReturn(seed);
+    }
+}
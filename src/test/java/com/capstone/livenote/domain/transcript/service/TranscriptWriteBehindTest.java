@@ -0,0 +1,147 @@
+package com.capstone.livenote.domain.transcript.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class TranscriptWriteBehindTest {
+
+    @TempDir
+    Path dir;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final List<List<Object>> inserts = new CopyOnWriteArrayList<>();
+    private final AtomicBoolean dbDown = new AtomicBoolean();
+    private final CountDownLatch dbStuck = new CountDownLatch(1);
+    private volatile CountDownLatch inInsert;
+
+    private TranscriptWriteBehind writeBehind;
+
+    TranscriptWriteBehindTest() {
+        doAnswer(inv -> {
+            List<Object> args = Arrays.asList((Object[]) inv.getRawArguments()[1]);
+            if (inInsert != null) {
+                inInsert.countDown();
+                dbStuck.await(10, TimeUnit.SECONDS);
+            }
+            if (dbDown.get()) throw new DataAccessResourceFailureException("db down");
+            if (args.contains("너무 긴 문장")) throw new DataIntegrityViolationException("Data too long for column 'text'");
+            inserts.add(args);
+            return 0;
+        }).when(jdbcTemplate).update(anyString(), any(Object[].class));
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dbStuck.countDown();
+        if (writeBehind != null) writeBehind.shutdown();
+    }
+
+    @Test
+    void rowsFromSeveralLecturesGoInOneInsertBeforeRead() throws Exception {
+        writeBehind = open(60_000); // 주기로는 flush되지 않게
+        writeBehind.enqueue(1L, 0, 0, 5, "a");
+        writeBehind.enqueue(2L, 3, 90, 95, "b");
+        writeBehind.enqueue(1L, 0, 5, 10, "c");
+
+        assertThat(writeBehind.awaitFlushed()).isTrue();
+
+        assertThat(inserts).hasSize(1);
+        assertThat(inserts.get(0)).containsExactly(
+                1L, 0, 0, 5, "a",
+                2L, 3, 90, 95, "b",
+                1L, 0, 5, 10, "c");
+        assertThat(writeBehind.pending()).isZero();
+    }
+
+    @Test
+    void unwrittenRowsAreSpilledOnShutdownAndReplayedOnStart() throws Exception {
+        writeBehind = open(60_000);
+        dbDown.set(true);
+        writeBehind.enqueue(1L, 0, 0, 5, "첫 문장");
+        writeBehind.enqueue(1L, 0, 5, 10, "둘째\n문장");
+        writeBehind.shutdown();
+
+        Path spill = dir.resolve("transcript-spill.jsonl");
+        assertThat(Files.readAllLines(spill)).hasSize(2);
+
+        dbDown.set(false);
+        writeBehind = open(60_000);
+        assertThat(writeBehind.pending()).isEqualTo(2);
+        assertThat(writeBehind.awaitFlushed()).isTrue();
+
+        assertThat(inserts).hasSize(1);
+        assertThat(inserts.get(0)).containsExactly(1L, 0, 0, 5, "첫 문장", 1L, 0, 5, 10, "둘째\n문장");
+        assertThat(Files.exists(spill)).isFalse();
+    }
+
+    @Test
+    void rowTheDbRefusesIsMovedAsideAndTheRestAreWritten() throws Exception {
+        writeBehind = open(60_000);
+        writeBehind.enqueue(1L, 0, 0, 5, "a");
+        writeBehind.enqueue(2L, 0, 0, 5, "너무 긴 문장");
+        writeBehind.enqueue(1L, 0, 5, 10, "c");
+
+        assertThat(writeBehind.awaitFlushed()).isTrue();
+
+        // 일괄 INSERT가 실패해 한 행씩 넣는다
+        assertThat(inserts).containsExactly(
+                List.of(1L, 0, 0, 5, "a"),
+                List.of(1L, 0, 5, 10, "c"));
+        assertThat(writeBehind.pending()).isZero();
+        assertThat(Files.readAllLines(dir.resolve("transcript-rejected.jsonl")))
+                .singleElement()
+                .satisfies(line -> assertThat(line).contains("너무 긴 문장"));
+    }
+
+    @Test
+    void queueIsSpilledEvenWhenWriterIsStuckInDbCall() throws Exception {
+        writeBehind = open(60_000);
+        ReflectionTestUtils.setField(writeBehind, "shutdownTimeoutSeconds", 1);
+        ReflectionTestUtils.setField(writeBehind, "readWaitMillis", 100L);
+        inInsert = new CountDownLatch(1);
+        writeBehind.enqueue(1L, 0, 0, 5, "a");
+        assertThat(writeBehind.awaitFlushed()).isFalse(); // read-wait-ms 안에 못 넣음
+        assertThat(inInsert.await(5, TimeUnit.SECONDS)).isTrue();
+        writeBehind.enqueue(1L, 0, 5, 10, "b");
+
+        writeBehind.shutdown();
+
+        assertThat(Files.readAllLines(dir.resolve("transcript-spill.jsonl"))).hasSize(2);
+        writeBehind = null;
+    }
+
+    private TranscriptWriteBehind open(long flushIntervalMillis) throws Exception {
+        TranscriptWriteBehind w = new TranscriptWriteBehind(jdbcTemplate, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(w, "enabled", true);
+        ReflectionTestUtils.setField(w, "flushIntervalMillis", flushIntervalMillis);
+        ReflectionTestUtils.setField(w, "maxBatchRows", 100);
+        ReflectionTestUtils.setField(w, "readWaitMillis", 5_000L);
+        ReflectionTestUtils.setField(w, "spillFile", dir.resolve("transcript-spill.jsonl").toString());
+        ReflectionTestUtils.setField(w, "rejectedFile", dir.resolve("transcript-rejected.jsonl").toString());
+        ReflectionTestUtils.setField(w, "shutdownTimeoutSeconds", 5);
+        w.init();
+        return w;
+    }
+}
@@ -0,0 +1,33 @@
+package com.capstone.livenote.global.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeyedSerialExecutorTest {
+
+    @Test
+    void rejectedTaskDoesNotStrandLaterTasksOfTheSameKey() {
+        AtomicBoolean reject = new AtomicBoolean(true);
+        KeyedSerialExecutor<String> lanes = new KeyedSerialExecutor<>(r -> {
+            if (reject.get()) throw new RejectedExecutionException("full");
+            r.run();
+        });
+        List<String> ran = new ArrayList<>();
+
+        assertThatThrownBy(() -> lanes.execute("s1", () -> ran.add("a")))
+                .isInstanceOf(RejectedExecutionException.class);
+        assertThat(lanes.pendingTasks()).isZero();
+
+        reject.set(false);
+        lanes.execute("s1", () -> ran.add("b"));
+
+        assertThat(ran).containsExactly("b");
+    }
+}